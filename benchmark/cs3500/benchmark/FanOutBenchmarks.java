@@ -0,0 +1,87 @@
+package cs3500.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cs3500.planner.model.BatchMode;
+import cs3500.planner.model.EventResult;
+import cs3500.planner.model.EventSpec;
+import cs3500.planner.model.Location;
+import cs3500.planner.model.Time;
+
+/**
+ * Benchmarks creating events shared by the host and their invitees, one at a time and in
+ * batches. Each event takes a minute of the free part of the week that no event has yet, so
+ * every call really creates its events, and they are removed again before each iteration.
+ * An iteration is a fixed batch of {@link #CALLS} calls timed together, so the reported time is
+ * for all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = FanOutBenchmarks.CALLS)
+@Measurement(iterations = 20, batchSize = FanOutBenchmarks.CALLS)
+@Fork(1)
+public class FanOutBenchmarks extends PlannerFixture {
+  /**
+   * The calls timed together in each iteration.
+   */
+  static final int CALLS = 64;
+
+  /**
+   * The events created by each call to createEvents.
+   */
+  static final int BATCH = 16;
+
+  private final Location online = new Location(true, "Online");
+  private int next;
+  //INVARIANT: next is the offset from BUSY_MINUTES of the first minute no event has taken.
+
+  /**
+   * Removes the events created by the last iteration.
+   */
+  @Setup(Level.Iteration)
+  public void clearCreated() {
+    this.removeCreated();
+    this.next = 0;
+  }
+
+  /**
+   * Creates one event for the host and their invitees.
+   */
+  @Benchmark
+  public void createEvent() {
+    int start = BUSY_MINUTES + this.next++;
+    this.system.createEvent("meeting", this.invited, this.online, new Time(start, start + 1),
+            this.host);
+  }
+
+  /**
+   * Creates a batch of events for the host and their invitees in one call.
+   *
+   * @return what became of each event
+   */
+  @Benchmark
+  public List<EventResult> createEvents() {
+    ArrayList<EventSpec> batch = new ArrayList<>(BATCH);
+    for (int idx = 0; idx < BATCH; idx++) {
+      int start = BUSY_MINUTES + this.next++;
+      batch.add(new EventSpec("meeting", this.invited, this.online, new Time(start, start + 1),
+              this.host));
+    }
+    return this.system.createEvents(batch, BatchMode.ALL_OR_NOTHING);
+  }
+}
@@ -0,0 +1,82 @@
+package cs3500.benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cs3500.planner.model.User;
+import cs3500.planner.view.NUPlannerPanel;
+
+/**
+ * Benchmarks painting the planner panel onto an offscreen image, both when nothing has changed
+ * since it was last painted and when it shows another user each time, so every event is drawn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmarks extends PlannerFixture {
+  private NUPlannerPanel panel;
+  private BufferedImage image;
+  private User other;
+  private boolean showingHost;
+
+  /**
+   * Makes the panel, showing the host, and the image it paints onto.
+   */
+  @Override
+  protected void prepare() {
+    this.panel = new NUPlannerPanel(this.system);
+    this.panel.setSize(800, 800);
+    this.panel.changeUser(this.host);
+    this.showingHost = true;
+    this.other = this.loaded.get(this.loaded.size() - 1);
+    this.image = new BufferedImage(800, 800, BufferedImage.TYPE_INT_ARGB);
+  }
+
+  /**
+   * Paints the panel onto the image.
+   *
+   * @return a pixel of the image
+   */
+  private int paint() {
+    Graphics2D g = this.image.createGraphics();
+    this.panel.paint(g);
+    g.dispose();
+    return this.image.getRGB(400, 400);
+  }
+
+  /**
+   * Paints the panel again with nothing changed.
+   *
+   * @return a pixel of the image
+   */
+  @Benchmark
+  public int paintUnchanged() {
+    return this.paint();
+  }
+
+  /**
+   * Switches the panel between two users and paints it.
+   *
+   * @return a pixel of the image
+   */
+  @Benchmark
+  public int paintAfterUserChange() {
+    this.showingHost = !this.showingHost;
+    this.panel.changeUser(this.showingHost ? this.host : this.other);
+    return this.paint();
+  }
+}
@@ -0,0 +1,142 @@
+package cs3500.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import cs3500.planner.model.CentralSystem;
+import cs3500.planner.model.Location;
+import cs3500.planner.model.NUEvent;
+import cs3500.planner.model.Schedule;
+import cs3500.planner.model.Time;
+import cs3500.planner.model.User;
+import cs3500.planner.persistence.BinarySnapshot;
+
+/**
+ * A planner filled with generated users and events, for the benchmarks that run against it.
+ * Every benchmark extending it is run once for each combination of user count, events per user
+ * and invitees per event. Each user's events are evenly spaced before {@link #BUSY_MINUTES} and
+ * invite random other users, leaving the rest of the week free for events the benchmarks make.
+ *
+ * <p>The benchmarks are built with {@code mvn -P jmh package} and run with
+ * {@code java -jar target/benchmarks.jar}, adding {@code -prof gc} for allocation and garbage
+ * collection per operation.
+ */
+@State(Scope.Benchmark)
+public abstract class PlannerFixture {
+  /**
+   * Generated events all start before this minute of the week.
+   */
+  static final int BUSY_MINUTES = 8000;
+
+  @Param({"10", "100"})
+  public int users;
+
+  @Param({"10", "100"})
+  public int eventsPerUser;
+
+  @Param({"1", "8"})
+  public int inviteesPerEvent;
+
+  protected CentralSystem system;
+  protected List<User> loaded;
+  protected User host;
+  //INVARIANT: host is the first user in loaded, and is in system.
+  protected ArrayList<User> invited;
+  //INVARIANT: invited holds random users other than host, for the events benchmarks create.
+  protected Random random;
+
+  /**
+   * Generates the users and their events and loads them into a new CentralSystem.
+   *
+   * @throws Exception if the snapshot the users are loaded from cannot be written
+   */
+  @Setup(Level.Trial)
+  public void buildPlanner() throws Exception {
+    if (this.users < 1 || this.eventsPerUser < 1 || this.eventsPerUser > BUSY_MINUTES / 2
+            || this.inviteesPerEvent < 0) {
+      throw new IllegalArgumentException("Need users, and between 1 and "
+              + BUSY_MINUTES / 2 + " events per user");
+    }
+    this.random = new Random(42);
+    ArrayList<User> generated = new ArrayList<>();
+    for (int idx = 0; idx < this.users; idx++) {
+      String uId = "user" + idx;
+      generated.add(new User(uId, new Schedule(uId, new ArrayList<>())));
+    }
+    ArrayList<User> built = new ArrayList<>();
+    int spacing = BUSY_MINUTES / this.eventsPerUser;
+    for (User u : generated) {
+      ArrayList<NUEvent> events = new ArrayList<>();
+      for (int idx = 0; idx < this.eventsPerUser; idx++) {
+        int start = idx * spacing;
+        events.add(new NUEvent("event" + idx, this.invitees(u, generated),
+                new Location(false, "Room " + idx),
+                new Time(start, start + Math.max(1, spacing / 2)), u));
+      }
+      built.add(new User(u.printName(), new Schedule(u.printName(), events)));
+    }
+    Path snapshot = Files.createTempFile("planner-fixture", ".bin");
+    try {
+      BinarySnapshot.write(built, snapshot);
+      this.system = new CentralSystem();
+      this.system.loadSnapshot(snapshot);
+    } finally {
+      Files.deleteIfExists(snapshot);
+    }
+    this.loaded = this.system.usersInSystem();
+    this.host = this.loaded.get(0);
+    this.invited = this.invitees(this.host, this.loaded);
+    this.invited.remove(this.host);
+    this.prepare();
+  }
+
+  /**
+   * Prepares what a benchmark needs beyond the planner, once the planner is built. JMH does not
+   * order the setup methods of a class and its superclass, so benchmarks do their own setup
+   * here rather than in setup methods of their own.
+   *
+   * @throws Exception if the benchmark cannot be prepared
+   */
+  protected void prepare() throws Exception {
+    //nothing beyond the planner by default.
+  }
+
+  /**
+   * Returns the host followed by random other users, for the invitee list of a new event.
+   *
+   * @param host the host of the event
+   * @param from the users to invite from
+   * @return the host and the users invited
+   */
+  protected ArrayList<User> invitees(User host, List<User> from) {
+    ArrayList<User> invited = new ArrayList<>();
+    invited.add(host);
+    for (int idx = 0; idx < this.inviteesPerEvent && idx < from.size() - 1; idx++) {
+      User pick = from.get(this.random.nextInt(from.size()));
+      if (!invited.contains(pick)) {
+        invited.add(pick);
+      }
+    }
+    return invited;
+  }
+
+  /**
+   * Removes every event the benchmarks created in the free part of the week.
+   */
+  protected void removeCreated() {
+    for (NUEvent e : this.system.usersEvents(this.host)) {
+      if (e.startMinute() >= BUSY_MINUTES) {
+        this.system.removeEvent(e, this.host);
+      }
+    }
+  }
+}
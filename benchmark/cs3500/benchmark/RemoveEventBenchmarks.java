@@ -0,0 +1,67 @@
+package cs3500.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cs3500.planner.model.Location;
+import cs3500.planner.model.NUEvent;
+import cs3500.planner.model.Time;
+
+/**
+ * Benchmarks the host removing events shared with their invitees. Before each iteration the
+ * events to remove are created, and an iteration is a fixed batch of {@link #CALLS} removals
+ * timed together, so the reported time is for all of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = RemoveEventBenchmarks.CALLS)
+@Measurement(iterations = 20, batchSize = RemoveEventBenchmarks.CALLS)
+@Fork(1)
+public class RemoveEventBenchmarks extends PlannerFixture {
+  /**
+   * The removals timed together in each iteration.
+   */
+  static final int CALLS = 256;
+
+  private final NUEvent[] created = new NUEvent[CALLS];
+  private int next;
+
+  /**
+   * Creates the events the next iteration removes.
+   */
+  @Setup(Level.Iteration)
+  public void createEvents() {
+    this.removeCreated();
+    Location online = new Location(true, "Online");
+    for (int idx = 0; idx < CALLS; idx++) {
+      this.system.createEvent("meeting", this.invited, online,
+              new Time(BUSY_MINUTES + idx, BUSY_MINUTES + idx + 1), this.host);
+    }
+    for (NUEvent e : this.system.usersEvents(this.host)) {
+      if (e.startMinute() >= BUSY_MINUTES) {
+        this.created[e.startMinute() - BUSY_MINUTES] = e;
+      }
+    }
+    this.next = 0;
+  }
+
+  /**
+   * Removes one event from the host and every invitee.
+   */
+  @Benchmark
+  public void removeEvent() {
+    this.system.removeEvent(this.created[this.next++], this.host);
+  }
+}
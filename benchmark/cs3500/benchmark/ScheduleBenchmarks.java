@@ -0,0 +1,84 @@
+package cs3500.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cs3500.planner.model.Location;
+import cs3500.planner.model.NUEvent;
+import cs3500.planner.model.Schedule;
+import cs3500.planner.model.Time;
+
+/**
+ * Benchmarks checking a new event against a schedule, through the schedule's index and by
+ * comparing its time with every event's time one at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleBenchmarks extends PlannerFixture {
+  private static final int PROBES = 1024;
+
+  private Schedule schedule;
+  private NUEvent[] probes;
+  private Time[] held;
+  private int next;
+
+  /**
+   * Makes the events to check, at random times and with random invitees.
+   */
+  @Override
+  protected void prepare() {
+    this.schedule = this.host.userSchedule();
+    this.probes = new NUEvent[PROBES];
+    for (int idx = 0; idx < PROBES; idx++) {
+      int start = this.random.nextInt(Time.MINUTES_PER_WEEK - 60);
+      this.probes[idx] = new NUEvent("probe", this.invitees(this.host, this.loaded),
+              new Location(true, "Online"), new Time(start, start + 30), this.host);
+    }
+    List<NUEvent> events = this.system.usersEvents(this.host);
+    this.held = new Time[events.size()];
+    for (int idx = 0; idx < this.held.length; idx++) {
+      this.held[idx] = events.get(idx).eventTime();
+    }
+  }
+
+  /**
+   * Checks an event against the host's schedule.
+   *
+   * @return whether it conflicts
+   */
+  @Benchmark
+  public boolean checkEventsForConflicts() {
+    return this.schedule.checkEventsForConflicts(this.probes[this.next++ & (PROBES - 1)]);
+  }
+
+  /**
+   * Compares an event's time with the time of every event in the host's schedule.
+   *
+   * @return the number of events it does not overlap
+   */
+  @Benchmark
+  public int noTimeConflict() {
+    Time probe = this.probes[this.next++ & (PROBES - 1)].eventTime();
+    int free = 0;
+    for (Time t : this.held) {
+      if (probe.noTimeConflict(t)) {
+        free++;
+      }
+    }
+    return free;
+  }
+}
@@ -0,0 +1,83 @@
+package cs3500.benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cs3500.planner.model.Schedule;
+import cs3500.planner.model.User;
+import cs3500.planner.xmlbehavior.ScheduleWriter;
+import cs3500.planner.xmlbehavior.XMLHelper;
+
+/**
+ * Benchmarks reading the host's schedule from its XML file and saving it back, in a temporary
+ * directory. Saving goes through the same writer XMLHelper.saveSchedule uses, aimed at the
+ * temporary file instead of the working directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XmlBenchmarks extends PlannerFixture {
+  private final XMLHelper helper = new XMLHelper();
+  private final ScheduleWriter writer = new ScheduleWriter();
+  private Path directory;
+  private Path file;
+  private Schedule schedule;
+
+  /**
+   * Saves the host's schedule to a temporary file to be read.
+   *
+   * @throws Exception if the temporary directory cannot be made
+   */
+  @Override
+  protected void prepare() throws Exception {
+    this.schedule = this.host.userSchedule();
+    this.directory = Files.createTempDirectory("planner-xml");
+    this.file = this.directory.resolve(ScheduleWriter.fileName(this.schedule));
+    this.writer.write(this.schedule, this.file);
+  }
+
+  /**
+   * Deletes the temporary file and its directory.
+   *
+   * @throws Exception if they cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void deleteFile() throws Exception {
+    Files.deleteIfExists(this.file);
+    Files.deleteIfExists(this.directory);
+  }
+
+  /**
+   * Reads the host's schedule from its file.
+   *
+   * @return the user read
+   */
+  @Benchmark
+  public User readXML() {
+    return this.helper.readXML(this.file.toFile());
+  }
+
+  /**
+   * Saves the host's schedule to its file.
+   */
+  @Benchmark
+  public void saveSchedule() {
+    this.writer.write(this.schedule, this.file);
+  }
+}
@@ -1,8 +1,15 @@
 package cs3500.planner;
 
+import java.nio.file.Paths;
+import java.util.Arrays;
+
 import cs3500.planner.controller.NUPlannerController;
 import cs3500.planner.model.CentralSystem;
 import cs3500.planner.model.NUPlannerModel;
+import cs3500.planner.model.SingleWriterPlanner;
+import cs3500.planner.persistence.DurablePlanner;
+import cs3500.planner.remote.PlannerServer;
+import cs3500.planner.remote.RemotePlannerModel;
 import cs3500.planner.view.NUPlannerFrame;
 import cs3500.planner.view.NUPlannerFrameView;
 
@@ -12,11 +19,58 @@ import cs3500.planner.view.NUPlannerFrameView;
 public class NUPlannerMain {
   /**
    * Main method to run the program.
-   * @param args command-line arguments.
+   * If a data directory is given, every change is journaled there and recovered on the next run.
+   * With --serve the planner is shared with other processes on the given local port instead of
+   * being shown, and with --connect the view shows the planner served at the given host and port.
+   * A leading --single-writer applies every change to an in-memory planner on one writer thread.
+   * @param args command-line arguments, one of: an optional data directory;
+   *             --serve port [data directory]; or --connect host port; the first two optionally
+   *             preceded by --single-writer when no data directory is given.
+   * @throws InterruptedException if interrupted while serving
+   * @throws IllegalArgumentException if --single-writer is given with a data directory or
+   *                                  --connect
    */
-  public static void main(String[] args) {
-    NUPlannerModel model = new CentralSystem();
-    NUPlannerFrameView view = new NUPlannerFrame(new CentralSystem());
+  public static void main(String[] args) throws InterruptedException {
+    boolean singleWriter = args.length > 0 && args[0].equals("--single-writer");
+    if (singleWriter) {
+      args = Arrays.copyOfRange(args, 1, args.length);
+      if (args.length > 0 && !(args[0].equals("--serve") && args.length == 2)) {
+        throw new IllegalArgumentException(
+                "--single-writer only runs an in-memory planner, shown or served");
+      }
+    }
+    if (args.length >= 2 && args[0].equals("--serve")) {
+      NUPlannerModel model = args.length > 2
+              ? DurablePlanner.open(Paths.get(args[2])) : inMemory(singleWriter);
+      PlannerServer server = new PlannerServer(model, Integer.parseInt(args[1]));
+      System.out.println("Serving planner on port " + server.port());
+      server.join();
+      return;
+    }
+    NUPlannerModel model;
+    if (args.length >= 3 && args[0].equals("--connect")) {
+      model = new RemotePlannerModel(args[1], Integer.parseInt(args[2]));
+    }
+    else if (args.length > 0) {
+      model = DurablePlanner.open(Paths.get(args[0]));
+    }
+    else {
+      model = inMemory(singleWriter);
+    }
+    NUPlannerFrameView view = new NUPlannerFrame(model);
     NUPlannerController controller = new NUPlannerController(model, view);
   }
-}
\ No newline at end of file
+
+  /**
+   * Makes a planner kept only in memory.
+   *
+   * @param singleWriter whether changes are applied by one writer thread
+   * @return a new planner with no users
+   */
+  private static NUPlannerModel inMemory(boolean singleWriter) {
+    if (singleWriter) {
+      return new SingleWriterPlanner(new CentralSystem());
+    }
+    return new CentralSystem();
+  }
+}
@@ -1,13 +1,23 @@
 package cs3500.planner.controller;
 
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import cs3500.planner.model.Location;
+import cs3500.planner.model.NUEvent;
 import cs3500.planner.model.NUPlannerModel;
+import cs3500.planner.model.Time;
+import cs3500.planner.model.User;
 import cs3500.planner.view.NUPlannerFrameView;
 
 /**
  * Controller for the NUPlanner system.
  * Delegates to the model and the view.
+ * Changes are submitted to the model, and each returns a future completed once the change is
+ * applied, whether the model applies it straight away or queues it for a writer thread.
  */
 public class NUPlannerController {
+  private final NUPlannerModel model;
 
   /**
    * Constructor.
@@ -16,6 +26,49 @@ public class NUPlannerController {
    * @param view view to delegate to.
    */
   public NUPlannerController(NUPlannerModel model, NUPlannerFrameView view) {
-    //empty for now.
+    this.model = model;
+  }
+
+  /**
+   * Submits the creation of an event for the host and every invitee.
+   *
+   * @param name     the name of the event
+   * @param invitees the users invited to the event
+   * @param location the location of the event and whether it is online
+   * @param time     the duration of the event
+   * @param host     the host of the event
+   * @return a future completed once the event is created, or failed with what creating it threw
+   */
+  public CompletableFuture<Void> createEvent(String name, ArrayList<User> invitees,
+                                             Location location, Time time, User host) {
+    return this.model.submitCreateEvent(name, invitees, location, time, host);
+  }
+
+  /**
+   * Submits a change to every event with the given name.
+   *
+   * @param name       the name of the event to modify
+   * @param editedName the new name of the event
+   * @param invitees   the new invitees of the event
+   * @param location   the new location of the event
+   * @param time       the new time of the event
+   * @return a future completed once the events are changed, or failed with what changing them
+   *         threw
+   */
+  public CompletableFuture<Void> modifyEvent(String name, String editedName,
+                                             ArrayList<User> invitees, Location location,
+                                             Time time) {
+    return this.model.submitModifyEvent(name, editedName, invitees, location, time);
+  }
+
+  /**
+   * Submits the removal of an event from the given user's schedule.
+   *
+   * @param e the event to remove
+   * @param u the user removing it
+   * @return a future completed once the event is removed, or failed with what removing it threw
+   */
+  public CompletableFuture<Void> removeEvent(NUEvent e, User u) {
+    return this.model.submitRemoveEvent(e, u);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package cs3500.planner.model;
+
+/**
+ * Enum representing how a batch of events is applied when some of them cannot be created.
+ */
+public enum BatchMode {
+  /**
+   * Nothing in the batch is created unless every event in it can be.
+   */
+  ALL_OR_NOTHING,
+
+  /**
+   * Every event that can be created is, and the rest are left out.
+   */
+  BEST_EFFORT
+}
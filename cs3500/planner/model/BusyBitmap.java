@@ -0,0 +1,226 @@
+package cs3500.planner.model;
+
+/**
+ * Compact free/busy map of a single week, with one bit per time slot.
+ * A slot is busy if any event covers any minute of it. With the default slot size of one minute
+ * the whole week fits in 158 longs, and ranges are tested and updated a word at a time.
+ */
+final class BusyBitmap {
+  private final int slotMinutes;
+  private final int slots;
+  private final long[] words;
+  //INVARIANT: bits at or past slots are never set.
+
+  /**
+   * Creates an empty bitmap where every slot is free.
+   *
+   * @param slotMinutes the number of minutes each bit stands for
+   * @throws IllegalArgumentException if slotMinutes does not evenly divide a day
+   */
+  BusyBitmap(int slotMinutes) {
+    if (slotMinutes < 1 || Time.MINUTES_PER_DAY % slotMinutes != 0) {
+      throw new IllegalArgumentException("Slot size must evenly divide a day");
+    }
+    this.slotMinutes = slotMinutes;
+    this.slots = Time.MINUTES_PER_WEEK / slotMinutes;
+    this.words = new long[(this.slots + 63) / 64];
+  }
+
+  /**
+   * Returns the number of minutes each slot of this bitmap stands for.
+   *
+   * @return the slot size in minutes
+   */
+  int slotMinutes() {
+    return this.slotMinutes;
+  }
+
+  /**
+   * Marks every slot touched by the minute-of-week range [start, end) as busy.
+   * A range that ends before it starts wraps around the end of the week.
+   *
+   * @param start the first minute of the range
+   * @param end   the minute the range ends on
+   */
+  void markBusy(int start, int end) {
+    int[] bounds = EventIntervalTree.weekSegments(start, end);
+    for (int idx = 0; idx < bounds.length; idx += 2) {
+      this.setSlots(this.firstSlot(bounds[idx]), this.lastSlot(bounds[idx + 1]), true);
+    }
+  }
+
+  /**
+   * Marks every slot touched by the minute-of-week range [start, end) as free.
+   *
+   * @param start the first minute of the range
+   * @param end   the minute the range ends on
+   */
+  void markFree(int start, int end) {
+    int[] bounds = EventIntervalTree.weekSegments(start, end);
+    for (int idx = 0; idx < bounds.length; idx += 2) {
+      this.setSlots(this.firstSlot(bounds[idx]), this.lastSlot(bounds[idx + 1]), false);
+    }
+  }
+
+  /**
+   * Returns the first minute of the slot holding the given minute.
+   *
+   * @param minute a minute of the week
+   * @return the minute the slot starts on
+   */
+  int slotStart(int minute) {
+    return (minute / this.slotMinutes) * this.slotMinutes;
+  }
+
+  /**
+   * Returns the minute after the last minute of the slot holding the given minute.
+   *
+   * @param minute a minute of the week
+   * @return the minute the slot ends on
+   */
+  int slotEnd(int minute) {
+    return this.slotStart(minute) + this.slotMinutes;
+  }
+
+  /**
+   * Determines if every slot touched by the minute-of-week range [start, end) is free.
+   *
+   * @param start the first minute of the range
+   * @param end   the minute the range ends on
+   * @return true if the whole range is free, false if any of it is busy
+   */
+  boolean isFree(int start, int end) {
+    int[] bounds = EventIntervalTree.weekSegments(start, end);
+    for (int idx = 0; idx < bounds.length; idx += 2) {
+      if (anySet(this.words, this.firstSlot(bounds[idx]), this.lastSlot(bounds[idx + 1]))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * ORs the busy slots of the given bitmap into this one a word at a time, so that this bitmap
+   * ends up busy wherever either of them is busy.
+   *
+   * @param other a bitmap with the same slot size as this one
+   * @throws IllegalArgumentException if the slot sizes differ
+   */
+  void or(BusyBitmap other) {
+    if (other.slotMinutes != this.slotMinutes) {
+      throw new IllegalArgumentException("Bitmaps must have the same slot size");
+    }
+    for (int idx = 0; idx < this.words.length; idx++) {
+      this.words[idx] |= other.words[idx];
+    }
+  }
+
+  /**
+   * Returns the number of slots in a week for this bitmap.
+   *
+   * @return the number of slots
+   */
+  int slotCount() {
+    return this.slots;
+  }
+
+  /**
+   * Finds the first busy slot in [from, to).
+   *
+   * @param from the first slot to look at
+   * @param to   the slot to stop before
+   * @return the index of the first busy slot, or to if they are all free
+   */
+  int nextBusy(int from, int to) {
+    return this.nextMatching(from, to, 0L);
+  }
+
+  /**
+   * Finds the first free slot in [from, to).
+   *
+   * @param from the first slot to look at
+   * @param to   the slot to stop before
+   * @return the index of the first free slot, or to if they are all busy
+   */
+  int nextFree(int from, int to) {
+    return this.nextMatching(from, to, -1L);
+  }
+
+  /**
+   * Finds the first slot in [from, to) whose bit differs from the given flip pattern, skipping
+   * whole words that hold no such slot.
+   */
+  private int nextMatching(int from, int to, long flip) {
+    if (from >= to) {
+      return to;
+    }
+    int idx = from >>> 6;
+    long word = (this.words[idx] ^ flip) & (-1L << (from & 63));
+    while (word == 0) {
+      idx++;
+      if ((idx << 6) >= to) {
+        return to;
+      }
+      word = this.words[idx] ^ flip;
+    }
+    return Math.min((idx << 6) + Long.numberOfTrailingZeros(word), to);
+  }
+
+  private int firstSlot(int start) {
+    return start / this.slotMinutes;
+  }
+
+  private int lastSlot(int end) {
+    return Math.min((end + this.slotMinutes - 1) / this.slotMinutes, this.slots);
+  }
+
+  /**
+   * Sets or clears the slots [from, to) a word at a time.
+   */
+  private void setSlots(int from, int to, boolean busy) {
+    if (from >= to) {
+      return;
+    }
+    int firstWord = from >>> 6;
+    int lastWord = (to - 1) >>> 6;
+    for (int idx = firstWord; idx <= lastWord; idx++) {
+      long mask = -1L;
+      if (idx == firstWord) {
+        mask &= -1L << (from & 63);
+      }
+      if (idx == lastWord) {
+        mask &= -1L >>> (63 - ((to - 1) & 63));
+      }
+      if (busy) {
+        this.words[idx] |= mask;
+      }
+      else {
+        this.words[idx] &= ~mask;
+      }
+    }
+  }
+
+  /**
+   * Determines if any of the slots [from, to) are set in the given words.
+   */
+  private static boolean anySet(long[] words, int from, int to) {
+    if (from >= to) {
+      return false;
+    }
+    int firstWord = from >>> 6;
+    int lastWord = (to - 1) >>> 6;
+    for (int idx = firstWord; idx <= lastWord; idx++) {
+      long mask = -1L;
+      if (idx == firstWord) {
+        mask &= -1L << (from & 63);
+      }
+      if (idx == lastWord) {
+        mask &= -1L >>> (63 - ((to - 1) & 63));
+      }
+      if ((words[idx] & mask) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
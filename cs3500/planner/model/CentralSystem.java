@@ -1,19 +1,75 @@
 package cs3500.planner.model;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-import cs3500.planner.xmlbehavior.XMLHelper;
+import cs3500.planner.persistence.BinarySnapshot;
+import cs3500.planner.xmlbehavior.ScheduleLoader;
 
 /**
  * Class representing a central system that keeps track of all users and their schedules.
  * Ensures all events between schedules are consistent.
+ *
+ * <p>The system is safe to use from many threads at once. Each user's schedule is guarded by a
+ * striped lock, and an operation locks the stripes of every user it reads or changes, always in
+ * the same order, so bookings for different users run in parallel without deadlocking. Loading
+ * users, snapshots and resets take a registry lock that excludes every other operation.
+ *
+ * <p>Every change publishes a new PlannerSnapshot, an unchanging version of the whole planner
+ * that shares all it can with the version before. The users and events handed out by
+ * usersInSystem, findUser and usersEvents come from the latest version, so they are read without
+ * locking and never change under the caller, and snapshot gives a consistent view of every user
+ * at once. Free and busy time is still checked against the live schedules.
  */
 public class CentralSystem implements NUPlannerModel {
-  private ArrayList<User> users;
-  //INVARIANT: users != null.
+  private LinkedHashMap<String, User> users;
+  //INVARIANT: users != null, and each user is stored under its own uId.
   private ArrayList<File> files;
-  private XMLHelper xmlHelper;
+  private HashMap<File, FileStamp> loaded;
+  //INVARIANT: every file in loaded is in files, and its stamp names the user it was loaded into.
+  private ScheduleLoader loader;
+  private final EventIndex events;
+  //INVARIANT: events indexes exactly the events in the schedules of users.
+  private final ReentrantReadWriteLock registry;
+  //INVARIANT: users, files and loaded are only replaced or changed under the write lock.
+  private final LockStripes stripes;
+  //INVARIANT: a user's schedule, and the events in it, are only read or changed while holding
+  //the read lock of registry and that user's stripe.
+  private final AtomicReference<PlannerSnapshot> published;
+  //INVARIANT: published holds the users and events as they were after the last change, and a
+  //change to a user is published before their stripe is unlocked.
+  private final CopyOnWriteArrayList<PlannerListener> listeners;
+  private final ChangeFeed feed;
+  //INVARIANT: a change is added to feed before the locks it was made under are released, so
+  //changes to the same user are numbered in the order they were made.
+
+  /**
+   * The number of lock stripes, enough that bookings for unrelated users rarely share one.
+   */
+  private static final int STRIPES = 64;
+
+  /**
+   * The number of changes the change feed keeps, and so how far behind a subscriber may fall.
+   */
+  private static final int FEED_CAPACITY = 1 << 16;
+
+  /**
+   * The change made when users are removed or replaced.
+   */
+  private static final List<PlannerChange> RESET = List.of(new PlannerChange(
+          PlannerChange.Kind.USERS_RESET, null, List.of(), List.of()));
 
   /**
    * Creates a CentralSystem with a list of XML files.
@@ -23,8 +79,15 @@ public class CentralSystem implements NUPlannerModel {
    */
   public CentralSystem(ArrayList<File> files) {
     this.files = files;
-    this.users = new ArrayList<User>();
-    this.xmlHelper = new XMLHelper();
+    this.users = new LinkedHashMap<>();
+    this.loaded = new HashMap<>();
+    this.loader = new ScheduleLoader();
+    this.events = new EventIndex();
+    this.registry = new ReentrantReadWriteLock();
+    this.stripes = new LockStripes(STRIPES);
+    this.published = new AtomicReference<>(PlannerSnapshot.of(List.of(), 0));
+    this.listeners = new CopyOnWriteArrayList<>();
+    this.feed = new ChangeFeed(FEED_CAPACITY);
   }
 
   /**
@@ -32,104 +95,820 @@ public class CentralSystem implements NUPlannerModel {
    */
   public CentralSystem() {
     this.files = new ArrayList<File>();
-    this.users = new ArrayList<User>();
-    this.xmlHelper = new XMLHelper();
+    this.users = new LinkedHashMap<>();
+    this.loaded = new HashMap<>();
+    this.loader = new ScheduleLoader();
+    this.events = new EventIndex();
+    this.registry = new ReentrantReadWriteLock();
+    this.stripes = new LockStripes(STRIPES);
+    this.published = new AtomicReference<>(PlannerSnapshot.of(List.of(), 0));
+    this.listeners = new CopyOnWriteArrayList<>();
+    this.feed = new ChangeFeed(FEED_CAPACITY);
   }
 
 
+  /**
+   * Creates the event once and adds that same event to the schedules of the host and every
+   * invitee in the system, so a meeting exists as a single object however many attend it.
+   * Schedules it conflicts with are skipped.
+   */
   @Override
   public void createEvent(String name, ArrayList<User> invitees, Location location, Time time,
                           User host) {
+    this.createEvent(NUEvent.newId(), name, invitees, location, time, host);
+  }
+
+  /**
+   * Creates an event with the given id for the host and all invitees, as createEvent does.
+   * Used to replay a change that was recorded along with the id its event was given.
+   *
+   * @param id       the id of the new event
+   * @param name     the name of the event
+   * @param invitees the users invited to the event
+   * @param location the location of the event and whether it is online
+   * @param time     the duration of the event
+   * @param host     the host of the event
+   */
+  public void createEvent(String id, String name, ArrayList<User> invitees, Location location,
+                          Time time, User host) {
     ArrayList<User> newInvitees = new ArrayList<>();
     newInvitees.add(host);
     newInvitees.addAll(invitees);
-    for (int idx = 0; idx < this.users.size(); idx++) {
-      if (this.users.get(idx).equals(host)) {
-        users.get(idx).createEvent(name, newInvitees, location, time, host);
-      }
+    NUEvent meeting = new NUEvent(id, name, newInvitees, location, time, host);
+    ArrayList<String> uIds = new ArrayList<>();
+    for (User u : newInvitees) {
+      uIds.add(u.printName());
     }
-    for (User user : this.users) {
+    ArrayList<String> added = new ArrayList<>();
+    List<PlannerChange> changes = List.of();
+    this.registry.readLock().lock();
+    int[] held = this.stripes.lock(uIds);
+    try {
+      User hostUser = this.users.get(host.printName());
+      if (hostUser != null && hostUser.userSchedule().addEvent(meeting)) {
+        this.events.add(meeting, hostUser);
+        added.add(hostUser.printName());
+      }
       for (User invitee : invitees) {
-        if (user.equals(invitee)) {
-          user.createEvent(name, newInvitees, location, time, host);
+        User user = this.users.get(invitee.printName());
+        if (user != null && user.userSchedule().addEvent(meeting)) {
+          this.events.add(meeting, user);
+          added.add(user.printName());
+        }
+      }
+      this.publish(uIds);
+      if (!added.isEmpty()) {
+        changes = List.of(new PlannerChange(PlannerChange.Kind.EVENT_ADDED,
+                meeting.frozenCopy(), added, List.of(time)));
+        this.feed.append(changes);
+      }
+    } finally {
+      this.stripes.unlock(held);
+      this.registry.readLock().unlock();
+    }
+    this.announce(changes);
+  }
+
+  /**
+   * Creates every event in the given batch, each shared by the schedules of its host and every
+   * invitee in the system as createEvent does. The locks of every user in the batch are taken
+   * once, each user is looked up once, and the batch is published as one change.
+   * An event is only created if it fits every attendee's schedule as it was, together with the
+   * events before it in the batch that are being created. Unlike createEvent, an event that
+   * does not fit is left out of every schedule and reported, rather than skipped for the
+   * schedules it conflicts with.
+   *
+   * @param specs the events to create, checked in the order given
+   * @param mode  whether to create nothing unless every event can be created
+   * @return what became of each event, in the order they were given
+   * @throws IllegalArgumentException if specs or mode is null, or two events share an id or
+   *                                  have the id of an event already in the system
+   */
+  public List<EventResult> createEvents(List<EventSpec> specs, BatchMode mode) {
+    if (specs == null || mode == null) {
+      throw new IllegalArgumentException("Events and mode cannot be null");
+    }
+    ArrayList<ArrayList<String>> attendees = new ArrayList<>(specs.size());
+    LinkedHashSet<String> uIds = new LinkedHashSet<>();
+    HashSet<String> eventIds = new HashSet<>();
+    for (EventSpec spec : specs) {
+      if (!eventIds.add(spec.id())) {
+        throw new IllegalArgumentException("Two events in the batch share an id");
+      }
+      ArrayList<String> ids = spec.attendeeIds();
+      attendees.add(ids);
+      uIds.addAll(ids);
+    }
+    ArrayList<PlannerChange> changes = new ArrayList<>();
+    List<EventResult> outcome;
+    this.registry.readLock().lock();
+    int[] held = this.stripes.lock(uIds);
+    try {
+      HashMap<String, User> found = new HashMap<>();
+      for (String uId : uIds) {
+        User u = this.users.get(uId);
+        if (u != null) {
+          found.put(uId, u);
+        }
+      }
+      HashMap<String, EventIntervalTree> batched = new HashMap<>();
+      NUEvent[] meetings = new NUEvent[specs.size()];
+      EventResult[] results = new EventResult[specs.size()];
+      boolean failed = false;
+      for (int idx = 0; idx < specs.size(); idx++) {
+        EventSpec spec = specs.get(idx);
+        if (this.events.byId(spec.id()) != null) {
+          throw new IllegalArgumentException("Event " + spec.id() + " is already in the system");
+        }
+        if (!found.containsKey(spec.host().printName())) {
+          results[idx] = new EventResult(spec, EventResult.Status.UNKNOWN_HOST, null, List.of());
+          failed = true;
+          continue;
+        }
+        ArrayList<User> everyone = new ArrayList<>();
+        everyone.add(spec.host());
+        everyone.addAll(spec.invitees());
+        NUEvent meeting = new NUEvent(spec.id(), spec.name(), everyone, spec.location(),
+                spec.time(), spec.host());
+        ArrayList<String> conflicts = new ArrayList<>();
+        for (String uId : attendees.get(idx)) {
+          User u = found.get(uId);
+          EventIntervalTree earlier = batched.get(uId);
+          if (u != null && (u.userSchedule().checkEventsForConflicts(meeting) || (earlier != null
+                  && earlier.anyOverlap(meeting.startMinute(), meeting.endMinute())))) {
+            conflicts.add(uId);
+          }
         }
+        if (!conflicts.isEmpty()) {
+          results[idx] = new EventResult(spec, EventResult.Status.CONFLICT, null, conflicts);
+          failed = true;
+          continue;
+        }
+        meetings[idx] = meeting;
+        for (String uId : attendees.get(idx)) {
+          if (found.containsKey(uId)) {
+            batched.computeIfAbsent(uId, key -> new EventIntervalTree()).insert(meeting);
+          }
+        }
+      }
+      boolean apply = !failed || mode == BatchMode.BEST_EFFORT;
+      for (int idx = 0; idx < specs.size(); idx++) {
+        if (meetings[idx] == null) {
+          continue;
+        }
+        if (!apply) {
+          results[idx] = new EventResult(specs.get(idx), EventResult.Status.NOT_APPLIED, null,
+                  List.of());
+          continue;
+        }
+        ArrayList<String> added = new ArrayList<>();
+        for (String uId : attendees.get(idx)) {
+          User u = found.get(uId);
+          if (u != null && u.userSchedule().addEvent(meetings[idx])) {
+            this.events.add(meetings[idx], u);
+            added.add(uId);
+          }
+        }
+        results[idx] = new EventResult(specs.get(idx), EventResult.Status.CREATED, meetings[idx],
+                List.of());
+        changes.add(new PlannerChange(PlannerChange.Kind.EVENT_ADDED,
+                meetings[idx].frozenCopy(), added, List.of(meetings[idx].eventTime())));
+      }
+      if (apply && !batched.isEmpty()) {
+        this.publish(batched.keySet());
       }
+      this.feed.append(changes);
+      outcome = Arrays.asList(results);
+    } finally {
+      this.stripes.unlock(held);
+      this.registry.readLock().unlock();
     }
+    this.announce(changes);
+    return outcome;
   }
 
+  /**
+   * Modifies every meeting with the given name once, taking it out of the index of each
+   * schedule holding it first and putting it back afterwards. Meetings are found through the
+   * system's event index, so only the schedules attending them are visited.
+   */
   @Override
   public void modifyEvent(String name, String editedName, ArrayList<User> invitees,
                           Location location, Time time) {
-    if (name.isEmpty()) {
+    if (name == null || name.isEmpty()) {
       throw new IllegalArgumentException("Event name cannot be empty");
     }
-    for (User user : this.users) {
-      user.modifyEvent(name, editedName, invitees, location, time);
+    ArrayList<PlannerChange> changes = new ArrayList<>();
+    LinkedHashSet<String> need = this.holdersOf(this.events.named(name));
+    this.registry.readLock().lock();
+    try {
+      while (true) {
+        int[] held = this.stripes.lock(need);
+        try {
+          List<NUEvent> named = this.events.named(name);
+          LinkedHashSet<String> now = this.holdersOf(named);
+          if (this.stripes.covers(held, now)) {
+            for (NUEvent e : named) {
+              changes.add(this.modifyHeld(e, name, editedName, invitees, location, time));
+            }
+            this.publish(now);
+            this.feed.append(changes);
+            break;
+          }
+          need.addAll(now);
+        } finally {
+          this.stripes.unlock(held);
+        }
+      }
+    } finally {
+      this.registry.readLock().unlock();
     }
+    this.announce(changes);
   }
 
+  /**
+   * Modifies one meeting, taking it out of the index of each schedule holding it first and
+   * putting it back afterwards. The stripes of every user holding it must be locked.
+   *
+   * @return the change made
+   */
+  private PlannerChange modifyHeld(NUEvent e, String name, String editedName,
+                                   ArrayList<User> invitees, Location location, Time time) {
+    List<String> uIds = new ArrayList<>(this.events.holders(e));
+    List<Schedule> holders = new ArrayList<>();
+    for (String uId : uIds) {
+      holders.add(this.users.get(uId).userSchedule());
+    }
+    Time before = e.eventTime();
+    for (Schedule s : holders) {
+      s.unindex(e);
+    }
+    e.modifyEvent(name, editedName, invitees, location, time);
+    for (Schedule s : holders) {
+      s.reindex(e);
+    }
+    this.events.renamed(e, name);
+    Time after = e.eventTime();
+    return new PlannerChange(PlannerChange.Kind.EVENT_MODIFIED, e.frozenCopy(), uIds,
+            before.equals(after) ? List.of(after) : List.of(before, after));
+  }
+
+  /**
+   * Returns the ids of every user holding any of the given meetings. Which users those are can
+   * change until their stripes are locked, so callers work them out before taking any lock, so
+   * a failure cannot leave one held, and check again once the stripes are locked.
+   *
+   * @param meetings the meetings
+   * @return the ids of the users holding them
+   */
+  private LinkedHashSet<String> holdersOf(List<NUEvent> meetings) {
+    LinkedHashSet<String> uIds = new LinkedHashSet<>();
+    for (NUEvent e : meetings) {
+      uIds.addAll(this.events.holders(e));
+    }
+    return uIds;
+  }
+
+  /**
+   * Returns the ids of the given user and every user holding the given meeting.
+   *
+   * @param e   the meeting
+   * @param uId the id of the user changing it
+   * @return the ids of the users whose schedules may see the change
+   */
+  private LinkedHashSet<String> holdersWith(NUEvent e, String uId) {
+    LinkedHashSet<String> uIds = new LinkedHashSet<>(this.events.holders(e));
+    uIds.add(uId);
+    return uIds;
+  }
+
+  /**
+   * Removes the event from the given user's schedule. If the user is the host, the meeting is
+   * removed from every invitee's schedule, and otherwise the user is taken off the meeting's
+   * invitees, which every other attendee sees since they share it.
+   */
   @Override
   public void removeEvent(NUEvent e, User u) {
-    for (User user : this.users) {
-      if (user.equals(u)) {
-        if (e.removeFromHost(user)) {
-          user.removeEvent(e, user);
+    if (e == null || u == null) {
+      throw new IllegalArgumentException("Event and user cannot be null");
+    }
+    ArrayList<PlannerChange> changes = new ArrayList<>();
+    LinkedHashSet<String> need = this.holdersWith(e, u.printName());
+    this.registry.readLock().lock();
+    try {
+      while (true) {
+        int[] held = this.stripes.lock(need);
+        try {
+          LinkedHashSet<String> now = this.holdersWith(e, u.printName());
+          if (this.stripes.covers(held, now)) {
+            this.removeHeld(e, u, changes);
+            this.publish(now);
+            this.feed.append(changes);
+            break;
+          }
+          need.addAll(now);
+        } finally {
+          this.stripes.unlock(held);
         }
-        for (User invitee : users) {
-          invitee.removeEvent(e, invitee);
+      }
+    } finally {
+      this.registry.readLock().unlock();
+    }
+    this.announce(changes);
+  }
+
+  /**
+   * Removes the event with the given id as removeEvent does, finding it in whichever schedules
+   * hold it rather than in the given user's, which may not hold it if it clashed with their
+   * other events. Does nothing if no schedule holds the event or the user is not in the system.
+   *
+   * @param eventId the id of the event to remove
+   * @param uId     the id of the user removing it
+   */
+  public void removeEvent(String eventId, String uId) {
+    NUEvent meeting = this.events.byId(eventId);
+    User user = this.findUser(uId);
+    if (meeting != null && user != null) {
+      this.removeEvent(meeting, user);
+    }
+  }
+
+  /**
+   * Removes the event as removeEvent does. The stripes of the given user and of every user
+   * holding the event must be locked, since taking an invitee off a meeting changes it for all.
+   *
+   * @param changes the list to add the changes made to
+   */
+  private void removeHeld(NUEvent e, User u, List<PlannerChange> changes) {
+    User user = this.users.get(u.printName());
+    if (user == null) {
+      return;
+    }
+    if (e.removeFromHost(user)) {
+      NUEvent meeting = this.events.byId(e.eventId());
+      if (meeting != null) {
+        List<String> uIds = new ArrayList<>(this.events.holders(meeting));
+        NUEvent removed = meeting.frozenCopy();
+        for (String uId : uIds) {
+          User holder = this.users.get(uId);
+          holder.userSchedule().removeEvent(meeting);
+          this.events.remove(meeting, holder);
         }
+        changes.add(new PlannerChange(PlannerChange.Kind.EVENT_REMOVED, removed, uIds,
+                List.of(removed.eventTime())));
       }
-      else {
-        user.removeEvent(e, user);
+      return;
+    }
+    NUEvent stored = user.userSchedule().findEvent(e);
+    if (stored != null) {
+      NUEvent removed = stored.frozenCopy();
+      user.userSchedule().removeEvent(stored);
+      this.events.remove(stored, user);
+      stored.removeInvitee(user.printName());
+      List<String> uIds = new ArrayList<>(this.events.holders(stored));
+      for (String uId : uIds) {
+        this.users.get(uId).userSchedule().refresh(stored);
+      }
+      changes.add(new PlannerChange(PlannerChange.Kind.EVENT_REMOVED, removed,
+              List.of(user.printName()), List.of(removed.eventTime())));
+      if (!uIds.isEmpty()) {
+        changes.add(new PlannerChange(PlannerChange.Kind.EVENT_MODIFIED, stored.frozenCopy(),
+                uIds, List.of(stored.eventTime())));
       }
     }
   }
 
+  /**
+   * Publishes a new version in which the given users are as they are now. The read lock of the
+   * registry and the stripes of every given user must be held, so no other change to them can
+   * be published in between. Changes to other users may be published at the same time, and are
+   * kept.
+   *
+   * @param uIds the ids of the users that have changed
+   */
+  private void publish(Collection<String> uIds) {
+    ArrayList<PlannerSnapshot.Frozen> frozen = new ArrayList<>(uIds.size());
+    for (String uId : uIds) {
+      User u = this.users.get(uId);
+      if (u != null) {
+        frozen.add(PlannerSnapshot.freeze(u));
+      }
+    }
+    while (true) {
+      PlannerSnapshot current = this.published.get();
+      if (this.published.compareAndSet(current, current.replacing(frozen))) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Publishes a new version of every user, after users have been added or removed.
+   * The write lock of the registry must be held.
+   */
+  private void republish() {
+    long next = this.published.get().version() + 1;
+    this.published.set(PlannerSnapshot.of(this.users.values(), next));
+  }
+
+  @Override
+  public void addListener(PlannerListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    this.listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(PlannerListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  /**
+   * Returns the feed of every change made to this system, numbered in the order they were made,
+   * for consumers that follow the planner on their own threads and at their own pace.
+   * Numbering starts from 1 for each new system.
+   *
+   * @return the change feed
+   */
+  public ChangeFeed changeFeed() {
+    return this.feed;
+  }
+
+  /**
+   * Tells every listener about the given changes, once no lock is held and the changes are
+   * published. A listener that throws does not stop the others from being told.
+   *
+   * @param changes the changes made
+   */
+  private void announce(List<PlannerChange> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    List<PlannerChange> told = Collections.unmodifiableList(changes);
+    for (PlannerListener l : this.listeners) {
+      try {
+        l.plannerChanged(told);
+      } catch (RuntimeException e) {
+        //the change is already made, and other listeners still need to hear of it.
+      }
+    }
+  }
+
+  /**
+   * Returns the latest version of the planner, which will not change however the planner does
+   * afterwards. Reading it never waits for a change in progress.
+   *
+   * @return the version published by the last change
+   */
+  public PlannerSnapshot snapshot() {
+    return this.published.get();
+  }
+
+  /**
+   * Replaces the events of the given newly loaded users with the one copy of each meeting
+   * already in the system, so a meeting read from several attendees' files is held once, and
+   * adds their events to the event index. Meetings are matched by id, and the copy already in
+   * the system is kept.
+   *
+   * @param loaded the users just added to the system, where any since replaced are skipped
+   */
+  private void shareMeetings(Collection<User> loaded) {
+    for (User u : loaded) {
+      if (this.users.get(u.printName()) != u) {
+        continue;
+      }
+      Schedule s = u.userSchedule();
+      for (NUEvent e : new ArrayList<>(s.eventsInSchedule())) {
+        NUEvent shared = this.events.byId(e.eventId());
+        if (shared != null && shared != e) {
+          s.replaceEvent(e, shared);
+        }
+      }
+      this.events.addAll(u);
+    }
+  }
+
   @Override
   public boolean checkForTimeConflict(NUEvent event, User user) {
-    if (users.contains(user)) {
-      return user.checkForTimeConflict(event, user);
+    String uId = user.printName();
+    this.registry.readLock().lock();
+    int[] held = this.stripes.lock(uId);
+    try {
+      return this.systemUser(user).checkForTimeConflict(event, user);
+    } finally {
+      this.stripes.unlock(held);
+      this.registry.readLock().unlock();
     }
-    else {
-      throw new IllegalArgumentException("User is not in the system");
+  }
+
+  @Override
+  public boolean isFree(User user, int start, int end) {
+    String uId = user.printName();
+    this.registry.readLock().lock();
+    int[] held = this.stripes.lock(uId);
+    try {
+      return this.systemUser(user).isFree(user, start, end);
+    } finally {
+      this.stripes.unlock(held);
+      this.registry.readLock().unlock();
     }
   }
 
   @Override
-  public String toString() {
-    StringBuilder sb = new StringBuilder();
+  public ArrayList<User> freeUsers(ArrayList<User> group, int start, int end) {
+    ArrayList<String> uIds = ids(group);
+    this.registry.readLock().lock();
+    int[] held = this.stripes.lock(uIds);
+    try {
+      ArrayList<User> free = new ArrayList<>();
+      for (User u : group) {
+        if (this.systemUser(u).userSchedule().isFree(start, end)) {
+          free.add(u);
+        }
+      }
+      return free;
+    } finally {
+      this.stripes.unlock(held);
+      this.registry.readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean allFree(ArrayList<User> group, int start, int end) {
+    ArrayList<String> uIds = ids(group);
+    this.registry.readLock().lock();
+    int[] held = this.stripes.lock(uIds);
+    try {
+      ArrayList<Schedule> schedules = new ArrayList<>();
+      for (User u : group) {
+        schedules.add(this.systemUser(u).userSchedule());
+      }
+      return Schedule.allFree(schedules, start, end);
+    } finally {
+      this.stripes.unlock(held);
+      this.registry.readLock().unlock();
+    }
+  }
+
+  @Override
+  public ArrayList<Time> findSlots(int duration, ArrayList<User> invitees, Time window,
+                                  int maxResults) {
+    ArrayList<String> uIds = ids(invitees);
+    this.registry.readLock().lock();
+    int[] held = this.stripes.lock(uIds);
+    try {
+      ArrayList<Schedule> schedules = new ArrayList<>();
+      for (User u : invitees) {
+        schedules.add(this.systemUser(u).userSchedule());
+      }
+      return SlotFinder.findSlots(schedules, duration, window, maxResults);
+    } finally {
+      this.stripes.unlock(held);
+      this.registry.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the ids of the given users.
+   */
+  private static ArrayList<String> ids(List<User> users) {
+    ArrayList<String> uIds = new ArrayList<>(users.size());
     for (User u : users) {
-      sb.append(u.toString());
+      uIds.add(u.printName());
     }
-    return sb.toString();
+    return uIds;
+  }
+
+  /**
+   * Returns the user in this system matching the given user.
+   *
+   * @param user the user to look up
+   * @return the matching user in the system
+   * @throws IllegalArgumentException if the user is not in the system
+   */
+  private User systemUser(User user) {
+    User found = this.users.get(user.printName());
+    if (found == null) {
+      throw new IllegalArgumentException("User is not in the system");
+    }
+    return found;
+  }
+
+  @Override
+  public String toString() {
+    return this.published.get().toString();
   }
 
   @Override
   public void uploadUser() {
-    for (File f : this.files) {
-      this.users.add(this.xmlHelper.readXML(f));
+    this.registry.readLock().lock();
+    List<File> all;
+    try {
+      all = new ArrayList<>(this.files);
+    } finally {
+      this.registry.readLock().unlock();
     }
+    this.syncFiles(all);
   }
 
   @Override
   public void addFile(File selectedFile) {
-    this.files.add(selectedFile);
+    this.syncFiles(List.of(selectedFile));
+  }
+
+  /**
+   * Loads the given files into the system, skipping any that have not changed since they were
+   * last loaded. A file whose size and modified time still match is not read at all. A file that
+   * was touched but whose contents have the same checksum keeps its current user, so changes
+   * made in the system since it was loaded are not thrown away.
+   * Files are read without holding any lock, and the users read are then added to the system
+   * under the registry's write lock, along with any file not yet in the list of files.
+   * If the loading thread is interrupted while the files are read, nothing is added, so a load
+   * cancelled from another thread leaves the system as it was.
+   *
+   * @param candidates the files to bring up to date
+   * @throws IllegalStateException describing every file that failed to load, or if the load
+   *                               was interrupted
+   */
+  private void syncFiles(List<File> candidates) {
+    ArrayList<File> stale = new ArrayList<>();
+    this.registry.readLock().lock();
+    try {
+      for (File f : candidates) {
+        FileStamp stamp = this.loaded.get(f);
+        if (stamp == null || !stamp.matches(f)) {
+          stale.add(f);
+        }
+      }
+    } finally {
+      this.registry.readLock().unlock();
+    }
+    ScheduleLoader.Result result = this.loader.load(stale);
+    if (Thread.currentThread().isInterrupted()) {
+      throw new IllegalStateException("Loading was interrupted, so nothing was added");
+    }
+    List<PlannerChange> changes;
+    this.registry.writeLock().lock();
+    try {
+      for (File f : candidates) {
+        if (!this.files.contains(f)) {
+          this.files.add(f);
+        }
+      }
+      changes = this.addLoaded(result);
+      this.feed.append(changes);
+    } finally {
+      this.registry.writeLock().unlock();
+    }
+    this.announce(changes);
+    result.throwIfFailed();
+  }
+
+  /**
+   * Adds the users read from files to the system, replacing the users previously loaded from
+   * the same files. The registry's write lock must be held.
+   *
+   * @param result the users read, by the file each was read from
+   */
+  private List<PlannerChange> addLoaded(ScheduleLoader.Result result) {
+    List<User> fresh = new ArrayList<>();
+    boolean removed = false;
+    for (File f : result.usersByFile().keySet()) {
+      User u = result.usersByFile().get(f);
+      long checksum = result.checksum(f);
+      FileStamp old = this.loaded.get(f);
+      if (old != null && old.checksum == checksum && this.users.containsKey(old.uId)) {
+        this.loaded.put(f, new FileStamp(result.size(f), result.lastModified(f), checksum,
+                old.uId));
+        continue;
+      }
+      if (old != null && !old.uId.equals(u.printName())) {
+        User dropped = this.users.remove(old.uId);
+        if (dropped != null) {
+          this.events.removeAll(dropped);
+          removed = true;
+        }
+      }
+      User replaced = this.users.put(u.printName(), u);
+      if (replaced != null) {
+        this.events.removeAll(replaced);
+      }
+      this.loaded.put(f, new FileStamp(result.size(f), result.lastModified(f), checksum,
+              u.printName()));
+      fresh.add(u);
+    }
+    this.shareMeetings(fresh);
+    this.republish();
+    if (removed) {
+      return RESET;
+    }
+    List<PlannerChange> changes = new ArrayList<>();
+    for (User u : fresh) {
+      changes.add(new PlannerChange(PlannerChange.Kind.USER_ADDED, null,
+              List.of(u.printName()), List.of()));
+    }
+    return changes;
   }
 
   @Override
   public ArrayList<User> usersInSystem() {
-    return this.users;
+    return this.published.get().usersInSystem();
   }
 
+  @Override
+  public User findUser(String uId) {
+    return this.published.get().findUser(uId);
+  }
+
+  /**
+   * Returns the events of the given user as of the latest version, without locking.
+   * A user not in the system has their own events returned.
+   */
   @Override
   public ArrayList<NUEvent> usersEvents(User user) {
-    return user.usersEvents(user);
+    return this.published.get().usersEvents(user);
+  }
+
+  /**
+   * Saves every user in the system and their events to a binary snapshot file, which can be
+   * restored much faster than re-reading each user's XML file.
+   * The latest version is saved, so changes made while saving neither wait nor are torn.
+   *
+   * @param snapshot the file to save the snapshot to
+   * @throws IllegalStateException if the snapshot cannot be written
+   */
+  public void saveSnapshot(Path snapshot) {
+    BinarySnapshot.write(this.published.get(), snapshot);
+  }
+
+  /**
+   * Replaces every user in the system with the users in a binary snapshot file.
+   * The system's XML files are kept, but are treated as not yet loaded, so a later upload reads
+   * them again.
+   *
+   * @param snapshot the snapshot file to restore from
+   * @throws IllegalStateException if the snapshot cannot be read or is not valid
+   */
+  public void loadSnapshot(Path snapshot) {
+    LinkedHashMap<String, User> restored = new LinkedHashMap<>();
+    for (User u : BinarySnapshot.read(snapshot)) {
+      restored.put(u.printName(), u);
+    }
+    this.registry.writeLock().lock();
+    try {
+      this.users = restored;
+      this.loaded = new HashMap<>();
+      this.events.clear();
+      this.shareMeetings(restored.values());
+      this.republish();
+      this.feed.append(RESET);
+    } finally {
+      this.registry.writeLock().unlock();
+    }
+    this.announce(RESET);
   }
 
   /**
    * Resets the user list in this model so that they can be re-uploaded based on the files.
    */
   public void resetUsers() {
-    this.users = new ArrayList<>();
+    this.registry.writeLock().lock();
+    try {
+      this.users = new LinkedHashMap<>();
+      this.loaded = new HashMap<>();
+      this.events.clear();
+      this.republish();
+      this.feed.append(RESET);
+    } finally {
+      this.registry.writeLock().unlock();
+    }
+    this.announce(RESET);
+  }
+
+  /**
+   * Records what a file looked like when it was last loaded into the system. The size and
+   * modified time are those taken before the file was read, so a file changed while it was
+   * being read no longer matches and is loaded again.
+   */
+  private static final class FileStamp {
+    private final long size;
+    private final long modified;
+    private final long checksum;
+    private final String uId;
+
+    private FileStamp(long size, long modified, long checksum, String uId) {
+      this.size = size;
+      this.modified = modified;
+      this.checksum = checksum;
+      this.uId = uId;
+    }
+
+    /**
+     * Determines if the given file still has the size and modified time it had when loaded.
+     */
+    private boolean matches(File file) {
+      return file.length() == this.size && file.lastModified() == this.modified;
+    }
   }
 }
\ No newline at end of file
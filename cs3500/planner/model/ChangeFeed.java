@@ -0,0 +1,292 @@
+package cs3500.planner.model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Publishes every change made to a planner, in order and numbered, to any number of subscribers.
+ *
+ * <p>The latest changes are kept in one ring of records. Each subscriber reads the ring from
+ * its own position, so its buffer is the part of the ring it has not yet been sent, which can
+ * never be longer than the ring. Records are only sent as a subscriber requests them, on threads
+ * of the feed's executor, never on the thread making the change. Adding a change only writes it
+ * into the ring and wakes the subscribers with demand, so a slow subscriber never holds up the
+ * planner. A subscriber that falls a whole ring behind is sent an error naming the sequence it
+ * had reached instead, and can subscribe again from there while that change is still kept.
+ */
+public final class ChangeFeed implements Flow.Publisher<ChangeRecord> {
+  private final AtomicReferenceArray<ChangeRecord> ring;
+  private final int mask;
+  //INVARIANT: the length of ring is a power of two and mask is one less than it.
+  private final Executor executor;
+  private final Object lock;
+  private volatile long next;
+  //INVARIANT: next is the sequence the next change will get, only advanced holding lock and
+  //after its record is in the ring, and the ring holds the records from
+  //max(1, next - ring length) up to next.
+  private final List<Feed> feeds;
+  //INVARIANT: feeds holds every subscription not yet cancelled or failed.
+
+  /**
+   * Creates a feed keeping at least the given number of changes, sending them on the given
+   * executor.
+   *
+   * @param capacity the least number of changes to keep, and so how far behind a subscriber may
+   *                 fall, rounded up to a power of two
+   * @param executor runs the tasks sending records to subscribers
+   * @throws IllegalArgumentException if capacity is not positive or executor is null
+   */
+  public ChangeFeed(int capacity, Executor executor) {
+    if (capacity < 1 || capacity > 1 << 30 || executor == null) {
+      throw new IllegalArgumentException("Need a capacity of at least one and an executor");
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.ring = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+    this.executor = executor;
+    this.lock = new Object();
+    this.next = 1;
+    this.feeds = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Creates a feed keeping at least the given number of changes, sending them on daemon
+   * threads of its own.
+   *
+   * @param capacity the least number of changes to keep
+   * @throws IllegalArgumentException if capacity is not positive
+   */
+  public ChangeFeed(int capacity) {
+    this(capacity, Executors.newCachedThreadPool(r -> {
+      Thread t = new Thread(r, "planner-feed");
+      t.setDaemon(true);
+      return t;
+    }));
+  }
+
+  /**
+   * Returns the sequence of the latest change, so a subscriber that has read the planner now can
+   * later resume from the sequence after it.
+   *
+   * @return the sequence of the latest change, or 0 if nothing has changed yet
+   */
+  public long latestSequence() {
+    return this.next - 1;
+  }
+
+  /**
+   * Numbers the given changes and adds them to the ring, then wakes every subscriber waiting for
+   * them. Never waits on a subscriber. Callers must add changes in the order they were made.
+   *
+   * @param changes the changes made
+   */
+  void append(List<PlannerChange> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    synchronized (this.lock) {
+      long sequence = this.next;
+      for (PlannerChange c : changes) {
+        this.ring.set((int) (sequence & this.mask), new ChangeRecord(sequence, c));
+        sequence++;
+      }
+      this.next = sequence;
+    }
+    for (Feed f : this.feeds) {
+      f.wake();
+    }
+  }
+
+  /**
+   * Subscribes to the changes made from now on.
+   *
+   * @param subscriber the subscriber to send records to
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super ChangeRecord> subscriber) {
+    this.subscribe(subscriber, this.next);
+  }
+
+  /**
+   * Subscribes to the changes starting at the given sequence, which may be one already made if
+   * it is still kept. A subscriber resuming after the last record it saw passes its sequence
+   * plus one. If the sequence is no longer kept, or has not been reached, the subscriber is sent
+   * an error once subscribed.
+   *
+   * @param subscriber the subscriber to send records to
+   * @param from       the sequence of the first record to send
+   * @throws NullPointerException if subscriber is null
+   */
+  public void subscribe(Flow.Subscriber<? super ChangeRecord> subscriber, long from) {
+    if (subscriber == null) {
+      throw new NullPointerException("Subscriber cannot be null");
+    }
+    Feed f = new Feed(subscriber, from);
+    this.feeds.add(f);
+    f.signal();
+  }
+
+  /**
+   * One subscriber's subscription, sending it records from its position in the ring as it asks
+   * for them. Sending is done by one task at a time on the feed's executor: whoever finds no
+   * task running starts one, and a running task keeps going until nothing more can be sent.
+   */
+  private final class Feed implements Flow.Subscription, Runnable {
+    private final Flow.Subscriber<? super ChangeRecord> subscriber;
+    private final AtomicLong requested;
+    private final AtomicInteger work;
+    //INVARIANT: a sending task is running or queued exactly when work is not 0.
+    private volatile long position;
+    //INVARIANT: position is the sequence of the next record to send, and is only changed by the
+    //sending task.
+    private volatile boolean done;
+    private volatile Throwable failure;
+    private boolean subscribed;
+    //INVARIANT: subscribed is only used by the sending task, which sends the subscription before
+    //anything else.
+
+    private Feed(Flow.Subscriber<? super ChangeRecord> subscriber, long from) {
+      this.subscriber = subscriber;
+      this.requested = new AtomicLong();
+      this.work = new AtomicInteger();
+      this.position = from;
+      long next = ChangeFeed.this.next;
+      if (from < 1 || from > next) {
+        this.failure = new IllegalArgumentException("There is no change numbered " + from + ", "
+                + "the next is " + next);
+      }
+      else if (next - from > ChangeFeed.this.ring.length()) {
+        this.failure = new IllegalStateException("Change " + from + " is no longer kept, "
+                + "the oldest is " + (next - ChangeFeed.this.ring.length()));
+      }
+    }
+
+    @Override
+    public void request(long n) {
+      if (this.done) {
+        return;
+      }
+      if (n <= 0) {
+        this.fail(new IllegalArgumentException("Must request a positive number of records"));
+        return;
+      }
+      long now;
+      long added;
+      do {
+        now = this.requested.get();
+        added = now + n < 0 ? Long.MAX_VALUE : now + n;
+      } while (!this.requested.compareAndSet(now, added));
+      this.signal();
+    }
+
+    @Override
+    public void cancel() {
+      this.done = true;
+      ChangeFeed.this.feeds.remove(this);
+    }
+
+    /**
+     * Wakes the subscription after changes were added, if it can send any of them or has fallen
+     * too far behind to keep up.
+     */
+    private void wake() {
+      if (this.requested.get() > 0
+              || ChangeFeed.this.next - this.position > ChangeFeed.this.ring.length()) {
+        this.signal();
+      }
+    }
+
+    /**
+     * Fails the subscription the next time its task runs.
+     */
+    private void fail(Throwable t) {
+      this.failure = t;
+      this.signal();
+    }
+
+    /**
+     * Makes sure a sending task will look for records to send after this call.
+     */
+    private void signal() {
+      if (this.work.getAndIncrement() == 0) {
+        this.submit();
+      }
+    }
+
+    private void submit() {
+      try {
+        ChangeFeed.this.executor.execute(this);
+      } catch (RejectedExecutionException e) {
+        this.cancel();
+      }
+    }
+
+    /**
+     * Sends as many records as the subscriber has asked for and the ring holds, until there is
+     * no more work.
+     */
+    @Override
+    public void run() {
+      int missed = 1;
+      while (true) {
+        if (!this.done) {
+          this.send();
+        }
+        missed = this.work.addAndGet(-missed);
+        if (missed == 0) {
+          return;
+        }
+      }
+    }
+
+    /**
+     * Sends what can be sent now, or the error that ends the subscription.
+     */
+    private void send() {
+      try {
+        if (!this.subscribed) {
+          this.subscribed = true;
+          this.subscriber.onSubscribe(this);
+        }
+        while (!this.done && this.failure == null) {
+          long at = this.position;
+          long next = ChangeFeed.this.next;
+          if (at >= next) {
+            return;
+          }
+          ChangeRecord r = ChangeFeed.this.ring.get((int) (at & ChangeFeed.this.mask));
+          if (next - at > ChangeFeed.this.ring.length() || r == null || r.sequence() != at) {
+            this.failure = new IllegalStateException("Fell more than "
+                    + ChangeFeed.this.ring.length() + " changes behind, resume from " + at);
+            break;
+          }
+          if (this.requested.get() == 0) {
+            return;
+          }
+          if (this.requested.get() != Long.MAX_VALUE) {
+            this.requested.decrementAndGet();
+          }
+          this.position = at + 1;
+          this.subscriber.onNext(r);
+        }
+        if (!this.done && this.failure != null) {
+          this.cancel();
+          this.subscriber.onError(this.failure);
+        }
+      } catch (RuntimeException e) {
+        //a subscriber that throws is dropped, since it cannot be told anything more.
+        this.cancel();
+      }
+    }
+  }
+}
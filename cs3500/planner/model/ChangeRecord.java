@@ -0,0 +1,46 @@
+package cs3500.planner.model;
+
+/**
+ * A change made to a planner together with its place in the order of all changes made to it,
+ * as handed out by a ChangeFeed.
+ */
+public final class ChangeRecord {
+  private final long sequence;
+  //INVARIANT: sequence > 0, and records made later by the same feed have larger sequences.
+  private final PlannerChange change;
+
+  /**
+   * Creates a record of the given change.
+   *
+   * @param sequence the place of the change among all the changes made, counting from 1
+   * @param change   the change made
+   */
+  ChangeRecord(long sequence, PlannerChange change) {
+    this.sequence = sequence;
+    this.change = change;
+  }
+
+  /**
+   * Returns the place of this change among all the changes made to the planner. A subscriber
+   * that has seen this record can resume after it from the sequence one larger.
+   *
+   * @return the sequence number, counting from 1
+   */
+  public long sequence() {
+    return this.sequence;
+  }
+
+  /**
+   * Returns the change made.
+   *
+   * @return the change
+   */
+  public PlannerChange change() {
+    return this.change;
+  }
+
+  @Override
+  public String toString() {
+    return this.sequence + ": " + this.change;
+  }
+}
@@ -0,0 +1,103 @@
+package cs3500.planner.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded ring buffer that many threads add to and a single thread takes from.
+ * Each slot carries a sequence number saying whether it is waiting to be filled or to be taken,
+ * so adding only contends on claiming the next position, and taking needs no atomic updates.
+ *
+ * @param <T> the type of the items in the ring
+ */
+final class CommandRing<T> {
+  private final Object[] slots;
+  private final AtomicLongArray sequences;
+  //INVARIANT: the slot for position p is free to fill when its sequence is p, and holds the item
+  //added at p when its sequence is p + 1.
+  private final int mask;
+  private final AtomicLong tail;
+  private long head;
+  //INVARIANT: head is only read or changed by the thread taking items.
+
+  /**
+   * Creates a ring with room for at least the given number of items, rounded up to a power of
+   * two.
+   *
+   * @param capacity the least number of items the ring can hold
+   * @throws IllegalArgumentException if capacity is not between 1 and 2^30
+   */
+  CommandRing(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.slots = new Object[size];
+    this.sequences = new AtomicLongArray(size);
+    for (int idx = 0; idx < size; idx++) {
+      this.sequences.set(idx, idx);
+    }
+    this.mask = size - 1;
+    this.tail = new AtomicLong();
+    this.head = 0;
+  }
+
+  /**
+   * Adds the given item if there is room. Safe to call from any thread.
+   *
+   * @param item the item to add
+   * @return true if it was added, false if the ring is full
+   */
+  boolean offer(T item) {
+    while (true) {
+      long pos = this.tail.get();
+      int idx = (int) pos & this.mask;
+      long seq = this.sequences.get(idx);
+      if (seq == pos) {
+        if (this.tail.compareAndSet(pos, pos + 1)) {
+          this.slots[idx] = item;
+          this.sequences.set(idx, pos + 1);
+          return true;
+        }
+      } else if (seq < pos) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Takes up to the given array's length of items, in the order they were added.
+   * Must only be called by the one thread taking items.
+   *
+   * @param into the array to put the items in
+   * @return the number of items taken
+   */
+  @SuppressWarnings("unchecked")
+  int drainTo(T[] into) {
+    int count = 0;
+    while (count < into.length) {
+      int idx = (int) this.head & this.mask;
+      if (this.sequences.get(idx) != this.head + 1) {
+        break;
+      }
+      into[count++] = (T) this.slots[idx];
+      this.slots[idx] = null;
+      this.sequences.set(idx, this.head + this.slots.length);
+      this.head++;
+    }
+    return count;
+  }
+
+  /**
+   * Determines if there is an item ready to be taken.
+   * Must only be called by the one thread taking items.
+   *
+   * @return true if drainTo would take at least one item, false if not
+   */
+  boolean hasNext() {
+    return this.sequences.get((int) this.head & this.mask) == this.head + 1;
+  }
+}
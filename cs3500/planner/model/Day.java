@@ -38,13 +38,6 @@ public enum Day {
    * @return number that corresponds with this day in the Day enumeration
    */
   public int dayIndex() {
-    Day[] list = Day.values();
-    int i = 0;
-    for (int index = 0; index < 7; index++) {
-      if (this == list[index]) {
-        i = index;
-      }
-    }
-    return i;
+    return this.ordinal();
   }
 }
\ No newline at end of file
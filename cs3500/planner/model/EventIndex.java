@@ -0,0 +1,152 @@
+package cs3500.planner.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * System-wide index of the events in every schedule of a CentralSystem.
+ * Finds events by id or by name, and for each event the ids of the users whose schedules hold
+ * it, so a change to a meeting only has to visit the schedules attending it. Each user's own
+ * events are found through their Schedule, which indexes them by id.
+ * An event stays in the index while at least one schedule holds it.
+ * Every method is synchronized, since the system updates the index from every thread booking
+ * events, whichever users those bookings lock.
+ */
+final class EventIndex {
+  private final HashMap<String, NUEvent> byId;
+  private final HashMap<String, LinkedHashSet<NUEvent>> byName;
+  //INVARIANT: every event in byId is in byName under its current name, and nowhere else.
+  private final HashMap<String, LinkedHashSet<String>> holders;
+  //INVARIANT: holders has a non-empty set for exactly the ids in byId.
+
+  EventIndex() {
+    this.byId = new HashMap<>();
+    this.byName = new HashMap<>();
+    this.holders = new HashMap<>();
+  }
+
+  /**
+   * Records that the given user's schedule holds the given event.
+   *
+   * @param e    the event
+   * @param user the user whose schedule holds it
+   */
+  synchronized void add(NUEvent e, User user) {
+    if (this.byId.putIfAbsent(e.eventId(), e) == null) {
+      this.byName.computeIfAbsent(e.eventName(), key -> new LinkedHashSet<>()).add(e);
+    }
+    this.holders.computeIfAbsent(e.eventId(), key -> new LinkedHashSet<>())
+            .add(user.printName());
+  }
+
+  /**
+   * Records that the given user's schedule no longer holds the given event, dropping the event
+   * from the index once no schedule holds it.
+   *
+   * @param e    the event
+   * @param user the user whose schedule no longer holds it
+   */
+  synchronized void remove(NUEvent e, User user) {
+    LinkedHashSet<String> held = this.holders.get(e.eventId());
+    if (held == null) {
+      return;
+    }
+    held.remove(user.printName());
+    if (held.isEmpty()) {
+      this.holders.remove(e.eventId());
+      NUEvent stored = this.byId.remove(e.eventId());
+      LinkedHashSet<NUEvent> named = this.byName.get(stored.eventName());
+      if (named != null) {
+        named.remove(stored);
+        if (named.isEmpty()) {
+          this.byName.remove(stored.eventName());
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds every event in the given user's schedule.
+   *
+   * @param user the user to index
+   */
+  synchronized void addAll(User user) {
+    for (NUEvent e : user.userSchedule().eventsInSchedule()) {
+      this.add(e, user);
+    }
+  }
+
+  /**
+   * Removes every event in the given user's schedule.
+   *
+   * @param user the user no longer in the system
+   */
+  synchronized void removeAll(User user) {
+    for (NUEvent e : user.userSchedule().eventsInSchedule()) {
+      this.remove(e, user);
+    }
+  }
+
+  /**
+   * Moves an event that has just been renamed to its new name.
+   *
+   * @param e       the renamed event
+   * @param oldName the name it had before
+   */
+  synchronized void renamed(NUEvent e, String oldName) {
+    if (oldName.equals(e.eventName()) || !this.byId.containsKey(e.eventId())) {
+      return;
+    }
+    LinkedHashSet<NUEvent> named = this.byName.get(oldName);
+    if (named != null) {
+      named.remove(e);
+      if (named.isEmpty()) {
+        this.byName.remove(oldName);
+      }
+    }
+    this.byName.computeIfAbsent(e.eventName(), key -> new LinkedHashSet<>()).add(e);
+  }
+
+  /**
+   * Returns the event with the given id.
+   *
+   * @param id the id of the event
+   * @return the event, or null if no schedule holds it
+   */
+  synchronized NUEvent byId(String id) {
+    return this.byId.get(id);
+  }
+
+  /**
+   * Returns every event with the given name.
+   *
+   * @param name the name of the events
+   * @return a new list of the events with that name
+   */
+  synchronized List<NUEvent> named(String name) {
+    LinkedHashSet<NUEvent> named = this.byName.get(name);
+    return named == null ? new ArrayList<>() : new ArrayList<>(named);
+  }
+
+  /**
+   * Returns the ids of the users whose schedules hold the given event.
+   *
+   * @param e the event
+   * @return a new list of the ids of the users holding it
+   */
+  synchronized List<String> holders(NUEvent e) {
+    LinkedHashSet<String> held = this.holders.get(e.eventId());
+    return held == null ? new ArrayList<>() : new ArrayList<>(held);
+  }
+
+  /**
+   * Removes every event from the index.
+   */
+  synchronized void clear() {
+    this.byId.clear();
+    this.byName.clear();
+    this.holders.clear();
+  }
+}
@@ -0,0 +1,294 @@
+package cs3500.planner.model;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Interval index over the events of a single Schedule, keyed on minute-of-week.
+ * Each event is stored as one half-open interval [start, end), or as two intervals when the
+ * event wraps from the end of the week back around to Sunday.
+ * The tree is an AVL tree ordered by start minute where every node also tracks the largest end
+ * minute in its subtree, so overlap queries run in O(log n + k).
+ */
+class EventIntervalTree {
+  private Node root;
+  private long nextSeq;
+  private final IdentityHashMap<NUEvent, Node[]> segments;
+  //INVARIANT: every node in the tree is listed under its event in segments, and vice versa.
+
+  /**
+   * Creates an empty interval index.
+   */
+  EventIntervalTree() {
+    this.root = null;
+    this.nextSeq = 0;
+    this.segments = new IdentityHashMap<>();
+  }
+
+  /**
+   * Adds the given event to the index based on its current time.
+   * Adding an event that is already indexed has no effect.
+   *
+   * @param event the event to index
+   */
+  void insert(NUEvent event) {
+    if (this.segments.containsKey(event)) {
+      return;
+    }
+    int[] bounds = weekSegments(event.startMinute(), event.endMinute());
+    Node[] nodes = new Node[bounds.length / 2];
+    for (int idx = 0; idx < nodes.length; idx++) {
+      nodes[idx] = new Node(bounds[2 * idx], bounds[2 * idx + 1], this.nextSeq++, event);
+      this.root = this.insert(this.root, nodes[idx]);
+    }
+    this.segments.put(event, nodes);
+  }
+
+  /**
+   * Removes the given event instance from the index.
+   * The event is located by the intervals it was indexed under, so this still works after the
+   * event's time has been modified.
+   *
+   * @param event the event to remove
+   */
+  void remove(NUEvent event) {
+    Node[] nodes = this.segments.remove(event);
+    if (nodes != null) {
+      for (Node node : nodes) {
+        this.root = this.remove(this.root, node.start, node.seq);
+      }
+    }
+  }
+
+  /**
+   * Determines if any indexed event overlaps the minute-of-week interval [start, end).
+   * Stops at the first overlap found.
+   *
+   * @param start the first minute of the interval
+   * @param end   the minute after the last minute of the interval
+   * @return true if some event overlaps the interval, false if not
+   */
+  boolean anyOverlap(int start, int end) {
+    int[] bounds = weekSegments(start, end);
+    for (int idx = 0; idx < bounds.length; idx += 2) {
+      if (this.anyOverlap(this.root, bounds[idx], bounds[idx + 1])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns every indexed event overlapping the minute-of-week interval [start, end), in order of
+   * their start minute. An event is only listed once even if both of its intervals overlap.
+   *
+   * @param start the first minute of the interval
+   * @param end   the minute after the last minute of the interval
+   * @return a list of the overlapping events
+   */
+  List<NUEvent> overlapping(int start, int end) {
+    int[] bounds = weekSegments(start, end);
+    List<NUEvent> found = new ArrayList<>();
+    for (int idx = 0; idx < bounds.length; idx += 2) {
+      this.collect(this.root, bounds[idx], bounds[idx + 1], found);
+    }
+    if (found.size() > 1) {
+      IdentityHashMap<NUEvent, Boolean> seen = new IdentityHashMap<>();
+      boolean wrappedQuery = bounds.length > 2;
+      found.removeIf(e -> (wrappedQuery || this.segments.get(e).length > 1)
+              && seen.put(e, Boolean.TRUE) != null);
+    }
+    return found;
+  }
+
+  /**
+   * Splits the given minute-of-week range into half-open intervals inside a single week.
+   * A range that ends before it starts wraps around the end of the week, and a range that starts
+   * and ends on the same minute covers just that minute.
+   *
+   * @param start the first minute of the range
+   * @param end   the minute the range ends on
+   * @return a flat array of start and end pairs
+   */
+  static int[] weekSegments(int start, int end) {
+    if (end > start) {
+      return new int[] {start, end};
+    }
+    else if (end == start) {
+      return new int[] {start, start + 1};
+    }
+    else if (end == 0) {
+      return new int[] {start, Time.MINUTES_PER_WEEK};
+    }
+    else {
+      return new int[] {start, Time.MINUTES_PER_WEEK, 0, end};
+    }
+  }
+
+  private boolean anyOverlap(Node node, int start, int end) {
+    while (node != null && node.maxEnd > start) {
+      if (node.start < end && node.end > start) {
+        return true;
+      }
+      if (node.left != null && node.left.maxEnd > start) {
+        node = node.left;
+      }
+      else if (node.start < end) {
+        node = node.right;
+      }
+      else {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private void collect(Node node, int start, int end, List<NUEvent> found) {
+    if (node == null || node.maxEnd <= start) {
+      return;
+    }
+    this.collect(node.left, start, end, found);
+    if (node.start < end) {
+      if (node.end > start) {
+        found.add(node.event);
+      }
+      this.collect(node.right, start, end, found);
+    }
+  }
+
+  private Node insert(Node node, Node added) {
+    if (node == null) {
+      return added;
+    }
+    if (compare(added.start, added.seq, node) < 0) {
+      node.left = this.insert(node.left, added);
+    }
+    else {
+      node.right = this.insert(node.right, added);
+    }
+    return this.balance(node);
+  }
+
+  private Node remove(Node node, int start, long seq) {
+    if (node == null) {
+      return null;
+    }
+    int cmp = compare(start, seq, node);
+    if (cmp < 0) {
+      node.left = this.remove(node.left, start, seq);
+    }
+    else if (cmp > 0) {
+      node.right = this.remove(node.right, start, seq);
+    }
+    else {
+      if (node.left == null) {
+        return node.right;
+      }
+      if (node.right == null) {
+        return node.left;
+      }
+      Node successor = node.right;
+      while (successor.left != null) {
+        successor = successor.left;
+      }
+      successor.right = this.removeMin(node.right);
+      successor.left = node.left;
+      return this.balance(successor);
+    }
+    return this.balance(node);
+  }
+
+  private Node removeMin(Node node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    node.left = this.removeMin(node.left);
+    return this.balance(node);
+  }
+
+  private static int compare(int start, long seq, Node node) {
+    if (start != node.start) {
+      return Integer.compare(start, node.start);
+    }
+    return Long.compare(seq, node.seq);
+  }
+
+  private Node balance(Node node) {
+    node.update();
+    int skew = height(node.left) - height(node.right);
+    if (skew > 1) {
+      if (height(node.left.left) < height(node.left.right)) {
+        node.left = this.rotateLeft(node.left);
+      }
+      return this.rotateRight(node);
+    }
+    if (skew < -1) {
+      if (height(node.right.right) < height(node.right.left)) {
+        node.right = this.rotateRight(node.right);
+      }
+      return this.rotateLeft(node);
+    }
+    return node;
+  }
+
+  private Node rotateLeft(Node node) {
+    Node pivot = node.right;
+    node.right = pivot.left;
+    pivot.left = node;
+    node.update();
+    pivot.update();
+    return pivot;
+  }
+
+  private Node rotateRight(Node node) {
+    Node pivot = node.left;
+    node.left = pivot.right;
+    pivot.right = node;
+    node.update();
+    pivot.update();
+    return pivot;
+  }
+
+  private static int height(Node node) {
+    return node == null ? 0 : node.height;
+  }
+
+  /**
+   * A single indexed interval of an event.
+   */
+  private static final class Node {
+    private final int start;
+    private final int end;
+    private final long seq;
+    private final NUEvent event;
+    private int maxEnd;
+    private int height;
+    private Node left;
+    private Node right;
+
+    private Node(int start, int end, long seq, NUEvent event) {
+      this.start = start;
+      this.end = end;
+      this.seq = seq;
+      this.event = event;
+      this.maxEnd = end;
+      this.height = 1;
+    }
+
+    /**
+     * Recomputes the height and largest end minute of this node from its children.
+     */
+    private void update() {
+      this.height = 1 + Math.max(height(this.left), height(this.right));
+      int max = this.end;
+      if (this.left != null) {
+        max = Math.max(max, this.left.maxEnd);
+      }
+      if (this.right != null) {
+        max = Math.max(max, this.right.maxEnd);
+      }
+      this.maxEnd = max;
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package cs3500.planner.model;
+
+import java.util.List;
+
+/**
+ * What became of one event in a batch passed to CentralSystem.createEvents.
+ */
+public final class EventResult {
+  /**
+   * Enum representing the outcome of one event in a batch.
+   */
+  public enum Status {
+    /**
+     * The event was added to the schedule of its host and every invitee in the system.
+     */
+    CREATED,
+
+    /**
+     * The event overlaps an event already in, or earlier in the batch for, some attendee.
+     */
+    CONFLICT,
+
+    /**
+     * The host of the event is not in the system.
+     */
+    UNKNOWN_HOST,
+
+    /**
+     * The event could have been created, but was not because others in its batch could not.
+     */
+    NOT_APPLIED
+  }
+
+  private final EventSpec spec;
+  private final Status status;
+  private final NUEvent event;
+  //INVARIANT: event is null unless status is CREATED.
+  private final List<String> conflicts;
+  //INVARIANT: conflicts is empty unless status is CONFLICT.
+
+  EventResult(EventSpec spec, Status status, NUEvent event, List<String> conflicts) {
+    this.spec = spec;
+    this.status = status;
+    this.event = event;
+    this.conflicts = List.copyOf(conflicts);
+  }
+
+  /**
+   * Returns the spec of the event this is the result of.
+   *
+   * @return the spec from the batch
+   */
+  public EventSpec spec() {
+    return this.spec;
+  }
+
+  /**
+   * Returns what became of the event.
+   *
+   * @return the outcome of the event
+   */
+  public Status status() {
+    return this.status;
+  }
+
+  /**
+   * Returns whether the event was created.
+   *
+   * @return true if the status is CREATED, false if not
+   */
+  public boolean created() {
+    return this.status == Status.CREATED;
+  }
+
+  /**
+   * Returns the event that was created, shared by the schedules of everyone attending it.
+   *
+   * @return the created event, or null if it was not created
+   */
+  public NUEvent event() {
+    return this.event;
+  }
+
+  /**
+   * Returns the ids of the attendees whose schedules the event conflicts with.
+   *
+   * @return the conflicting users, empty unless the status is CONFLICT
+   */
+  public List<String> conflicts() {
+    return this.conflicts;
+  }
+
+  @Override
+  public String toString() {
+    return this.spec.name() + ": " + this.status
+            + (this.conflicts.isEmpty() ? "" : " " + this.conflicts);
+  }
+}
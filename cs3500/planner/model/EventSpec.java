@@ -0,0 +1,125 @@
+package cs3500.planner.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+
+/**
+ * The details of one event to be created as part of a batch by CentralSystem.createEvents.
+ * Each spec carries the id its event will be given, so a batch replayed later creates the same
+ * events.
+ */
+public final class EventSpec {
+  private final String id;
+  private final String name;
+  private final ArrayList<User> invitees;
+  //INVARIANT: invitees is a copy no caller can change.
+  private final Location location;
+  private final Time time;
+  private final User host;
+
+  /**
+   * Creates the spec of an event that will be given a new unique id.
+   *
+   * @param name     the name of the event
+   * @param invitees the users invited to the event, besides the host
+   * @param location the location of the event and whether it is online
+   * @param time     the duration of the event
+   * @param host     the host of the event
+   * @throws IllegalArgumentException if any of the elements are null
+   */
+  public EventSpec(String name, ArrayList<User> invitees, Location location, Time time,
+                   User host) {
+    this(NUEvent.newId(), name, invitees, location, time, host);
+  }
+
+  /**
+   * Creates the spec of an event that will be given the given id.
+   *
+   * @param id       the id of the event
+   * @param name     the name of the event
+   * @param invitees the users invited to the event, besides the host
+   * @param location the location of the event and whether it is online
+   * @param time     the duration of the event
+   * @param host     the host of the event
+   * @throws IllegalArgumentException if any of the elements are null
+   */
+  public EventSpec(String id, String name, ArrayList<User> invitees, Location location,
+                   Time time, User host) {
+    if (id == null || name == null || invitees == null || location == null || time == null
+            || host == null) {
+      throw new IllegalArgumentException("Elements cannot be null");
+    }
+    this.id = id;
+    this.name = name;
+    this.invitees = new ArrayList<>(invitees);
+    this.location = location;
+    this.time = time;
+    this.host = host;
+  }
+
+  /**
+   * Returns the id the event will be given.
+   *
+   * @return the id of the event
+   */
+  public String id() {
+    return this.id;
+  }
+
+  /**
+   * Returns the name of the event.
+   *
+   * @return the name of the event
+   */
+  public String name() {
+    return this.name;
+  }
+
+  /**
+   * Returns the users invited to the event, besides the host.
+   *
+   * @return a copy of the list of invitees
+   */
+  public ArrayList<User> invitees() {
+    return new ArrayList<>(this.invitees);
+  }
+
+  /**
+   * Returns the location of the event.
+   *
+   * @return the location of the event
+   */
+  public Location location() {
+    return this.location;
+  }
+
+  /**
+   * Returns the time of the event.
+   *
+   * @return the time of the event
+   */
+  public Time time() {
+    return this.time;
+  }
+
+  /**
+   * Returns the host of the event.
+   *
+   * @return the host of the event
+   */
+  public User host() {
+    return this.host;
+  }
+
+  /**
+   * Returns the ids of the host and every invitee, each listed once, host first.
+   */
+  ArrayList<String> attendeeIds() {
+    LinkedHashSet<String> uIds = new LinkedHashSet<>();
+    uIds.add(this.host.printName());
+    for (User u : this.invitees) {
+      uIds.add(u.printName());
+    }
+    return new ArrayList<>(uIds);
+  }
+}
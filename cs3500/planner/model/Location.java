@@ -61,19 +61,6 @@ public class Location {
     return sb.toString();
   }
 
-  /**
-   * Returns a string for the File writer to write into the XML file representing the location
-   * of the event.
-   *
-   * @return String in XML format representing the location of an event.
-   */
-  public String printLocationXML() {
-    StringBuilder sb = new StringBuilder();
-    sb.append("<online>").append(this.isOnline).append("</online>\n");
-    sb.append("<place>").append(this.place).append("</place>");
-    return sb.toString();
-  }
-
   public String locationName() {
     return this.place;
   }
@@ -0,0 +1,112 @@
+package cs3500.planner.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared out among users by the hash of their ids, so each user's schedule
+ * is guarded by one lock without a lock being kept per user.
+ * Operations touching several users lock every stripe they need at once, always in increasing
+ * stripe order, so two operations can never each hold a lock the other is waiting for.
+ */
+final class LockStripes {
+  private final ReentrantLock[] locks;
+  //INVARIANT: locks.length is a power of two.
+
+  /**
+   * Creates at least the given number of stripes, rounded up to a power of two.
+   *
+   * @param stripes the least number of stripes to create
+   * @throws IllegalArgumentException if stripes is not positive
+   */
+  LockStripes(int stripes) {
+    if (stripes < 1) {
+      throw new IllegalArgumentException("Need at least one stripe");
+    }
+    int size = Integer.highestOneBit(stripes);
+    if (size < stripes) {
+      size <<= 1;
+    }
+    this.locks = new ReentrantLock[size];
+    for (int idx = 0; idx < size; idx++) {
+      this.locks[idx] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Returns the stripe guarding the user with the given id.
+   *
+   * @param uId the id of the user
+   * @return the index of the user's stripe
+   */
+  int stripeOf(String uId) {
+    int h = uId.hashCode();
+    return (h ^ (h >>> 16)) & (this.locks.length - 1);
+  }
+
+  /**
+   * Locks the stripes of every given user, in increasing stripe order and each only once.
+   *
+   * @param uIds the ids of the users to lock
+   * @return the stripes locked, to be passed to unlock
+   */
+  int[] lock(Collection<String> uIds) {
+    int[] stripes = new int[uIds.size()];
+    int count = 0;
+    for (String uId : uIds) {
+      stripes[count++] = this.stripeOf(uId);
+    }
+    Arrays.sort(stripes);
+    int distinct = 0;
+    for (int idx = 0; idx < count; idx++) {
+      if (distinct == 0 || stripes[distinct - 1] != stripes[idx]) {
+        stripes[distinct++] = stripes[idx];
+      }
+    }
+    int[] held = Arrays.copyOf(stripes, distinct);
+    for (int s : held) {
+      this.locks[s].lock();
+    }
+    return held;
+  }
+
+  /**
+   * Locks the stripe of a single user.
+   *
+   * @param uId the id of the user to lock
+   * @return the stripes locked, to be passed to unlock
+   */
+  int[] lock(String uId) {
+    int s = this.stripeOf(uId);
+    this.locks[s].lock();
+    return new int[] {s};
+  }
+
+  /**
+   * Determines if the given stripes include the stripe of every given user.
+   *
+   * @param held the stripes held, in increasing order
+   * @param uIds the ids of the users
+   * @return true if every user's stripe is held, false if not
+   */
+  boolean covers(int[] held, Collection<String> uIds) {
+    for (String uId : uIds) {
+      if (Arrays.binarySearch(held, this.stripeOf(uId)) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Unlocks stripes locked by lock, in the reverse of the order they were taken.
+   *
+   * @param held the stripes to unlock
+   */
+  void unlock(int[] held) {
+    for (int idx = held.length - 1; idx >= 0; idx--) {
+      this.locks[held[idx]].unlock();
+    }
+  }
+}
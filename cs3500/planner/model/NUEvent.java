@@ -1,22 +1,27 @@
 package cs3500.planner.model;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.UUID;
 
 /**
  * Class representing a single event in a schedule.
  */
 public class NUEvent {
+  private final String id;
+  //INVARIANT: id never changes, and no two different meetings share an id.
   private String name;
   private ArrayList<User> invitees;
   private Location location;
   private Time time;
 
   private final User host;
+  private volatile NUEvent frozen;
+  //INVARIANT: frozen is null, or a copy of this event made since it last changed, and is this
+  //event itself for a copy, which can never change.
 
   /**
-   * Creates an Event.
+   * Creates an Event with a new unique id.
    *
    * @param name     the name of the Ev ent
    * @param invitees the invited users
@@ -26,9 +31,27 @@ public class NUEvent {
    * @throws IllegalArgumentException if any of the Event elements are null
    */
   public NUEvent(String name, ArrayList<User> invitees, Location location, Time time, User host) {
-    if (name == null || invitees == null || location == null || time == null || host == null) {
+    this(newId(), name, invitees, location, time, host);
+  }
+
+  /**
+   * Creates an Event with the given id, such as one read back from a saved schedule.
+   *
+   * @param id       the stable id of the Event
+   * @param name     the name of the Event
+   * @param invitees the invited users
+   * @param location the location of the Event and whether it's online or not
+   * @param time     the day and time of the Event
+   * @param host     the host of the event
+   * @throws IllegalArgumentException if any of the Event elements are null
+   */
+  public NUEvent(String id, String name, ArrayList<User> invitees, Location location, Time time,
+                 User host) {
+    if (id == null || name == null || invitees == null || location == null || time == null
+            || host == null) {
       throw new IllegalArgumentException("Elements cannot be null");
     } else {
+      this.id = id;
       this.name = name;
       this.invitees = invitees;
       this.location = location;
@@ -37,6 +60,29 @@ public class NUEvent {
     }
   }
 
+  /**
+   * Creates a new unique event id.
+   *
+   * @return a random id
+   */
+  public static String newId() {
+    return UUID.randomUUID().toString();
+  }
+
+  /**
+   * Creates the id of an event saved before events had ids, from its host, name and time.
+   * Every attendee's copy of such an event gets the same id, so they can be matched up.
+   *
+   * @param host the id of the event's host
+   * @param name the name of the event
+   * @param time the time of the event
+   * @return an id derived from the event's details
+   */
+  public static String legacyId(String host, String name, Time time) {
+    String key = host + '\u0000' + name + '\u0000' + time.startMinute() + ':' + time.endMinute();
+    return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+  }
+
   /**
    * Checks if the given time overlaps with this event's time.
    *
@@ -52,11 +98,14 @@ public class NUEvent {
    * Purpose: Used in removeEvent in CentralSystem to determine whether to remove the event
    * from all invitee's schedules (if the client removing the event is the host) or just client's.
    *
+   * Users are compared by id, since the host of an event read from a file is a placeholder
+   * rather than the user in the system.
+   *
    * @param u the user to compare to this host.
    * @return true if the given user is the host, false if not.
    */
   public boolean removeFromHost(User u) {
-    return this.host.equals(u);
+    return this.host.printName().equals(u.printName());
   }
 
   /**
@@ -65,8 +114,10 @@ public class NUEvent {
    * @param name the String to modify the name field with
    */
   public void modifyName(String name) {
+    this.checkChangeable();
     if (name != null) {
       this.name = name;
+      this.frozen = null;
     }
   }
 
@@ -76,8 +127,10 @@ public class NUEvent {
    * @param invitees the list of users to modify the invitees field with
    */
   public void modifyInvitees(ArrayList<User> invitees) {
+    this.checkChangeable();
     if (invitees != null) {
       this.invitees = invitees;
+      this.frozen = null;
     }
   }
 
@@ -87,8 +140,10 @@ public class NUEvent {
    * @param location the Location to modify the location field with
    */
   public void modifyLocation(Location location) {
+    this.checkChangeable();
     if (location != null) {
       this.location = location;
+      this.frozen = null;
     }
   }
 
@@ -98,73 +153,38 @@ public class NUEvent {
    * @param time the Time to modify the time field with
    */
   public void modifyTime(Time time) {
+    this.checkChangeable();
     if (time != null) {
-      for (User user : this.invitees) {
-        if (!this.time.noTimeConflict(time)) {
-          user.removeEvent(this, user);
-        }
-      }
       this.time = time;
+      this.frozen = null;
     }
   }
 
   /**
-   * Chose to override equals because a NUEvent has multiple fields, all of which must be equal.
-   * Therefore, the regular equals method would not ensure that two NUEvents are the exact same
-   * object.
+   * Two events are equal when they have the same id, since an event keeps its id through every
+   * change made to it. Use sameDetails to compare what two events actually contain.
    *
    * @param other the event to compare to this event.
-   * @return true if this and other are the same exact event, false if not.
+   * @return true if this and other are the same event, false if not.
    */
   @Override
   public boolean equals(Object other) {
     if (other instanceof NUEvent) {
-      NUEvent e = (NUEvent) other;
-      return this.name.equals(e.name)
-              && this.equalsInvitees(this.invitees, e.invitees)
-              && this.location.equals(e.location)
-              && this.time.equals(e.time)
-              && this.host.equals(e.host);
+      return this.id.equals(((NUEvent) other).id);
     } else {
       return false;
     }
   }
 
   /**
-   * Checks if the two given lists of invitees are the same exact lists.
-   * Helps override the equals method in NUEvent.
-   *
-   * @param invitees one list of users to compare.
-   * @param other the other list of users to compare
-   * @return true if the two lists are the same, false if not.
-   */
-  private boolean equalsInvitees(ArrayList<User> invitees, ArrayList<User> other) {
-    List<Boolean> booleans = new ArrayList<>();
-    if (invitees.isEmpty() && other.isEmpty()) {
-      return true;
-    }
-    for (int idx = 0; idx < invitees.size(); idx++) {
-      booleans.add(invitees.get(idx).equals(other.get(idx)));
-    }
-    Boolean equals = true;
-    for (Boolean bool : booleans) {
-      if (bool.equals(false)) {
-        equals = false;
-        break;
-      }
-    }
-    return equals;
-  }
-
-  /**
-   * We chose to use this name and list of invitees to override hashcode because this should ensure
-   * a unique hash code for each event.
+   * We chose to use the id to override hashcode because it is what equals compares, and it
+   * never changes while the event is in a hash collection.
    *
-   * @return a hashcode based on this name and list of invitees.
+   * @return a hashcode based on this id.
    */
   @Override
   public int hashCode() {
-    return Objects.hash(name.length() + invitees.size());
+    return this.id.hashCode();
   }
 
   /**
@@ -201,34 +221,67 @@ public class NUEvent {
   }
 
   /**
-   * Prints a string for the FileWriter to add to the XML file representing an event in the
-   * schedule.
+   * Takes the user with the given id off this event's list of invitees.
+   * The list is replaced rather than changed, since it may be shared with whoever created it.
    *
-   * @return String in XML format representing an event.
+   * @param uId the id of the user no longer attending
    */
-  public String printEventXML() {
-    StringBuilder sb = new StringBuilder();
-    sb.append("<event>\n").append("<name>").append(this.name).append("</name>\n");
-    sb.append("<time>\n").append(this.time.printTimeXML()).append("\n").append("</time>\n");
-    sb.append("<location>\n").append(this.location.printLocationXML()).append("\n").append("</loca"
-            + "tion>\n");
-    sb.append("<users>\n").append(this.printUsersXML()).append("</users>\n");
-    sb.append("</event>");
-    return sb.toString();
+  void removeInvitee(String uId) {
+    this.checkChangeable();
+    ArrayList<User> remaining = new ArrayList<>(this.invitees.size());
+    for (User u : this.invitees) {
+      if (!u.printName().equals(uId)) {
+        remaining.add(u);
+      }
+    }
+    this.invitees = remaining;
+    this.frozen = null;
   }
 
   /**
-   * Helper for printEventXML that prints each invitee in XML format for the file write to add
-   * to the XML file.
+   * Returns a copy of this event with the same id and its own list of invitees, for a version of
+   * a schedule that must not change when the event does. The copy is kept until this event next
+   * changes, so every version and attendee taken in between shares it. The copy refuses every
+   * change, and is its own copy.
    *
-   * @return String in XML format representing the list of invited Users
+   * @return an unchanging copy of this event
    */
-  private String printUsersXML() {
-    StringBuilder sb = new StringBuilder();
-    for (User u : invitees) {
-      sb.append(u.printUserXML());
+  NUEvent frozenCopy() {
+    NUEvent copy = this.frozen;
+    if (copy == null) {
+      copy = new NUEvent(this.id, this.name, new ArrayList<>(this.invitees), this.location,
+              this.time, this.host);
+      copy.frozen = copy;
+      this.frozen = copy;
+    }
+    return copy;
+  }
+
+  /**
+   * Checks that this event is not an unchanging copy made by frozenCopy.
+   *
+   * @throws IllegalStateException if this event is such a copy
+   */
+  private void checkChangeable() {
+    if (this.frozen == this) {
+      throw new IllegalStateException("Event belongs to a version of the planner and cannot be "
+              + "changed");
     }
-    return sb.toString();
+  }
+
+  /**
+   * Determines if the given event has the same name, time, location, host and invitees as this
+   * event, whatever their ids, comparing users only by their ids.
+   *
+   * @param e the event to compare to
+   * @return true if both events have the same details, false if not
+   */
+  public boolean sameDetails(NUEvent e) {
+    return this.name.equals(e.name)
+            && this.time.equals(e.time)
+            && this.location.equals(e.location)
+            && this.host.printName().equals(e.host.printName())
+            && this.inviteeIds().equals(e.inviteeIds());
   }
 
   /**
@@ -270,10 +323,46 @@ public class NUEvent {
     return this.time.timeInfo();
   }
 
+  /**
+   * Returns the ids of the users invited to this event, including the host.
+   * @return a list of the invitees' ids.
+   */
+  public ArrayList<String> inviteeIds() {
+    ArrayList<String> ids = new ArrayList<>();
+    for (User u : this.invitees) {
+      ids.add(u.printName());
+    }
+    return ids;
+  }
+
+  /**
+   * Returns the time of this event. Times are immutable, so the event is not exposed by this.
+   * @return this event's time.
+   */
+  public Time eventTime() {
+    return this.time;
+  }
+
+  /**
+   * Returns the stable id of this event.
+   * @return this event's id.
+   */
+  public String eventId() {
+    return this.id;
+  }
+
   public String eventName() {
     return this.name;
   }
 
+  /**
+   * Returns the id of the user hosting this event.
+   * @return the host's id.
+   */
+  public String hostName() {
+    return this.host.printName();
+  }
+
   public String locationName() {
     return this.location.locationName();
   }
@@ -282,6 +371,22 @@ public class NUEvent {
     return this.location.isOnlineHelp();
   }
 
+  /**
+   * Returns the minute of the week this event starts on.
+   * @return the start of this event as a minute-of-week.
+   */
+  public int startMinute() {
+    return this.time.startMinute();
+  }
+
+  /**
+   * Returns the minute of the week this event ends on.
+   * @return the end of this event as a minute-of-week.
+   */
+  public int endMinute() {
+    return this.time.endMinute();
+  }
+
   public int startDayIndex() {
     return this.time.startDayIndexHelp();
   }
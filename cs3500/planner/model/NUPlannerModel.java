@@ -2,10 +2,14 @@ package cs3500.planner.model;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface representing a weekly planner system for multiple users.
  * Contains the operations and mutator methods necessary for users to interact with the planner.
+ * The submit methods hand a change to the model and return a future completed once it is
+ * applied. By default they apply the change straight away, while a model with its own writer
+ * queues it and returns at once.
  */
 public interface NUPlannerModel extends ReadOnlyPlannerModel {
   /**
@@ -42,16 +46,83 @@ public interface NUPlannerModel extends ReadOnlyPlannerModel {
    */
   public void removeEvent(NUEvent e, User u);
 
+  /**
+   * Submits the creation of an event, as createEvent does.
+   *
+   * @param name     the name of the event
+   * @param invitees the users invited to the event
+   * @param location the location of the event and whether it is online
+   * @param time     the duration of the event
+   * @param host     the host of the event
+   * @return a future completed once the event is created, or failed with what creating it threw
+   */
+  default CompletableFuture<Void> submitCreateEvent(String name, ArrayList<User> invitees,
+                                                    Location location, Time time, User host) {
+    return applied(() -> this.createEvent(name, invitees, location, time, host));
+  }
+
+  /**
+   * Submits a change to every event with the given name, as modifyEvent does.
+   *
+   * @param name       the name of the event to modify
+   * @param editedName the new name of the event
+   * @param invitees   the new invitees of the event
+   * @param location   the new location of the event
+   * @param time       the new time of the event
+   * @return a future completed once the events are changed, or failed with what changing them
+   *         threw
+   */
+  default CompletableFuture<Void> submitModifyEvent(String name, String editedName,
+                                                    ArrayList<User> invitees, Location location,
+                                                    Time time) {
+    return applied(() -> this.modifyEvent(name, editedName, invitees, location, time));
+  }
+
+  /**
+   * Submits the removal of an event from the given user's schedule, as removeEvent does.
+   *
+   * @param e the event to remove
+   * @param u the user removing it
+   * @return a future completed once the event is removed, or failed with what removing it threw
+   */
+  default CompletableFuture<Void> submitRemoveEvent(NUEvent e, User u) {
+    return applied(() -> this.removeEvent(e, u));
+  }
+
+  /**
+   * Applies a change straight away, for models that do not queue changes.
+   *
+   * @param change the change to apply
+   * @return a future already completed, or failed with what the change threw
+   */
+  private static CompletableFuture<Void> applied(Runnable change) {
+    try {
+      change.run();
+      return CompletableFuture.completedFuture(null);
+    } catch (RuntimeException ex) {
+      return CompletableFuture.failedFuture(ex);
+    }
+  }
+
   /**
    * Uploads each XML file in the system's list of Files
    * Each File represents a single User’s schedule.
+   * Files are parsed in parallel, and every file that loads is added even if others fail.
+   * Files that have not changed since they were last loaded are skipped.
+   *
+   * @throws IllegalStateException describing every file that failed to load
    */
   public void uploadUser();
 
 
   /**
-   * Adds the given file to the List of Files.
+   * Adds the given file to the List of Files and loads its user into the system.
+   * Only this file is parsed; users from other files are left as they are. Adding a file that
+   * has not changed since it was last loaded does nothing. Interrupting the thread waiting for
+   * the load makes it return at once. A model parsing on that thread abandons the load without
+   * adding anything; one parsing on another thread abandons it only if it has not started.
    * @param selectedFile the file to add
+   * @throws IllegalStateException if the file cannot be loaded, or the load was interrupted
    */
   void addFile(File selectedFile);
 
@@ -60,4 +131,37 @@ public interface NUPlannerModel extends ReadOnlyPlannerModel {
    * in the system.
    */
   void resetUsers();
-}
\ No newline at end of file
+
+  /**
+   * Finds the earliest times in the given window when every invitee is free for the given
+   * number of minutes, merging the busy time of all the invitees first.
+   * Slots within the same free stretch are placed back to back, so no two slots overlap.
+   *
+   * @param duration   the length of the event in minutes
+   * @param invitees   the users who must all be free, including the host
+   * @param window     the part of the week to search, where a window that starts and ends on the
+   *                   same minute covers the whole week
+   * @param maxResults the most slots to return
+   * @return the free slots in the order they occur in the window
+   * @throws IllegalArgumentException if any invitee is not in the system
+   * @throws IllegalArgumentException if duration is not between 1 minute and a week
+   * @throws IllegalArgumentException if maxResults is not positive
+   */
+  ArrayList<Time> findSlots(int duration, ArrayList<User> invitees, Time window,
+                            int maxResults);
+
+  /**
+   * Adds a listener to be told of every change made to the planner from now on.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null
+   */
+  void addListener(PlannerListener listener);
+
+  /**
+   * Stops telling the given listener of changes. Does nothing if it was never added.
+   *
+   * @param listener the listener to remove
+   */
+  void removeListener(PlannerListener listener);
+}
@@ -0,0 +1,117 @@
+package cs3500.planner.model;
+
+import java.util.List;
+
+/**
+ * One change made to a planner, telling listeners which users and which parts of the week it
+ * touched, so they can update just those.
+ */
+public final class PlannerChange {
+  /**
+   * Enum representing the kinds of change a planner makes.
+   */
+  public enum Kind {
+    /**
+     * An event was added to the schedules of the affected users.
+     */
+    EVENT_ADDED,
+
+    /**
+     * An event was taken out of the schedules of the affected users.
+     */
+    EVENT_REMOVED,
+
+    /**
+     * An event held by the affected users was changed. Its times are the old and new time.
+     */
+    EVENT_MODIFIED,
+
+    /**
+     * A user was added, or their schedule was loaded again from its file.
+     */
+    USER_ADDED,
+
+    /**
+     * Users were removed or replaced, so anything may have changed.
+     */
+    USERS_RESET
+  }
+
+  private final Kind kind;
+  private final NUEvent event;
+  //INVARIANT: event is null for changes to users, and otherwise a copy that never changes.
+  private final List<String> users;
+  private final List<Time> times;
+
+  /**
+   * Creates a change.
+   *
+   * @param kind  the kind of change
+   * @param event an unchanging copy of the event changed, or null for changes to users
+   * @param users the ids of the users affected
+   * @param times the parts of the week affected, or none if the whole week may be
+   * @throws IllegalArgumentException if kind, users or times is null
+   */
+  public PlannerChange(Kind kind, NUEvent event, List<String> users, List<Time> times) {
+    if (kind == null || users == null || times == null) {
+      throw new IllegalArgumentException("Kind, users and times cannot be null");
+    }
+    this.kind = kind;
+    this.event = event;
+    this.users = List.copyOf(users);
+    this.times = List.copyOf(times);
+  }
+
+  /**
+   * Returns the kind of this change.
+   *
+   * @return the kind of change
+   */
+  public Kind kind() {
+    return this.kind;
+  }
+
+  /**
+   * Returns the event changed, as it was once the change was made, or as it was before it was
+   * removed.
+   *
+   * @return an unchanging copy of the event, or null for changes to users
+   */
+  public NUEvent event() {
+    return this.event;
+  }
+
+  /**
+   * Returns the ids of the users whose schedules changed.
+   *
+   * @return the affected users
+   */
+  public List<String> users() {
+    return this.users;
+  }
+
+  /**
+   * Returns the parts of the week that changed for the affected users.
+   *
+   * @return the affected times, or an empty list if the whole week may have changed
+   */
+  public List<Time> times() {
+    return this.times;
+  }
+
+  /**
+   * Determines if this change may have touched the schedule of the given user.
+   *
+   * @param uId the id of the user
+   * @return true if the user's schedule may have changed, false if not
+   */
+  public boolean affects(String uId) {
+    return this.kind == Kind.USERS_RESET || this.users.contains(uId);
+  }
+
+  @Override
+  public String toString() {
+    return this.kind + (this.event == null ? "" : " " + this.event.eventName()) + " "
+            + this.users + " " + this.times;
+  }
+}
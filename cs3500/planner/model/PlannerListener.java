@@ -0,0 +1,17 @@
+package cs3500.planner.model;
+
+import java.util.List;
+
+/**
+ * Interface for anything following the changes made to a planner.
+ */
+public interface PlannerListener {
+  /**
+   * Called after the planner has changed, with every change it made, in the order they were
+   * made. Called on the thread that made the changes, once the changes can be read from the
+   * planner, so it should return quickly and must not change the planner itself.
+   *
+   * @param changes the changes made
+   */
+  void plannerChanged(List<PlannerChange> changes);
+}
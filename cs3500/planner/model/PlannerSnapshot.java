@@ -0,0 +1,293 @@
+package cs3500.planner.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An unchanging version of every user and their events at one point in time, which any number
+ * of threads can read without locking while the planner it came from goes on changing.
+ *
+ * <p>Versions are copy-on-write and share structure. Users are kept in chunks of a fixed size,
+ * and a new version copies only the chunks holding users that changed, so publishing a change
+ * costs the size of the chunk rather than the number of users. Each user's events are an array
+ * of unchanging copies, where an event that has not changed keeps the same copy in every version
+ * and every attendee's schedule. A user's schedule, with its interval index and free/busy
+ * bitmap, is only built the first time it is asked for, and is then shared by every later
+ * version in which the user has not changed.
+ *
+ * <p>Nothing handed out by a version can be changed: the schedules of its users and the events
+ * in them throw an IllegalStateException when asked to change, and every list handed out is a
+ * copy or cannot be changed. Only the host and invitees an event names are the users it was
+ * made with, so they should be told apart by their ids alone.
+ */
+public final class PlannerSnapshot implements ReadOnlyPlannerModel {
+  /**
+   * The number of users in each chunk, a power of two.
+   */
+  private static final int CHUNK = 64;
+
+  private final Map<String, Integer> slots;
+  //INVARIANT: slots maps the id of every user to their position, and is shared unchanged by
+  //every version taken between the same changes to the set of users.
+  private final Frozen[][] chunks;
+  //INVARIANT: the user at position p is chunks[p / CHUNK][p % CHUNK], and no chunk is changed
+  //once the version holding it is published.
+  private final int size;
+  private final long version;
+
+  private PlannerSnapshot(Map<String, Integer> slots, Frozen[][] chunks, int size, long version) {
+    this.slots = slots;
+    this.chunks = chunks;
+    this.size = size;
+    this.version = version;
+  }
+
+  /**
+   * Takes a version holding every given user, in the given order.
+   * Nothing may be changing the users while it is taken.
+   *
+   * @param users   the users in the system
+   * @param version the version number
+   * @return a version holding the users
+   */
+  static PlannerSnapshot of(Collection<User> users, long version) {
+    HashMap<String, Integer> slots = new HashMap<>();
+    Frozen[][] chunks = new Frozen[(users.size() + CHUNK - 1) / CHUNK][];
+    int pos = 0;
+    for (User u : users) {
+      if (pos % CHUNK == 0) {
+        chunks[pos / CHUNK] = new Frozen[Math.min(CHUNK, users.size() - pos)];
+      }
+      chunks[pos / CHUNK][pos % CHUNK] = freeze(u);
+      slots.put(u.printName(), pos);
+      pos++;
+    }
+    return new PlannerSnapshot(slots, chunks, pos, version);
+  }
+
+  /**
+   * Takes the events of the given user as they are now, ready to be passed to replacing.
+   * Each schedule keeps its own copies of its events up to date, so only their array is copied.
+   * Nothing may be changing the user while it is copied.
+   *
+   * @param u the user to copy
+   * @return an unchanging copy of the user's events
+   */
+  static Frozen freeze(User u) {
+    Schedule live = u.userSchedule();
+    return new Frozen(u.printName(), live.fileName(), live.slotMinutes(), live.frozenEvents());
+  }
+
+  /**
+   * Returns the next version, which shares everything with this one except the given users.
+   * Every given user must already be in this version.
+   *
+   * @param changed copies of the users that have changed
+   * @return the next version
+   * @throws IllegalArgumentException if a given user is not in this version
+   */
+  PlannerSnapshot replacing(Collection<Frozen> changed) {
+    Frozen[][] next = this.chunks.clone();
+    boolean[] copied = new boolean[next.length];
+    for (Frozen f : changed) {
+      Integer pos = this.slots.get(f.uId);
+      if (pos == null) {
+        throw new IllegalArgumentException("User is not in the system");
+      }
+      int chunk = pos / CHUNK;
+      if (!copied[chunk]) {
+        next[chunk] = next[chunk].clone();
+        copied[chunk] = true;
+      }
+      next[chunk][pos % CHUNK] = f;
+    }
+    return new PlannerSnapshot(this.slots, next, this.size, this.version + 1);
+  }
+
+  /**
+   * Returns the version number of this version, which is larger for every later version of the
+   * same planner.
+   *
+   * @return the version number
+   */
+  public long version() {
+    return this.version;
+  }
+
+  /**
+   * Returns the ids of every user in this version, in the order they were added.
+   *
+   * @return a new list of the users' ids
+   */
+  public ArrayList<String> userIds() {
+    ArrayList<String> ids = new ArrayList<>(this.size);
+    for (Frozen[] chunk : this.chunks) {
+      for (Frozen f : chunk) {
+        ids.add(f.uId);
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Returns the events of the user with the given id as they were in this version, without
+   * building the user's schedule, such as for saving the version.
+   *
+   * @param uId the id of the user
+   * @return a list of the user's events that cannot be changed, or null if they are not in this
+   *         version
+   */
+  public List<NUEvent> eventsOf(String uId) {
+    Frozen found = this.frozen(uId);
+    return found == null ? null : Collections.unmodifiableList(Arrays.asList(found.events));
+  }
+
+  /**
+   * Returns the copy of the user with the given id, or null if they are not in this version.
+   */
+  private Frozen frozen(String uId) {
+    Integer pos = this.slots.get(uId);
+    return pos == null ? null : this.chunks[pos / CHUNK][pos % CHUNK];
+  }
+
+  /**
+   * Returns this version's copy of the given user.
+   *
+   * @throws IllegalArgumentException if the user is not in this version
+   */
+  private User snapshotUser(User user) {
+    Frozen found = this.frozen(user.printName());
+    if (found == null) {
+      throw new IllegalArgumentException("User is not in the system");
+    }
+    return found.user();
+  }
+
+  @Override
+  public boolean checkForTimeConflict(NUEvent event, User user) {
+    return this.snapshotUser(user).checkForTimeConflict(event, user);
+  }
+
+  /**
+   * Returns the events of the given user as they were in this version.
+   * A user not in this version has their own events returned.
+   */
+  @Override
+  public ArrayList<NUEvent> usersEvents(User user) {
+    Frozen found = this.frozen(user.printName());
+    if (found == null) {
+      return new ArrayList<>(user.usersEvents(user));
+    }
+    return new ArrayList<>(Arrays.asList(found.events));
+  }
+
+  @Override
+  public ArrayList<User> usersInSystem() {
+    ArrayList<User> all = new ArrayList<>(this.size);
+    for (Frozen[] chunk : this.chunks) {
+      for (Frozen f : chunk) {
+        all.add(f.user());
+      }
+    }
+    return all;
+  }
+
+  @Override
+  public User findUser(String uId) {
+    Frozen found = this.frozen(uId);
+    return found == null ? null : found.user();
+  }
+
+  @Override
+  public boolean isFree(User user, int start, int end) {
+    return this.snapshotUser(user).isFree(user, start, end);
+  }
+
+  @Override
+  public ArrayList<User> freeUsers(ArrayList<User> group, int start, int end) {
+    ArrayList<User> free = new ArrayList<>();
+    for (User u : group) {
+      if (this.snapshotUser(u).userSchedule().isFree(start, end)) {
+        free.add(u);
+      }
+    }
+    return free;
+  }
+
+  @Override
+  public boolean allFree(ArrayList<User> group, int start, int end) {
+    ArrayList<Schedule> schedules = new ArrayList<>();
+    for (User u : group) {
+      schedules.add(this.snapshotUser(u).userSchedule());
+    }
+    return Schedule.allFree(schedules, start, end);
+  }
+
+  /**
+   * Finds free slots for every invitee as CentralSystem.findSlots does, using their schedules as
+   * they were in this version.
+   *
+   * @param duration   the length of the event in minutes
+   * @param invitees   the users who must all be free, including the host
+   * @param window     the part of the week to search
+   * @param maxResults the most slots to return
+   * @return the free slots in the order they occur in the window
+   * @throws IllegalArgumentException if any invitee is not in this version
+   */
+  public ArrayList<Time> findSlots(int duration, ArrayList<User> invitees, Time window,
+                                  int maxResults) {
+    ArrayList<Schedule> schedules = new ArrayList<>();
+    for (User u : invitees) {
+      schedules.add(this.snapshotUser(u).userSchedule());
+    }
+    return SlotFinder.findSlots(schedules, duration, window, maxResults);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (User u : this.usersInSystem()) {
+      sb.append(u.toString());
+    }
+    return sb.toString();
+  }
+
+  /**
+   * One user's events as they were in some version, shared by every version in which the user
+   * has not changed since.
+   */
+  static final class Frozen {
+    private final String uId;
+    private final String scheduleId;
+    private final int slotMinutes;
+    private final NUEvent[] events;
+    private volatile User user;
+    //INVARIANT: user is null, or a user whose schedule holds exactly events.
+
+    private Frozen(String uId, String scheduleId, int slotMinutes, NUEvent[] events) {
+      this.uId = uId;
+      this.scheduleId = scheduleId;
+      this.slotMinutes = slotMinutes;
+      this.events = events;
+    }
+
+    /**
+     * Returns the user holding these events, building their read-only schedule the first time.
+     * Two threads may both build it, in which case either result is as good as the other.
+     */
+    private User user() {
+      User built = this.user;
+      if (built == null) {
+        built = new User(this.uId, Schedule.readOnly(this.scheduleId, this.events,
+                this.slotMinutes));
+        this.user = built;
+      }
+      return built;
+    }
+  }
+}
@@ -32,4 +32,47 @@ public interface ReadOnlyPlannerModel {
    */
   public ArrayList<User> usersInSystem();
 
+  /**
+   * Returns the user in the central system with the given uId.
+   * @param uId the unique id of the user
+   * @return the user with that id, or null if there is no such user in the system
+   */
+  public User findUser(String uId);
+
+  /**
+   * Determines if the given user has no events during the minute-of-week range [start, end),
+   * counting from Sunday at 0000. A range that ends before it starts wraps around the week.
+   *
+   * @param user  the user to check
+   * @param start the first minute of the range
+   * @param end   the minute after the last minute of the range
+   * @return true if the user is free for the whole range, false if not
+   * @throws IllegalArgumentException if given user is not in the system
+   */
+  public boolean isFree(User user, int start, int end);
+
+  /**
+   * Returns the users in the given group who have no events during the minute-of-week range
+   * [start, end).
+   *
+   * @param group the users to check
+   * @param start the first minute of the range
+   * @param end   the minute after the last minute of the range
+   * @return the users in the group who are free for the whole range, in the group's order
+   * @throws IllegalArgumentException if any user in the group is not in the system
+   */
+  public ArrayList<User> freeUsers(ArrayList<User> group, int start, int end);
+
+  /**
+   * Determines if every user in the given group is free during the minute-of-week range
+   * [start, end).
+   *
+   * @param group the users to check
+   * @param start the first minute of the range
+   * @param end   the minute after the last minute of the range
+   * @return true if the whole group is free for the whole range, false if not
+   * @throws IllegalArgumentException if any user in the group is not in the system
+   */
+  public boolean allFree(ArrayList<User> group, int start, int end);
+
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package cs3500.planner.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -9,20 +12,75 @@ import java.util.Objects;
 public class Schedule {
   private final String id;
   private ArrayList<NUEvent> events;
+  private final HashMap<String, NUEvent> byId;
+  //INVARIANT: byId maps the id of every event in events to that event.
+  private final EventIntervalTree index;
+  //INVARIANT: index contains exactly the events in events.
+  private final BusyBitmap busy;
+  //INVARIANT: a slot of busy is set if and only if an event in events covers part of it.
+  private final ArrayList<NUEvent> frozen;
+  //INVARIANT: frozen holds an unchanging copy of each event in events, at the same position and
+  //as the event is now.
+  private final boolean readOnly;
+  //INVARIANT: a read-only schedule holds only unchanging copies, and is never changed.
 
   /**
-   * Creates a Schedule for a User.
+   * Creates a Schedule for a User, tracking free and busy time to the minute.
+   * The schedule takes over the given list, so it should not be changed by the caller afterwards.
    *
    * @param id     the User that owns the schedule
    * @param events the list of events in the schedule
    * @throws IllegalArgumentException if the id or events is null
    */
   public Schedule(String id, ArrayList<NUEvent> events) {
+    this(id, events, 1);
+  }
+
+  /**
+   * Creates a Schedule for a User, tracking free and busy time in slots of the given size.
+   * The schedule takes over the given list, so it should not be changed by the caller afterwards.
+   *
+   * @param id          the User that owns the schedule
+   * @param events      the list of events in the schedule
+   * @param slotMinutes the number of minutes each free/busy slot covers
+   * @throws IllegalArgumentException if the id or events is null
+   * @throws IllegalArgumentException if slotMinutes does not evenly divide a day
+   */
+  public Schedule(String id, ArrayList<NUEvent> events, int slotMinutes) {
+    this(id, events, slotMinutes, false);
+  }
+
+  /**
+   * Creates a Schedule that is only read, holding the given unchanging copies of events.
+   *
+   * @param id          the User that owns the schedule
+   * @param events      unchanging copies of the events in the schedule
+   * @param slotMinutes the number of minutes each free/busy slot covers
+   * @return a schedule refusing every change
+   */
+  static Schedule readOnly(String id, NUEvent[] events, int slotMinutes) {
+    return new Schedule(id, new ArrayList<>(Arrays.asList(events)), slotMinutes, true);
+  }
+
+  private Schedule(String id, ArrayList<NUEvent> events, int slotMinutes, boolean readOnly) {
     if (id == null || events == null) {
       throw new IllegalArgumentException("ID and schedule cannot be null");
     } else {
       this.id = id;
       this.events = events;
+      this.byId = new HashMap<>();
+      this.index = new EventIntervalTree();
+      this.busy = new BusyBitmap(slotMinutes);
+      this.readOnly = readOnly;
+      this.frozen = readOnly ? events : new ArrayList<>(events.size());
+      for (NUEvent e : events) {
+        if (!readOnly) {
+          this.frozen.add(e.frozenCopy());
+        }
+        this.byId.put(e.eventId(), e);
+        this.index.insert(e);
+        this.busy.markBusy(e.startMinute(), e.endMinute());
+      }
     }
   }
 
@@ -38,28 +96,105 @@ public class Schedule {
    */
   public void addEvent(String name, ArrayList<User> invitees, Location location,
                        Time time, User host) {
-    NUEvent e = new NUEvent(name, invitees, location, time, host);
-    if (this.events.isEmpty()) {
-      this.events.add(e);
-    } else if (!checkEventsForConflicts(e)) {
-      this.events.add(e);
+    this.addEvent(new NUEvent(name, invitees, location, time, host));
+  }
+
+  /**
+   * Adds the given event to the schedule as long as there is no time conflict.
+   * The event itself is stored rather than a copy, so one meeting can be shared by the schedules
+   * of everyone attending it.
+   *
+   * @param e the event to add
+   * @return true if the event was added, false if it conflicts with this schedule
+   */
+  public boolean addEvent(NUEvent e) {
+    this.checkChangeable();
+    if (checkEventsForConflicts(e)) {
+      return false;
     }
+    this.events.add(e);
+    this.frozen.add(e.frozenCopy());
+    this.byId.put(e.eventId(), e);
+    this.index.insert(e);
+    this.busy.markBusy(e.startMinute(), e.endMinute());
+    return true;
   }
 
   /**
    * Checks if there is a time conflict with the given Time and the given list of events.
+   * Uses the interval index, so only events near the given event's time are looked at.
    *
    * @param event the event to compare to the list of events
    * @return true if any event has a conflict, false if not
    */
   public boolean checkEventsForConflicts(NUEvent event) {
-    boolean conflict = false;
-    for (NUEvent e : this.events) {
-      if (e.checkForConflict(event)) {
-        conflict = true;
+    return this.index.anyOverlap(event.startMinute(), event.endMinute());
+  }
+
+  /**
+   * Returns the events in this schedule that overlap the given minute-of-week interval
+   * [start, end), ordered by when they start. An interval that ends before it starts wraps around
+   * the end of the week.
+   *
+   * @param start the first minute of the interval, counting from Sunday at 0000
+   * @param end   the minute after the last minute of the interval
+   * @return a list of the events overlapping the interval
+   */
+  public List<NUEvent> eventsOverlapping(int start, int end) {
+    return this.index.overlapping(start, end);
+  }
+
+  /**
+   * Determines if this schedule has no events during the given minute-of-week interval
+   * [start, end). Answered from the free/busy bitmap, so time is checked a slot at a time and a
+   * slot only partly covered by an event counts as busy.
+   *
+   * @param start the first minute of the interval, counting from Sunday at 0000
+   * @param end   the minute after the last minute of the interval
+   * @return true if the interval is free, false if not
+   */
+  public boolean isFree(int start, int end) {
+    return this.busy.isFree(start, end);
+  }
+
+  /**
+   * Determines if all the given schedules are free during the given minute-of-week interval
+   * [start, end). Schedules sharing a slot size are ORed together a word at a time before the
+   * interval is checked once.
+   *
+   * @param schedules the schedules to check
+   * @param start     the first minute of the interval
+   * @param end       the minute after the last minute of the interval
+   * @return true if every schedule is free for the whole interval, false if not
+   */
+  static boolean allFree(List<Schedule> schedules, int start, int end) {
+    if (schedules.isEmpty()) {
+      return true;
+    }
+    return busyUnion(schedules).isFree(start, end);
+  }
+
+  /**
+   * Builds a free/busy bitmap that is busy wherever any of the given schedules are busy.
+   * Bitmaps with the first schedule's slot size are ORed in a word at a time, while schedules
+   * with other slot sizes have their events marked in one by one.
+   *
+   * @param schedules the schedules to combine, of which there must be at least one
+   * @return a new bitmap holding the union of their busy time
+   */
+  static BusyBitmap busyUnion(List<Schedule> schedules) {
+    BusyBitmap union = new BusyBitmap(schedules.get(0).busy.slotMinutes());
+    for (Schedule s : schedules) {
+      if (s.busy.slotMinutes() == union.slotMinutes()) {
+        union.or(s.busy);
+      }
+      else {
+        for (NUEvent e : s.events) {
+          union.markBusy(e.startMinute(), e.endMinute());
+        }
       }
     }
-    return conflict;
+    return union;
   }
 
   /**
@@ -69,20 +204,153 @@ public class Schedule {
    * @return true if the schedule contains the event, false if not
    */
   public boolean containsEvent(NUEvent e) {
-    boolean ret = false;
-    for (NUEvent event : events) {
-      if (event.equals(e)) {
-        ret = true;
-      }
-    }
-    return ret;
+    return this.findEvent(e) != null;
   }
 
   /**
    * Removes the given event from the schedule.
    */
   public void removeEvent(NUEvent e) {
-    this.events.remove(e);
+    this.checkChangeable();
+    NUEvent stored = this.findEvent(e);
+    if (stored != null) {
+      this.byId.remove(stored.eventId());
+      this.index.remove(stored);
+      this.freeSlots(stored);
+      for (int idx = 0; idx < this.events.size(); idx++) {
+        if (this.events.get(idx) == stored) {
+          this.events.remove(idx);
+          this.frozen.remove(idx);
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Frees the slots covered by an event that has just been taken out of the index.
+   * Slots it shared with other events, including the slots at either end that it only partly
+   * covered, are marked busy again.
+   *
+   * @param e the event no longer in this schedule's index
+   */
+  private void freeSlots(NUEvent e) {
+    int start = e.startMinute();
+    int end = e.endMinute();
+    this.busy.markFree(start, end);
+    int last = start == end ? start : Math.floorMod(end - 1, Time.MINUTES_PER_WEEK);
+    int from = this.busy.slotStart(start);
+    int to = this.busy.slotEnd(last) % Time.MINUTES_PER_WEEK;
+    List<NUEvent> neighbors = from == to ? this.events : this.index.overlapping(from, to);
+    for (NUEvent other : neighbors) {
+      if (other != e) {
+        this.busy.markBusy(other.startMinute(), other.endMinute());
+      }
+    }
+  }
+
+  /**
+   * Finds the event in this schedule with the same id as the given event.
+   *
+   * @param e the event to look for
+   * @return the matching event in this schedule, or null if there is none
+   */
+  NUEvent findEvent(NUEvent e) {
+    return this.byId.get(e.eventId());
+  }
+
+  /**
+   * Returns the event in this schedule with the given id.
+   *
+   * @param id the id of the event
+   * @return the event with that id, or null if this schedule does not have it
+   */
+  public NUEvent eventById(String id) {
+    return this.byId.get(id);
+  }
+
+  /**
+   * Replaces an event in this schedule with another copy of the same meeting, such as the one
+   * copy shared by every schedule attending it.
+   *
+   * @param stored the event in this schedule
+   * @param shared the event to hold instead, which must have the same id and time
+   */
+  void replaceEvent(NUEvent stored, NUEvent shared) {
+    this.checkChangeable();
+    for (int idx = 0; idx < this.events.size(); idx++) {
+      if (this.events.get(idx) == stored) {
+        this.index.remove(stored);
+        this.events.set(idx, shared);
+        this.frozen.set(idx, shared.frozenCopy());
+        this.byId.put(shared.eventId(), shared);
+        this.index.insert(shared);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Takes an event out of this schedule's index and free/busy time before it is changed.
+   * The event stays in the schedule, and must be put back with reindex once it is changed.
+   *
+   * @param e the event in this schedule about to change
+   */
+  void unindex(NUEvent e) {
+    this.checkChangeable();
+    this.index.remove(e);
+    this.freeSlots(e);
+  }
+
+  /**
+   * Puts an event taken out with unindex back into this schedule's index and free/busy time.
+   *
+   * @param e the event that has changed
+   */
+  void reindex(NUEvent e) {
+    this.checkChangeable();
+    this.index.insert(e);
+    this.busy.markBusy(e.startMinute(), e.endMinute());
+    this.refresh(e);
+  }
+
+  /**
+   * Replaces this schedule's unchanging copy of an event that has just changed without moving,
+   * such as one whose invitees changed.
+   *
+   * @param e the event in this schedule that changed
+   */
+  void refresh(NUEvent e) {
+    this.checkChangeable();
+    for (int idx = 0; idx < this.events.size(); idx++) {
+      if (this.events.get(idx) == e) {
+        this.frozen.set(idx, e.frozenCopy());
+        return;
+      }
+    }
+  }
+
+  /**
+   * Checks that this schedule is not one of the read-only schedules of a version of the planner.
+   *
+   * @throws IllegalStateException if this schedule is read-only
+   */
+  private void checkChangeable() {
+    if (this.readOnly) {
+      throw new IllegalStateException("Schedule belongs to a version of the planner and cannot "
+              + "be changed");
+    }
+  }
+
+  /**
+   * Returns unchanging copies of the events in this schedule, in the same order, for a version
+   * of the planner that must not change along with it. Only the array of copies is made here,
+   * since each copy is kept up to date as events change.
+   *
+   * @return a new array of copies of the events
+   */
+  NUEvent[] frozenEvents() {
+    return this.frozen.toArray(new NUEvent[0]);
   }
 
   /**
@@ -152,35 +420,10 @@ public class Schedule {
     return this.id;
   }
 
-  /**
-   * Converts the contents of this schedule to a string in XML format.
-   *
-   * @return a string used to create an XML File of this schedule
-   */
-  public String printXML() {
-    StringBuilder sb = new StringBuilder();
-    sb.append("<schedule id=\"").append(this.id).append("\">\n");
-    sb.append(this.printEventsXML());
-    sb.append("</schedule>");
-    return sb.toString();
-  }
-
-  /**
-   * Converts the contents of this schedule's list of events into a String that can be used to
-   * write an XML file.
-   *
-   * @return a String in XML format of this schedule's list of events.
-   */
-  private String printEventsXML() {
-    StringBuilder sb = new StringBuilder();
-    for (NUEvent e : events) {
-      sb.append(e.printEventXML()).append("\n");
-    }
-    return sb.toString();
-  }
-
   /**
    * Modifies each event in this schedule that matches the given eventName.
+   * An event shared with other schedules is only re-indexed here, so shared meetings should be
+   * modified through CentralSystem, which re-indexes every schedule holding them.
    *
    * @param eventName the event the client wants to modify.
    * @param name      the name the client wants to modify the event's name to.
@@ -190,18 +433,33 @@ public class Schedule {
    */
   public void modifyEventInSched(String eventName, String name, ArrayList<User> invitees,
                                  Location location, Time time) {
+    this.checkChangeable();
     for (NUEvent e : this.events) {
-      e.modifyEvent(eventName, name, invitees, location, time);
+      if (e.eventName().equals(eventName)) {
+        this.unindex(e);
+        e.modifyEvent(eventName, name, invitees, location, time);
+        this.reindex(e);
+      }
     }
   }
 
+  /**
+   * Returns the number of minutes each free/busy slot of this schedule covers.
+   *
+   * @return the slot size in minutes
+   */
+  int slotMinutes() {
+    return this.busy.slotMinutes();
+  }
+
   /**
    * Returns the list of events in the current user's schedule.
+   * A read-only schedule returns a copy of its list, which may be changed freely.
    *
    * @return a list of events in the schedule
    */
   public ArrayList<NUEvent> eventsInSchedule() {
-    return this.events;
+    return this.readOnly ? new ArrayList<>(this.events) : this.events;
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,474 @@
+package cs3500.planner.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A planner where every change is a command placed on a bounded ring buffer, and one writer
+ * thread applies them to a CentralSystem in batches, so threads booking events never contend
+ * for the model's locks.
+ * Once a batch is applied the writer completes the futures of the commands in it. Every read is
+ * answered from the latest version the system has published, without waiting for the writer.
+ *
+ * <p>The submit methods return as soon as the command is queued. The NUPlannerModel methods
+ * wait for their command to be applied, so a read made after one returns sees its change.
+ */
+public final class SingleWriterPlanner implements NUPlannerModel, AutoCloseable {
+  /**
+   * The default number of commands the ring buffer holds before submitting threads wait.
+   */
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  /**
+   * The most commands the writer takes from the ring at once before completing their futures.
+   * Each command still publishes its own version as it is applied, so reads may see a change
+   * before its submitter is told it was made.
+   */
+  private static final int BATCH = 256;
+
+  /**
+   * How many times the writer checks for commands before going to sleep, and a submitting
+   * thread retries a full ring before backing off. Spinning only helps when the other side is
+   * running on another processor.
+   */
+  private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 200 : 0;
+
+  private final CentralSystem model;
+  //INVARIANT: model is only used by the writer thread once the planner is created.
+  private final CommandRing<Command> ring;
+  private final Thread writer;
+  private volatile boolean sleeping;
+  private volatile boolean closed;
+  private final AtomicInteger submitting;
+  //INVARIANT: once closed is set and submitting is 0, no more commands can be queued.
+
+  /**
+   * Creates a planner applying changes to the given system with a ring buffer of the default
+   * size, and starts its writer thread.
+   *
+   * @param model the system to apply changes to, which must not be used directly afterwards
+   */
+  public SingleWriterPlanner(CentralSystem model) {
+    this(model, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a planner applying changes to the given system and starts its writer thread.
+   *
+   * @param model    the system to apply changes to, which must not be used directly afterwards
+   * @param capacity the number of commands the ring buffer holds, rounded up to a power of two
+   * @throws IllegalArgumentException if model is null or capacity is not positive
+   */
+  public SingleWriterPlanner(CentralSystem model, int capacity) {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    this.model = model;
+    this.ring = new CommandRing<>(capacity);
+    this.submitting = new AtomicInteger();
+    this.writer = new Thread(this::run, "planner-writer");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Returns the latest version of the planner published by the writer.
+   *
+   * @return the version published by the last change applied
+   */
+  public PlannerSnapshot snapshot() {
+    return this.model.snapshot();
+  }
+
+  /**
+   * Returns the feed of changes made by the writer.
+   *
+   * @return the wrapped system's change feed
+   */
+  public ChangeFeed changeFeed() {
+    return this.model.changeFeed();
+  }
+
+  /**
+   * Queues the creation of an event, as CentralSystem.createEvent does.
+   *
+   * @return a future completed once the event is created and visible to reads
+   * @throws IllegalStateException if the planner is closed
+   */
+  @Override
+  public CompletableFuture<Void> submitCreateEvent(String name, ArrayList<User> invitees,
+                                                   Location location, Time time, User host) {
+    return this.submit(system -> system.createEvent(name, invitees, location, time, host));
+  }
+
+  /**
+   * Queues a change to every event with the given name, as CentralSystem.modifyEvent does.
+   *
+   * @return a future completed once the events are changed and visible to reads
+   * @throws IllegalStateException if the planner is closed
+   */
+  @Override
+  public CompletableFuture<Void> submitModifyEvent(String name, String editedName,
+                                                   ArrayList<User> invitees, Location location,
+                                                   Time time) {
+    return this.submit(system -> system.modifyEvent(name, editedName, invitees, location, time));
+  }
+
+  /**
+   * Queues the removal of an event, as CentralSystem.removeEvent does.
+   *
+   * @return a future completed once the event is removed and visible to reads
+   * @throws IllegalStateException if the planner is closed
+   */
+  @Override
+  public CompletableFuture<Void> submitRemoveEvent(NUEvent e, User u) {
+    return this.submit(system -> system.removeEvent(e, u));
+  }
+
+  /**
+   * Queues loading every file of the system, as CentralSystem.uploadUser does.
+   *
+   * @return a future completed once the users are loaded and visible to reads
+   * @throws IllegalStateException if the planner is closed
+   */
+  public CompletableFuture<Void> submitUploadUser() {
+    return this.submit(system -> system.uploadUser());
+  }
+
+  /**
+   * Queues adding a file to the system, as CentralSystem.addFile does.
+   *
+   * @return a future completed once the user is loaded and visible to reads
+   * @throws IllegalStateException if the planner is closed
+   */
+  public CompletableFuture<Void> submitAddFile(File selectedFile) {
+    return this.submit(system -> system.addFile(selectedFile));
+  }
+
+  /**
+   * Queues removing every user from the system, as CentralSystem.resetUsers does.
+   *
+   * @return a future completed once the users are removed
+   * @throws IllegalStateException if the planner is closed
+   */
+  public CompletableFuture<Void> submitResetUsers() {
+    return this.submit(system -> system.resetUsers());
+  }
+
+  /**
+   * Queues the given change, waiting for room in the ring buffer if it is full.
+   *
+   * @param change the change to apply
+   * @return a future completed once the change is applied
+   * @throws IllegalStateException if the planner is closed
+   */
+  private CompletableFuture<Void> submit(Change change) {
+    return this.queue(change).done;
+  }
+
+  /**
+   * Queues the given change as submit does, returning its command.
+   *
+   * @param change the change to apply
+   * @return the command queued
+   * @throws IllegalStateException if the planner is closed
+   */
+  private Command queue(Change change) {
+    Command command = new Command(change);
+    this.submitting.incrementAndGet();
+    try {
+      if (this.closed) {
+        throw new IllegalStateException("Planner is closed");
+      }
+      this.enqueue(command);
+    } finally {
+      this.submitting.decrementAndGet();
+    }
+    return command;
+  }
+
+  /**
+   * Places a command on the ring buffer, and wakes the writer if it is asleep. While the ring is
+   * full the submitting thread spins, then yields, then sleeps for longer each time, up to a
+   * millisecond.
+   */
+  private void enqueue(Command command) {
+    int tries = 0;
+    while (!this.ring.offer(command)) {
+      if (++tries < SPINS) {
+        Thread.onSpinWait();
+      } else if (tries < SPINS + 10) {
+        Thread.yield();
+      } else {
+        LockSupport.parkNanos(Math.min(1_000L << Math.min(tries - SPINS - 10, 10), 1_000_000L));
+      }
+    }
+    if (this.sleeping) {
+      LockSupport.unpark(this.writer);
+    }
+  }
+
+  /**
+   * Applies queued commands a batch at a time until the planner is closed.
+   */
+  private void run() {
+    Command[] batch = new Command[BATCH];
+    boolean stop = false;
+    while (!stop) {
+      int count = this.ring.drainTo(batch);
+      if (count == 0) {
+        this.idle();
+        continue;
+      }
+      for (int idx = 0; idx < count; idx++) {
+        Command c = batch[idx];
+        if (c.change == null) {
+          stop = true;
+          continue;
+        }
+        if (!c.started.compareAndSet(false, true)) {
+          c.failure = new IllegalStateException("Change was abandoned before it was applied");
+          continue;
+        }
+        try {
+          c.change.apply(this.model);
+        } catch (Throwable ex) {
+          c.failure = ex;
+        }
+      }
+      for (int idx = 0; idx < count; idx++) {
+        Command c = batch[idx];
+        batch[idx] = null;
+        if (c.failure == null) {
+          c.done.complete(null);
+        } else {
+          c.done.completeExceptionally(c.failure);
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits for a command, spinning briefly before sleeping until a submitting thread wakes the
+   * writer.
+   */
+  private void idle() {
+    for (int spin = 0; spin < SPINS; spin++) {
+      if (this.ring.hasNext()) {
+        return;
+      }
+      Thread.onSpinWait();
+    }
+    this.sleeping = true;
+    if (!this.ring.hasNext()) {
+      LockSupport.park(this);
+    }
+    this.sleeping = false;
+  }
+
+  /**
+   * Applies every command already queued, then stops the writer thread. Commands submitted
+   * afterwards are refused.
+   */
+  @Override
+  public void close() {
+    synchronized (this.writer) {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+    }
+    while (this.submitting.get() != 0) {
+      Thread.onSpinWait();
+    }
+    this.enqueue(new Command(null));
+    boolean interrupted = false;
+    while (this.writer.isAlive()) {
+      try {
+        this.writer.join();
+      } catch (InterruptedException ex) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Waits for a queued command to be applied, rethrowing whatever it threw. A checked exception
+   * smuggled out of a change is wrapped in an IllegalStateException.
+   */
+  private static void await(CompletableFuture<Void> done) {
+    try {
+      done.join();
+    } catch (CompletionException ex) {
+      throw rethrown(ex.getCause());
+    }
+  }
+
+  /**
+   * Returns what a command threw as an unchecked exception to throw again, throwing it straight
+   * away if it is an Error.
+   *
+   * @param cause what the command threw
+   * @return the exception to throw
+   */
+  private static RuntimeException rethrown(Throwable cause) {
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    }
+    return new IllegalStateException("Change failed: " + cause, cause);
+  }
+
+  @Override
+  public void createEvent(String name, ArrayList<User> invitees, Location location, Time time,
+                          User host) {
+    await(this.submitCreateEvent(name, invitees, location, time, host));
+  }
+
+  @Override
+  public void modifyEvent(String name, String editedName, ArrayList<User> invitees,
+                          Location location, Time time) {
+    await(this.submitModifyEvent(name, editedName, invitees, location, time));
+  }
+
+  @Override
+  public void removeEvent(NUEvent e, User u) {
+    await(this.submitRemoveEvent(e, u));
+  }
+
+  @Override
+  public void uploadUser() {
+    await(this.submitUploadUser());
+  }
+
+  /**
+   * Loads the given file on the writer thread, as CentralSystem.addFile does. Interrupting the
+   * waiting thread returns at once. The load is abandoned without adding anything if the writer
+   * has not started it yet, and otherwise the writer goes on to add the file.
+   *
+   * @throws IllegalStateException if the file cannot be loaded, or the wait was interrupted
+   */
+  @Override
+  public void addFile(File selectedFile) {
+    Command command = this.queue(system -> system.addFile(selectedFile));
+    try {
+      command.done.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      if (command.started.compareAndSet(false, true)) {
+        throw new IllegalStateException("Loading was interrupted");
+      }
+      throw new IllegalStateException("Loading was interrupted, but the file was already being "
+              + "loaded and will still be added");
+    } catch (ExecutionException ex) {
+      throw rethrown(ex.getCause());
+    }
+  }
+
+  @Override
+  public void resetUsers() {
+    await(this.submitResetUsers());
+  }
+
+  @Override
+  public ArrayList<Time> findSlots(int duration, ArrayList<User> invitees, Time window,
+                                  int maxResults) {
+    return this.model.snapshot().findSlots(duration, invitees, window, maxResults);
+  }
+
+  /**
+   * Adds a listener to the wrapped system, which tells it of changes on the writer thread.
+   */
+  @Override
+  public void addListener(PlannerListener listener) {
+    this.model.addListener(listener);
+  }
+
+  @Override
+  public void removeListener(PlannerListener listener) {
+    this.model.removeListener(listener);
+  }
+
+  @Override
+  public boolean checkForTimeConflict(NUEvent event, User user) {
+    return this.model.snapshot().checkForTimeConflict(event, user);
+  }
+
+  @Override
+  public ArrayList<NUEvent> usersEvents(User user) {
+    return this.model.snapshot().usersEvents(user);
+  }
+
+  @Override
+  public ArrayList<User> usersInSystem() {
+    return this.model.snapshot().usersInSystem();
+  }
+
+  @Override
+  public User findUser(String uId) {
+    return this.model.snapshot().findUser(uId);
+  }
+
+  @Override
+  public boolean isFree(User user, int start, int end) {
+    return this.model.snapshot().isFree(user, start, end);
+  }
+
+  @Override
+  public ArrayList<User> freeUsers(ArrayList<User> group, int start, int end) {
+    return this.model.snapshot().freeUsers(group, start, end);
+  }
+
+  @Override
+  public boolean allFree(ArrayList<User> group, int start, int end) {
+    return this.model.snapshot().allFree(group, start, end);
+  }
+
+  @Override
+  public String toString() {
+    return this.model.snapshot().toString();
+  }
+
+  /**
+   * A change to apply to the system on the writer thread.
+   */
+  private interface Change {
+    /**
+     * Applies the change.
+     *
+     * @param system the system to change
+     */
+    void apply(CentralSystem system);
+  }
+
+  /**
+   * A queued change and the future completed once it is applied.
+   */
+  private static final class Command {
+    private final Change change;
+    //INVARIANT: change is null only for the command that stops the writer.
+    private final CompletableFuture<Void> done;
+    private final AtomicBoolean started;
+    //INVARIANT: started is set by the writer before applying change, or by a waiting thread
+    //abandoning the command, and the change is only applied if the writer set it.
+    private Throwable failure;
+    //INVARIANT: failure is what applying change threw, and fails only this command's future.
+
+    private Command(Change change) {
+      this.change = change;
+      this.done = new CompletableFuture<>();
+      this.started = new AtomicBoolean();
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package cs3500.planner.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds times when a group of schedules are all free.
+ * The busy time of every schedule is merged into one bitmap, and the free runs of that bitmap are
+ * then walked a word at a time, so the cost depends on the number of schedules and the size of a
+ * week rather than on how many events the schedules hold.
+ */
+final class SlotFinder {
+
+  private SlotFinder() {
+    //only static helpers.
+  }
+
+  /**
+   * Finds the earliest times within the window when every given schedule is free for the given
+   * number of minutes. Slots in the same free stretch are placed back to back, so no two returned
+   * slots overlap.
+   *
+   * @param schedules   the schedules that must all be free
+   * @param duration    the length of each slot in minutes
+   * @param window      the part of the week to search, where a window that starts and ends on the
+   *                    same minute covers the whole week
+   * @param maxResults  the most slots to return
+   * @return the free slots in the order they occur in the window
+   * @throws IllegalArgumentException if duration is not between 1 minute and a week
+   * @throws IllegalArgumentException if maxResults is not positive
+   */
+  static ArrayList<Time> findSlots(List<Schedule> schedules, int duration, Time window,
+                                   int maxResults) {
+    if (duration < 1 || duration >= Time.MINUTES_PER_WEEK) {
+      throw new IllegalArgumentException("Duration must be between 1 minute and a week");
+    }
+    if (maxResults < 1) {
+      throw new IllegalArgumentException("Must ask for at least one slot");
+    }
+    if (window == null) {
+      throw new IllegalArgumentException("Window cannot be null");
+    }
+    ArrayList<Time> found = new ArrayList<>();
+    BusyBitmap busy = schedules.isEmpty() ? new BusyBitmap(1) : Schedule.busyUnion(schedules);
+    int slot = busy.slotMinutes();
+    int slots = busy.slotCount();
+
+    //Works in slots counted from the window's start, unrolled past the end of the week.
+    int windowStart = window.startMinute();
+    int windowEnd = window.endMinute();
+    if (windowEnd <= windowStart) {
+      windowEnd += Time.MINUTES_PER_WEEK;
+    }
+    int from = (windowStart + slot - 1) / slot;
+    int to = windowEnd / slot;
+    int needed = (duration + slot - 1) / slot;
+
+    int pos = nextFree(busy, from, to, slots);
+    while (pos < to && found.size() < maxResults) {
+      int gapEnd = nextBusy(busy, pos, to, slots);
+      while (gapEnd - pos >= needed && found.size() < maxResults) {
+        int start = (pos * slot) % Time.MINUTES_PER_WEEK;
+        found.add(new Time(start, (start + duration) % Time.MINUTES_PER_WEEK));
+        pos += needed;
+      }
+      pos = nextFree(busy, gapEnd, to, slots);
+    }
+    return found;
+  }
+
+  /**
+   * Finds the first free slot in [from, to), where slot indices past the end of the week wrap
+   * back around to Sunday.
+   */
+  private static int nextFree(BusyBitmap busy, int from, int to, int slots) {
+    if (from < slots) {
+      int found = busy.nextFree(from, Math.min(to, slots));
+      if (found < Math.min(to, slots) || to <= slots) {
+        return found;
+      }
+      from = slots;
+    }
+    return busy.nextFree(from - slots, to - slots) + slots;
+  }
+
+  /**
+   * Finds the first busy slot in [from, to), where slot indices past the end of the week wrap
+   * back around to Sunday.
+   */
+  private static int nextBusy(BusyBitmap busy, int from, int to, int slots) {
+    if (from < slots) {
+      int found = busy.nextBusy(from, Math.min(to, slots));
+      if (found < Math.min(to, slots) || to <= slots) {
+        return found;
+      }
+      from = slots;
+    }
+    return busy.nextBusy(from - slots, to - slots) + slots;
+  }
+}
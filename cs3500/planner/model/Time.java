@@ -1,19 +1,28 @@
 package cs3500.planner.model;
 
-import java.util.List;
-import java.util.Objects;
-
 /**
  * Class representing the duration of an Event.
  * Time includes the start and end days of the event and the start and end times.
+ * A Time is immutable and stores its start and end as minutes of the week, counting from
+ * Sunday at 0000, so comparing Times never needs to parse or allocate.
  */
-public class Time {
-  private final Day startDay;
-  private final Day endDay;
-  private String startTime;
-  //INVARIANT: startTime.length() == 4
-  private String endTime;
-  //INVARIANT: endTime.length() == 4
+public final class Time {
+  /**
+   * Number of minutes in a day.
+   */
+  public static final int MINUTES_PER_DAY = 24 * 60;
+
+  /**
+   * Number of minutes in a week, the exclusive upper bound of a minute-of-week.
+   */
+  public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+  private static final Day[] DAYS = Day.values();
+
+  private final int start;
+  //INVARIANT: 0 <= start < MINUTES_PER_WEEK
+  private final int end;
+  //INVARIANT: 0 <= end < MINUTES_PER_WEEK
 
   /**
    * Creates a Time for the Event.
@@ -24,116 +33,108 @@ public class Time {
    * @throws IllegalArgumentException if start or end day is null
    * @throws IllegalArgumentException if start or end times are not 4 digits
    * @throws IllegalArgumentException if time is not a valid clock time
-   * @throws IllegalArgumentException if start or end day is not a valid Day
    */
   public Time(Day startDay, Day endDay, String startTime, String endTime) {
     if (startDay == null || endDay == null) {
       throw new IllegalArgumentException("Start and end days cannot be null");
     }
 
-    if (startTime.length() != 4 || endTime.length() != 4) {
+    if (startTime == null || endTime == null
+            || startTime.length() != 4 || endTime.length() != 4) {
       throw new IllegalArgumentException("Start or end time must be 4 digits");
     }
 
-
-    if (!validClockTime(startTime, endTime)) {
+    int startClock = parseClockTime(startTime);
+    int endClock = parseClockTime(endTime);
+    if (startClock < 0 || endClock < 0) {
       throw new IllegalArgumentException("Start and end time must be a valid clock time");
     }
-
-    if (!validDay(startDay, endDay)) {
-      throw new IllegalArgumentException("Day must be valid");
-    }
-    else {
-      this.startDay = startDay;
-      this.endDay = endDay;
-      this.startTime = startTime;
-      this.endTime = endTime;
-    }
+    this.start = startDay.dayIndex() * MINUTES_PER_DAY + startClock;
+    this.end = endDay.dayIndex() * MINUTES_PER_DAY + endClock;
   }
 
-
   /**
-   * Checks if the given day is one of the valid days.
-   * @return true if it's a valid day, false if not
+   * Creates a Time from a start and end minute of the week.
+   * An end minute before the start minute means the Time wraps around into the next week.
+   * @param startMinute the minute of the week the Event starts on
+   * @param endMinute the minute of the week the Event ends on
+   * @throws IllegalArgumentException if either minute is outside of a week
    */
-  private boolean validDay(Day startDay, Day endDay) {
-    return this.createListOfDays().contains(startDay)
-            && this.createListOfDays().contains(endDay);
+  public Time(int startMinute, int endMinute) {
+    if (startMinute < 0 || startMinute >= MINUTES_PER_WEEK
+            || endMinute < 0 || endMinute >= MINUTES_PER_WEEK) {
+      throw new IllegalArgumentException("Start and end must be minutes within a week");
+    }
+    this.start = startMinute;
+    this.end = endMinute;
   }
 
-
   /**
-   * Checks to see if the hours and minutes of the start and end times are valid
-   * 24-hour clock times.
-   * @return true if the times are valid, false if not
+   * Converts a 4 digit 24-hour clock time into the number of minutes since midnight.
+   * @param clockTime the clock time to convert
+   * @return the minute of the day, or -1 if the given String is not a valid clock time
    */
-
-  private boolean validClockTime(String startTime, String endTime) {
-    return Integer.parseInt(startTime.substring(0, 2)) >= 0
-            && Integer.parseInt(startTime.substring(0, 2)) < 24
-            && Integer.parseInt(endTime.substring(0, 2)) >= 0
-            && Integer.parseInt(endTime.substring(0, 2)) < 24
-            && Integer.parseInt(startTime.substring(2, 4)) >= 0
-            && Integer.parseInt(startTime.substring(2, 4)) < 60
-            && Integer.parseInt(endTime.substring(2, 4)) >= 0
-            && Integer.parseInt(endTime.substring(2, 4)) < 60;
+  private static int parseClockTime(String clockTime) {
+    int value = 0;
+    for (int idx = 0; idx < 4; idx++) {
+      char c = clockTime.charAt(idx);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    int hours = value / 100;
+    int minutes = value % 100;
+    if (hours >= 24 || minutes >= 60) {
+      return -1;
+    }
+    return hours * 60 + minutes;
   }
 
   /**
    * Compares this time to the given time to determine if they overlap.
+   * Times are treated as half-open ranges, so an event ending at the minute another starts does
+   * not conflict with it. A Time that starts and ends on the same minute covers just that minute.
    * @param time the time to compare to
    * @return false if the times overlap, true if not
    */
   public boolean noTimeConflict(Time time) {
-    int timeStartDayIndex = time.startDay.dayIndex();
-    int timeEndDayIndex = time.endDay.dayIndex();
-    int thisStartDayIndex = this.startDay.dayIndex();
-    int thisEndDayIndex = this.endDay.dayIndex();
-
-    time.removeZeros();
-    this.removeZeros();
-
-    Boolean ret = true;
-    //Checks for time conflict with events on the same day.
-    if (this.startDay == time.startDay
-            && this.startDay == time.endDay
-            && this.startDay == this.endDay) {
-      ret = (Integer.parseInt(time.startTime) < Integer.parseInt(this.startTime)
-              && Integer.parseInt(time.endTime) <= Integer.parseInt(this.startTime))
-              || (Integer.parseInt(time.startTime) >= Integer.parseInt(this.endTime)
-              && Integer.parseInt(time.endTime) > Integer.parseInt(this.endTime));
-    }
-    //Checks for time conflict with events spanning multiple days.
-    if ((timeEndDayIndex > thisStartDayIndex
-            && timeEndDayIndex < thisEndDayIndex)
-            || timeStartDayIndex > thisStartDayIndex
-            && timeStartDayIndex < thisEndDayIndex) {
-      ret = false;
-    }
-    return ret;
+    return !overlaps(this.start, this.end, time.start, time.end);
   }
 
   /**
-   * Removes the leading zero for the start and end times of this Time.
+   * Determines if two minute-of-week ranges overlap, taking ranges that wrap around the end of
+   * the week into account.
+   * @param start1 the start of the first range
+   * @param end1 the end of the first range
+   * @param start2 the start of the second range
+   * @param end2 the end of the second range
+   * @return true if the ranges share at least one minute, false if not
    */
-  private void removeZeros() {
-    if (this.startTime.substring(0,1).equals("0")) {
-      this.startTime = this.startTime.substring(1, 4);
-    }
-    if (this.endTime.substring(0,1).equals("0")) {
-      this.endTime = this.endTime.substring(1, 4);
-    }
+  static boolean overlaps(int start1, int end1, int start2, int end2) {
+    int last1 = unwrappedEnd(start1, end1);
+    int last2 = unwrappedEnd(start2, end2);
+    return (start1 < last2 && start2 < last1)
+            || (start1 < last2 + MINUTES_PER_WEEK && start2 + MINUTES_PER_WEEK < last1)
+            || (start1 + MINUTES_PER_WEEK < last2 && start2 < last1 + MINUTES_PER_WEEK);
   }
 
-
   /**
-   * Creates an array of the days of the week.
-   * @return an array of the days of the week
+   * Returns the exclusive end of a range once any wrap into the next week is unrolled.
+   * @param start the start of the range
+   * @param end the end of the range
+   * @return an end greater than start, possibly past the end of the week
    */
-  private List<Day> createListOfDays() {
-    List<Day> list = List.of(Day.SUNDAY, Day.MONDAY, Day.TUESDAY, Day.WEDNESDAY, Day.THURSDAY,
-            Day.FRIDAY, Day.SATURDAY);
-    return list;
+  private static int unwrappedEnd(int start, int end) {
+    if (end > start) {
+      return end;
+    }
+    else if (end == start) {
+      return start + 1;
+    }
+    else {
+      return end + MINUTES_PER_WEEK;
+    }
   }
 
   /**
@@ -148,12 +149,8 @@ public class Time {
   public boolean equals(Object other) {
     if (other instanceof Time) {
       Time time = (Time) other;
-      this.removeZeros();
-      time.removeZeros();
-      return this.startDay.equals(time.startDay)
-              && this.endDay.equals(time.endDay)
-              && this.startTime.equals(time.startTime)
-              && this.endTime.equals(time.endTime);
+      return this.start == time.start
+              && this.end == time.end;
     }
     else {
       return false;
@@ -161,99 +158,138 @@ public class Time {
   }
 
   /**
-   * We chose to use the start time and end time to override hashcode because this should ensure
-   * a unique hash code for each Time.
+   * We chose to use the start minute and end minute to override hashcode because together they
+   * uniquely identify a Time.
    *
-   * @return a hashcode based on this start time and end time.
+   * @return a hashcode based on this start and end minute.
    */
   @Override
   public int hashCode() {
-    return Objects.hash(Integer.parseInt(this.startTime) + Integer.parseInt(this.endTime));
+    return this.start * MINUTES_PER_WEEK + this.end;
   }
 
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
-    this.removeZeros();
-    sb.append(this.startDay.toString()).append(":"
-            + " ").append(this.startTime).append(" -> ").append(this.endDay.toString()).append(":"
-            + " ").append(this.endTime);
+    sb.append(this.startDay().toString()).append(": ").append(this.startTimeTextHelp())
+            .append(" -> ").append(this.endDay().toString()).append(": ")
+            .append(this.endTimeTextHelp());
     return sb.toString();
-
   }
 
-
   public boolean sameDay(Day day) {
-    return this.startDay.equals(day);
-  }
-
-  /**
-   * Returns a string for the File writer to write into the XML file representing the time of the
-   * event.
-   * @return String in XML format representing the duration of an event.
-   */
-  public String printTimeXML() {
-    StringBuilder sb = new StringBuilder();
-    sb.append("<start-day>").append(this.startDay.toString()).append("</start-day>\n");
-    sb.append("<start>").append(this.startTime).append("</start>\n");
-    sb.append("<end-day>").append(this.endDay.toString()).append("</end-day>\n");
-    sb.append("<end>").append(this.endTime).append("</end>");
-    return sb.toString();
+    return this.startDay() == day;
   }
 
   /**
    * Makes an Array of Integers to represent the fields of this Time.
+   * The times are given as 24-hour clock numbers, such as 930 for 9:30.
    * @return an Array of Integers
    */
   public Integer[] timeInfo() {
-    this.removeZeros();
     Integer[] info = new Integer[4];
-    info[0] = this.startDay.dayIndex();
-    info[1] = Integer.parseInt(this.startTime);
-    info[2] = this.endDay.dayIndex();
-    info[3] = Integer.parseInt(this.endTime);
+    info[0] = this.startDayIndexHelp();
+    info[1] = clockNumber(this.start);
+    info[2] = this.endDayIndexHelp();
+    info[3] = clockNumber(this.end);
     return info;
   }
 
+  /**
+   * Returns the minute of the week this Time starts on, counting from Sunday at 0000.
+   * @return the start of this Time as a minute-of-week
+   */
+  public int startMinute() {
+    return this.start;
+  }
+
+  /**
+   * Returns the minute of the week this Time ends on, counting from Sunday at 0000.
+   * @return the end of this Time as a minute-of-week
+   */
+  public int endMinute() {
+    return this.end;
+  }
+
   public int startDayIndexHelp() {
-    return this.startDay.dayIndex();
+    return this.start / MINUTES_PER_DAY;
   }
 
   public int endDayIndexHelp() {
-    return this.endDay.dayIndex();
+    return this.end / MINUTES_PER_DAY;
   }
 
   public String startTimeTextHelp() {
-    this.removeZeros();
-    return this.startTime;
+    return dropLeadingZero(this.startClockText());
   }
 
   public String endTimeTextHelp() {
-    this.removeZeros();
-    return this.endTime;
+    return dropLeadingZero(this.endClockText());
   }
 
-  /*
-  public boolean timeInBetween(String time) {
-    int timeInt = Integer.parseInt(time);
-    this.removeZeros();
-    int startInt = Integer.parseInt(this.startTime);
-    int endInt = Integer.parseInt(this.endTime);
-    if (this.startDay == this.endDay) {
-      return (timeInt >= startInt && timeInt <= endInt);
-    }
-    else {
-      int daysInBetween = this.endDayIndexHelp() - this.startDayIndexHelp() - 1;
-      for (int index = this.startDayIndexHelp(); index < daysInBetween; index++) {
-
-      }
+  /**
+   * Returns the start time of this Time as a 4 digit 24-hour clock time, such as 0930.
+   * @return the 4 digit start time
+   */
+  public String startClockText() {
+    return clockText(this.start);
+  }
 
-    }
+  /**
+   * Returns the end time of this Time as a 4 digit 24-hour clock time, such as 0930.
+   * @return the 4 digit end time
+   */
+  public String endClockText() {
+    return clockText(this.end);
+  }
 
+  /**
+   * Returns the day this Time starts on.
+   * @return the start day
+   */
+  public Day startDay() {
+    return DAYS[this.startDayIndexHelp()];
   }
 
+  /**
+   * Returns the day this Time ends on.
+   * @return the end day
+   */
+  public Day endDay() {
+    return DAYS[this.endDayIndexHelp()];
+  }
 
+  /**
+   * Converts a minute of the week into its 24-hour clock number, such as 930 for 9:30.
+   * @param minute the minute of the week
+   * @return the clock time as a number
    */
+  private static int clockNumber(int minute) {
+    int minuteOfDay = minute % MINUTES_PER_DAY;
+    return (minuteOfDay / 60) * 100 + minuteOfDay % 60;
+  }
 
+  /**
+   * Converts a minute of the week into a 4 digit 24-hour clock time.
+   * @param minute the minute of the week
+   * @return the clock time as 4 digits
+   */
+  private static String clockText(int minute) {
+    int clock = clockNumber(minute);
+    char[] digits = {(char) ('0' + clock / 1000), (char) ('0' + clock / 100 % 10),
+        (char) ('0' + clock / 10 % 10), (char) ('0' + clock % 10)};
+    return new String(digits);
+  }
 
+  /**
+   * Removes the leading zero of the given clock time, matching how times are shown to the client.
+   * @param clockText the 4 digit clock time
+   * @return the clock time without a leading zero
+   */
+  private static String dropLeadingZero(String clockText) {
+    if (clockText.charAt(0) == '0') {
+      return clockText.substring(1);
+    }
+    return clockText;
+  }
 }
@@ -2,7 +2,6 @@ package cs3500.planner.model;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Objects;
 
 /**
  * Class representing a User who is the owner of a Schedule.
@@ -74,6 +73,51 @@ public class User implements NUPlannerModel {
     return this.schedule.eventsInSchedule();
   }
 
+  @Override
+  public boolean isFree(User user, int start, int end) {
+    return this.schedule.isFree(start, end);
+  }
+
+  @Override
+  public ArrayList<User> freeUsers(ArrayList<User> group, int start, int end) {
+    ArrayList<User> free = new ArrayList<>();
+    for (User u : group) {
+      if (u.schedule.isFree(start, end)) {
+        free.add(u);
+      }
+    }
+    return free;
+  }
+
+  @Override
+  public boolean allFree(ArrayList<User> group, int start, int end) {
+    ArrayList<Schedule> schedules = new ArrayList<>();
+    for (User u : group) {
+      schedules.add(u.schedule);
+    }
+    return Schedule.allFree(schedules, start, end);
+  }
+
+  @Override
+  public ArrayList<Time> findSlots(int duration, ArrayList<User> invitees, Time window,
+                                  int maxResults) {
+    ArrayList<Schedule> schedules = new ArrayList<>();
+    for (User u : invitees) {
+      schedules.add(u.schedule);
+    }
+    return SlotFinder.findSlots(schedules, duration, window, maxResults);
+  }
+
+  @Override
+  public void addListener(PlannerListener listener) {
+    //empty for now.
+  }
+
+  @Override
+  public void removeListener(PlannerListener listener) {
+    //empty for now.
+  }
+
   /**
    * Method should never be called on a user.
    * Used in CentralSystem to get the list of users in the system.
@@ -84,6 +128,18 @@ public class User implements NUPlannerModel {
     return new ArrayList<>();
   }
 
+  /**
+   * Returns this user if it has the given uId.
+   * Used in CentralSystem to look users up by their id.
+   *
+   * @param uId the id to look for.
+   * @return this user if the ids match, null if not.
+   */
+  @Override
+  public User findUser(String uId) {
+    return this.uId.equals(uId) ? this : null;
+  }
+
   /**
    * Chose to override equals because a User has multiple fields, all of which must be equal.
    * Therefore, the regular equals method would not ensure that two Users are the exact same
@@ -111,7 +167,7 @@ public class User implements NUPlannerModel {
    */
   @Override
   public int hashCode() {
-    return Objects.hash(uId.length() * uId.length() / 2);
+    return this.uId.hashCode();
   }
 
   @Override
@@ -130,20 +186,17 @@ public class User implements NUPlannerModel {
     return this.uId;
   }
 
+  public boolean containsEvent(NUEvent e) {
+    return this.schedule.containsEvent(e);
+  }
+
   /**
-   * Returns a string for the File writer to write into the XML file representing a user invited
-   * to the event.
+   * Returns the schedule of this user, so it can be combined with other schedules or saved.
    *
-   * @return String in XML format representing a user invited of the event.
+   * @return this user's schedule.
    */
-  public String printUserXML() {
-    StringBuilder sb = new StringBuilder();
-    sb.append("<uid>").append(this.uId).append("</uid>\n");
-    return sb.toString();
-  }
-
-  public boolean containsEvent(NUEvent e) {
-    return this.schedule.containsEvent(e);
+  public Schedule userSchedule() {
+    return this.schedule;
   }
 
 }
\ No newline at end of file
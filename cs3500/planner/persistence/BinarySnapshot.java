@@ -0,0 +1,345 @@
+package cs3500.planner.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+import cs3500.planner.model.Location;
+import cs3500.planner.model.NUEvent;
+import cs3500.planner.model.PlannerSnapshot;
+import cs3500.planner.model.Schedule;
+import cs3500.planner.model.Time;
+import cs3500.planner.model.User;
+
+/**
+ * Versioned binary snapshot of every user in the planner and their events.
+ * Every distinct String is stored once in a table at the front of the file and referred to by
+ * its index afterwards, and times are stored as minutes of the week, so restoring a planner is a
+ * near-sequential read of a memory-mapped file instead of one XML parse per user.
+ *
+ * <p>Layout, all big-endian: the magic number, the format version, the string table as a count
+ * followed by length-prefixed UTF-8 strings, and then the users. Each user is its id followed by
+ * its events, and each event is its id, name, host, online flag, place, start and end minute,
+ * and invitee ids.
+ */
+public final class BinarySnapshot {
+  private static final int MAGIC = 0x4E555053;
+  private static final short VERSION = 1;
+
+  /**
+   * The fewest bytes a user takes: its id and its count of events.
+   */
+  private static final int USER_BYTES = 8;
+
+  /**
+   * The fewest bytes an event takes: its id, name, host, flag, place, minutes and invitee count.
+   */
+  private static final int EVENT_BYTES = 4 + 4 + 4 + 1 + 4 + 2 + 2 + 4;
+
+  private BinarySnapshot() {
+    //only static helpers.
+  }
+
+  /**
+   * Writes a snapshot of the given users to the given file, replacing it only once the new
+   * snapshot is completely on disk.
+   *
+   * @param users  the users to save, with their schedules
+   * @param target the file to write
+   * @throws IllegalStateException if the snapshot cannot be written
+   */
+  public static void write(Collection<User> users, Path target) {
+    write(encode(users), target);
+  }
+
+  /**
+   * Encodes a snapshot of the given users without writing it anywhere, so the users can be
+   * changed again while the snapshot is being saved.
+   *
+   * @param users the users to encode, with their schedules
+   * @return the bytes of the snapshot
+   */
+  public static byte[] encode(Collection<User> users) {
+    ArrayList<String> ids = new ArrayList<>(users.size());
+    ArrayList<List<NUEvent>> events = new ArrayList<>(users.size());
+    for (User u : users) {
+      ids.add(u.printName());
+      events.add(u.userSchedule().eventsInSchedule());
+    }
+    return encode(ids, events);
+  }
+
+  /**
+   * Writes a snapshot of every user in the given version of a planner to the given file,
+   * replacing it only once the new snapshot is completely on disk.
+   *
+   * @param snapshot the version to save
+   * @param target   the file to write
+   * @throws IllegalStateException if the snapshot cannot be written
+   */
+  public static void write(PlannerSnapshot snapshot, Path target) {
+    write(encode(snapshot), target);
+  }
+
+  /**
+   * Encodes a snapshot of every user in the given version of a planner, straight from the
+   * version's copies of their events, without building the users' schedules.
+   *
+   * @param snapshot the version to encode
+   * @return the bytes of the snapshot
+   */
+  public static byte[] encode(PlannerSnapshot snapshot) {
+    ArrayList<String> ids = snapshot.userIds();
+    ArrayList<List<NUEvent>> events = new ArrayList<>(ids.size());
+    for (String uId : ids) {
+      events.add(snapshot.eventsOf(uId));
+    }
+    return encode(ids, events);
+  }
+
+  /**
+   * Encodes users given as their ids and, at the same positions, their events.
+   */
+  private static byte[] encode(List<String> ids, List<List<NUEvent>> events) {
+    StringTable strings = new StringTable();
+    for (int idx = 0; idx < ids.size(); idx++) {
+      strings.add(ids.get(idx));
+      for (NUEvent e : events.get(idx)) {
+        strings.add(e.eventId());
+        strings.add(e.eventName());
+        strings.add(e.hostName());
+        strings.add(e.locationName());
+        for (String uId : e.inviteeIds()) {
+          strings.add(uId);
+        }
+      }
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+    try {
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      strings.write(out);
+      out.writeInt(ids.size());
+      for (int idx = 0; idx < ids.size(); idx++) {
+        out.writeInt(strings.ref(ids.get(idx)));
+        out.writeInt(events.get(idx).size());
+        for (NUEvent e : events.get(idx)) {
+          writeEvent(out, e, strings);
+        }
+      }
+      out.flush();
+    } catch (IOException e) {
+      throw new IllegalStateException("Error in encoding the snapshot: " + e.getMessage());
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Writes an encoded snapshot to the given file, replacing it only once the new snapshot is
+   * completely on disk.
+   *
+   * @param snapshot the bytes of the snapshot
+   * @param target   the file to write
+   * @throws IllegalStateException if the snapshot cannot be written
+   */
+  public static void write(byte[] snapshot, Path target) {
+    Path temp = null;
+    try {
+      temp = Files.createTempFile(target.toAbsolutePath().getParent(),
+              target.getFileName().toString(), ".tmp");
+      try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+        file.write(snapshot);
+        file.getFD().sync();
+      }
+      try {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+      temp = null;
+    } catch (IOException e) {
+      throw new IllegalStateException("Error in writing the snapshot: " + e.getMessage());
+    } finally {
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException e) {
+          //the snapshot has already failed, and that is what gets reported.
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads every user and their events back from a snapshot file.
+   *
+   * @param source the snapshot file
+   * @return the users in the snapshot, in the order they were written
+   * @throws IllegalStateException if the file cannot be read or is not a valid snapshot
+   */
+  public static List<User> read(Path source) {
+    try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+      MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return read(in);
+    } catch (IOException e) {
+      throw new IllegalStateException("Error in opening the snapshot: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads every user and their events from a snapshot held in the given buffer.
+   *
+   * @param in the buffer positioned at the start of a snapshot
+   * @return the users in the snapshot, in the order they were written
+   * @throws IllegalStateException if the buffer does not hold a valid snapshot
+   */
+  public static List<User> read(ByteBuffer in) {
+    try {
+      if (in.getInt() != MAGIC) {
+        throw new IllegalStateException("Not a planner snapshot");
+      }
+      short version = in.getShort();
+      if (version != VERSION) {
+        throw new IllegalStateException("Unsupported snapshot version " + version);
+      }
+      String[] strings = StringTable.read(in);
+      HashMap<String, User> placeholders = new HashMap<>();
+      int userCount = count(in, USER_BYTES);
+      List<User> users = new ArrayList<>(userCount);
+      for (int u = 0; u < userCount; u++) {
+        String uId = strings[in.getInt()];
+        int eventCount = count(in, EVENT_BYTES);
+        ArrayList<NUEvent> events = new ArrayList<>(eventCount);
+        for (int e = 0; e < eventCount; e++) {
+          events.add(readEvent(in, strings, placeholders));
+        }
+        users.add(new User(uId, new Schedule(uId, events)));
+      }
+      return users;
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new IllegalStateException("Snapshot is truncated or corrupt");
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Snapshot is corrupt: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads a count of items, checking that the rest of the buffer is long enough to hold that
+   * many, so a corrupt count fails before anything is allocated for it.
+   *
+   * @param in        the buffer to read from
+   * @param itemBytes the fewest bytes each item takes
+   * @return the count
+   * @throws IllegalStateException if the count is negative or too large for the buffer
+   */
+  private static int count(ByteBuffer in, int itemBytes) {
+    int count = in.getInt();
+    if (count < 0 || count > in.remaining() / itemBytes) {
+      throw new IllegalStateException("Snapshot is truncated or corrupt");
+    }
+    return count;
+  }
+
+  /**
+   * Writes a single event using references into the string table.
+   */
+  private static void writeEvent(DataOutputStream out, NUEvent e, StringTable strings)
+          throws IOException {
+    out.writeInt(strings.ref(e.eventId()));
+    out.writeInt(strings.ref(e.eventName()));
+    out.writeInt(strings.ref(e.hostName()));
+    out.writeBoolean(e.isOnline());
+    out.writeInt(strings.ref(e.locationName()));
+    out.writeShort(e.startMinute());
+    out.writeShort(e.endMinute());
+    ArrayList<String> invitees = e.inviteeIds();
+    out.writeInt(invitees.size());
+    for (String uId : invitees) {
+      out.writeInt(strings.ref(uId));
+    }
+  }
+
+  /**
+   * Reads a single event, sharing one placeholder User per invitee id across the snapshot.
+   */
+  private static NUEvent readEvent(ByteBuffer in, String[] strings,
+                                   HashMap<String, User> placeholders) {
+    String id = strings[in.getInt()];
+    String name = strings[in.getInt()];
+    User host = placeholder(strings[in.getInt()], placeholders);
+    boolean online = in.get() != 0;
+    String place = strings[in.getInt()];
+    Time time = new Time(in.getShort(), in.getShort());
+    int inviteeCount = count(in, 4);
+    ArrayList<User> invitees = new ArrayList<>(inviteeCount);
+    for (int idx = 0; idx < inviteeCount; idx++) {
+      invitees.add(placeholder(strings[in.getInt()], placeholders));
+    }
+    return new NUEvent(id, name, invitees, new Location(online, place), time, host);
+  }
+
+  private static User placeholder(String uId, HashMap<String, User> placeholders) {
+    return placeholders.computeIfAbsent(uId,
+        key -> new User(key, new Schedule(key, new ArrayList<>())));
+  }
+
+  /**
+   * Table of every distinct String in a snapshot, in the order they were first seen.
+   */
+  private static final class StringTable {
+    private final HashMap<String, Integer> refs;
+    private final List<String> strings;
+
+    private StringTable() {
+      this.refs = new HashMap<>();
+      this.strings = new ArrayList<>();
+    }
+
+    private void add(String s) {
+      if (!this.refs.containsKey(s)) {
+        this.refs.put(s, this.strings.size());
+        this.strings.add(s);
+      }
+    }
+
+    private int ref(String s) {
+      return this.refs.get(s);
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+      out.writeInt(this.strings.size());
+      for (String s : this.strings) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+    }
+
+    private static String[] read(ByteBuffer in) {
+      String[] strings = new String[count(in, 4)];
+      for (int idx = 0; idx < strings.length; idx++) {
+        byte[] bytes = new byte[count(in, 1)];
+        in.get(bytes);
+        strings[idx] = new String(bytes, StandardCharsets.UTF_8);
+      }
+      return strings;
+    }
+  }
+}
@@ -0,0 +1,641 @@
+package cs3500.planner.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import cs3500.planner.model.BatchMode;
+import cs3500.planner.model.CentralSystem;
+import cs3500.planner.model.ChangeFeed;
+import cs3500.planner.model.EventResult;
+import cs3500.planner.model.EventSpec;
+import cs3500.planner.model.Location;
+import cs3500.planner.model.NUEvent;
+import cs3500.planner.model.NUPlannerModel;
+import cs3500.planner.model.PlannerListener;
+import cs3500.planner.model.PlannerSnapshot;
+import cs3500.planner.model.Schedule;
+import cs3500.planner.model.Time;
+import cs3500.planner.model.User;
+
+/**
+ * A planner whose changes survive a crash without rewriting any schedule files.
+ * Every createEvent, createEvents, modifyEvent and removeEvent is recorded in an append-only
+ * journal before it is applied to the wrapped CentralSystem, and does not return until its record
+ * is on disk.
+ * The state is recovered by restoring the latest binary snapshot and replaying the journal
+ * written after it. Once the journal grows past a threshold it is compacted in the background:
+ * a new journal is started, the current state is saved as a snapshot, and the old journal and
+ * snapshot are deleted.
+ * Users loaded from schedule files, and resets, are not journaled. Instead they are saved in a
+ * snapshot before uploadUser, addFile and resetUsers return, so no change journaled afterwards
+ * can refer to users that a crash would lose.
+ *
+ * <p>The data directory holds {@code snapshot-N.bin} and {@code journal-N.log} files. Snapshot N
+ * holds every change made before journal N was started.
+ *
+ * <p>Changes are applied one at a time, in the order they are journaled. Reads go straight to
+ * the wrapped system, which is safe to read from any thread, so they never wait for a change to
+ * reach the disk.
+ */
+public final class DurablePlanner implements NUPlannerModel, AutoCloseable {
+  /**
+   * Journal size, in bytes, past which the journal is folded into a new snapshot.
+   */
+  public static final long DEFAULT_COMPACT_THRESHOLD = 4L << 20;
+
+  private static final byte CREATE = 1;
+  private static final byte MODIFY = 2;
+  private static final byte REMOVE = 3;
+  private static final byte CREATE_BATCH = 4;
+
+  private final CentralSystem model;
+  private final Path directory;
+  private final long compactThreshold;
+  private final ExecutorService compactor;
+  private final Object lock;
+  private Journal journal;
+  private long generation;
+  //INVARIANT: journal appends to journal-<generation>.log in directory.
+  private CompletableFuture<Void> compaction;
+
+  private DurablePlanner(CentralSystem model, Path directory, long generation,
+                         long compactThreshold) {
+    this.model = model;
+    this.directory = directory;
+    this.compactThreshold = compactThreshold;
+    this.compactor = Executors.newSingleThreadExecutor(task -> {
+      Thread t = new Thread(task, "journal-compactor");
+      t.setDaemon(true);
+      return t;
+    });
+    this.lock = new Object();
+    this.generation = generation;
+    this.journal = new Journal(journalFile(directory, generation));
+    this.compaction = CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Opens the planner stored in the given directory with no schedule files.
+   *
+   * @param directory the data directory, created if it does not exist
+   * @return the recovered planner
+   * @throws IllegalStateException if the directory or its snapshot cannot be read
+   */
+  public static DurablePlanner open(Path directory) {
+    return open(directory, new ArrayList<>(), DEFAULT_COMPACT_THRESHOLD);
+  }
+
+  /**
+   * Opens the planner stored in the given directory, restoring its latest snapshot and
+   * replaying every journal written since.
+   *
+   * @param directory        the data directory, created if it does not exist
+   * @param files            the schedule files the planner can upload users from
+   * @param compactThreshold the journal size in bytes past which it is compacted
+   * @return the recovered planner
+   * @throws IllegalStateException if the directory or its snapshot cannot be read
+   * @throws IllegalArgumentException if the threshold is not positive
+   */
+  public static DurablePlanner open(Path directory, ArrayList<File> files,
+                                    long compactThreshold) {
+    if (compactThreshold < 1) {
+      throw new IllegalArgumentException("Compaction threshold must be positive");
+    }
+    TreeSet<Long> snapshots = new TreeSet<>();
+    TreeSet<Long> journals = new TreeSet<>();
+    try {
+      Files.createDirectories(directory);
+      scan(directory, snapshots, journals);
+    } catch (IOException e) {
+      throw new IllegalStateException("Error in opening the data directory: " + e.getMessage());
+    }
+
+    CentralSystem model = new CentralSystem(files);
+    long base = 0;
+    if (!snapshots.isEmpty()) {
+      base = snapshots.last();
+      model.loadSnapshot(snapshotFile(directory, base));
+    }
+    int replayed = 0;
+    for (long gen : journals.tailSet(base)) {
+      for (byte[] record : Journal.read(journalFile(directory, gen))) {
+        try {
+          apply(model, record);
+        } catch (IOException e) {
+          throw new IllegalStateException("Corrupt journal record in journal-" + gen + ".log");
+        } catch (RuntimeException e) {
+          //the change failed the same way when it was first made.
+        }
+        replayed++;
+      }
+    }
+
+    long next = Math.max(base, journals.isEmpty() ? 0 : journals.last()) + 1;
+    DurablePlanner planner = new DurablePlanner(model, directory, next, compactThreshold);
+    if (replayed > 0 || snapshots.isEmpty()) {
+      //the new journal is still empty, so the recovered state is the snapshot that goes with it.
+      synchronized (planner.lock) {
+        planner.compaction = planner.saveSnapshot(null, model.snapshot(), next);
+      }
+    }
+    return planner;
+  }
+
+  /**
+   * Starts a new journal and saves the current state as a snapshot in the background, deleting
+   * the journals and snapshots it replaces once it is on disk.
+   * Only the model's latest version is taken while changes are held off, and it is encoded and
+   * written by the background thread.
+   *
+   * @return a future completed once the snapshot is saved
+   */
+  public CompletableFuture<Void> compact() {
+    synchronized (this.lock) {
+      Journal old = this.journal;
+      this.generation++;
+      this.journal = new Journal(journalFile(this.directory, this.generation));
+      this.compaction = this.saveSnapshot(old, this.model.snapshot(), this.generation);
+      return this.compaction;
+    }
+  }
+
+  /**
+   * Closes the given journal, then saves the given version as the snapshot of the given
+   * generation and deletes the journals and snapshots before it, on the background thread.
+   *
+   * @param old      the journal the snapshot replaces, or null if there is none to close
+   * @param snapshot the version to save
+   * @param gen      the generation of the journal started after the version was taken
+   * @return a future completed once the snapshot is saved
+   */
+  private CompletableFuture<Void> saveSnapshot(Journal old, PlannerSnapshot snapshot, long gen) {
+    return CompletableFuture.runAsync(() -> {
+      if (old != null) {
+        old.close();
+      }
+      BinarySnapshot.write(snapshot, snapshotFile(this.directory, gen));
+      this.deleteBefore(gen);
+    }, this.compactor);
+  }
+
+  /**
+   * Waits for any compaction in progress, then closes the journal.
+   */
+  @Override
+  public void close() {
+    CompletableFuture<Void> pending;
+    synchronized (this.lock) {
+      pending = this.compaction;
+    }
+    try {
+      pending.join();
+    } catch (CompletionException e) {
+      //the journal still holds every change, so they are recovered on the next open.
+    }
+    this.journal.close();
+    this.compactor.shutdown();
+  }
+
+  @Override
+  public void createEvent(String name, ArrayList<User> invitees, Location location, Time time,
+                          User host) {
+    String id = NUEvent.newId();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeByte(CREATE);
+      out.writeUTF(id);
+      writeString(out, name);
+      writeUsers(out, invitees);
+      writeLocation(out, location);
+      writeTime(out, time);
+      writeString(out, host == null ? null : host.printName());
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    this.record(bytes.toByteArray(),
+        () -> this.model.createEvent(id, name, invitees, location, time, host));
+  }
+
+  /**
+   * Creates a batch of events as CentralSystem.createEvents does, journaling the whole batch as
+   * one record, so it is recovered all together or not at all.
+   *
+   * @param specs the events to create, checked in the order given
+   * @param mode  whether to create nothing unless every event can be created
+   * @return what became of each event, in the order they were given
+   * @throws IllegalArgumentException if specs or mode is null, or the batch is rejected
+   * @throws IllegalStateException if the batch could not be written to the journal
+   */
+  public List<EventResult> createEvents(List<EventSpec> specs, BatchMode mode) {
+    if (specs == null || mode == null) {
+      throw new IllegalArgumentException("Events and mode cannot be null");
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeByte(CREATE_BATCH);
+      out.writeUTF(mode.name());
+      out.writeInt(specs.size());
+      for (EventSpec spec : specs) {
+        out.writeUTF(spec.id());
+        writeString(out, spec.name());
+        writeUsers(out, spec.invitees());
+        writeLocation(out, spec.location());
+        writeTime(out, spec.time());
+        writeString(out, spec.host().printName());
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    ArrayList<EventResult> results = new ArrayList<>();
+    this.record(bytes.toByteArray(), () -> results.addAll(this.model.createEvents(specs, mode)));
+    return results;
+  }
+
+  @Override
+  public void modifyEvent(String name, String editedName, ArrayList<User> invitees,
+                          Location location, Time time) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeByte(MODIFY);
+      writeString(out, name);
+      writeString(out, editedName);
+      writeUsers(out, invitees);
+      writeLocation(out, location);
+      writeTime(out, time);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    this.record(bytes.toByteArray(),
+        () -> this.model.modifyEvent(name, editedName, invitees, location, time));
+  }
+
+  @Override
+  public void removeEvent(NUEvent e, User u) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeByte(REMOVE);
+      out.writeUTF(e.eventId());
+      out.writeUTF(u.printName());
+    } catch (IOException ex) {
+      throw new IllegalStateException(ex);
+    }
+    this.record(bytes.toByteArray(), () -> this.model.removeEvent(e, u));
+  }
+
+  /**
+   * Appends a change to the journal and applies it, then waits for the change to be on disk.
+   * Appending and applying happen under one lock, so the journal holds changes in the order
+   * they were applied, but the wait does not, so changes made together share one fsync.
+   *
+   * @param record the journal record describing the change
+   * @param change applies the change to the model
+   * @throws IllegalStateException if the change could not be written to the journal
+   */
+  private void record(byte[] record, Runnable change) {
+    CompletableFuture<Void> written;
+    synchronized (this.lock) {
+      written = this.journal.append(record);
+      change.run();
+      if (this.journal.size() > this.compactThreshold && this.compaction.isDone()) {
+        this.compact();
+      }
+    }
+    try {
+      written.join();
+    } catch (CompletionException e) {
+      throw new IllegalStateException("Change was applied but not saved: "
+              + e.getCause().getMessage());
+    }
+  }
+
+  /**
+   * Applies a change that is not journaled, then saves a snapshot holding it and waits for the
+   * snapshot to be on disk. A change that fails part way may still have changed the model, so
+   * the snapshot is saved either way before its failure is thrown.
+   *
+   * @param change applies the change to the model
+   * @throws IllegalStateException if the snapshot could not be saved
+   */
+  private void saved(Runnable change) {
+    RuntimeException failure = null;
+    CompletableFuture<Void> written;
+    synchronized (this.lock) {
+      try {
+        change.run();
+      } catch (RuntimeException e) {
+        failure = e;
+      }
+      written = this.compact();
+    }
+    try {
+      written.join();
+    } catch (CompletionException e) {
+      throw new IllegalStateException("Change was applied but not saved: "
+              + e.getCause().getMessage());
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  @Override
+  public void uploadUser() {
+    this.saved(this.model::uploadUser);
+  }
+
+  @Override
+  public void addFile(File selectedFile) {
+    this.saved(() -> this.model.addFile(selectedFile));
+  }
+
+  @Override
+  public void resetUsers() {
+    this.saved(this.model::resetUsers);
+  }
+
+  @Override
+  public ArrayList<Time> findSlots(int duration, ArrayList<User> invitees, Time window,
+                                   int maxResults) {
+    return this.model.findSlots(duration, invitees, window, maxResults);
+  }
+
+  @Override
+  public boolean checkForTimeConflict(NUEvent event, User user) {
+    return this.model.checkForTimeConflict(event, user);
+  }
+
+  @Override
+  public ArrayList<NUEvent> usersEvents(User user) {
+    return this.model.usersEvents(user);
+  }
+
+  @Override
+  public ArrayList<User> usersInSystem() {
+    return this.model.usersInSystem();
+  }
+
+  @Override
+  public User findUser(String uId) {
+    return this.model.findUser(uId);
+  }
+
+  @Override
+  public boolean isFree(User user, int start, int end) {
+    return this.model.isFree(user, start, end);
+  }
+
+  @Override
+  public ArrayList<User> freeUsers(ArrayList<User> group, int start, int end) {
+    return this.model.freeUsers(group, start, end);
+  }
+
+  @Override
+  public boolean allFree(ArrayList<User> group, int start, int end) {
+    return this.model.allFree(group, start, end);
+  }
+
+  /**
+   * Adds a listener to the wrapped system. It may be told of a change before the change is on disk,
+   * and is not told of the changes replayed when the planner is opened.
+   */
+  @Override
+  public void addListener(PlannerListener listener) {
+    this.model.addListener(listener);
+  }
+
+  @Override
+  public void removeListener(PlannerListener listener) {
+    this.model.removeListener(listener);
+  }
+
+  /**
+   * Returns the latest version of the wrapped system, without waiting for any change.
+   *
+   * @return the version published by the last change applied
+   */
+  public PlannerSnapshot snapshot() {
+    return this.model.snapshot();
+  }
+
+  /**
+   * Returns the feed of changes made to the wrapped system, starting with those replayed from
+   * the journal when the planner was opened.
+   *
+   * @return the wrapped system's change feed
+   */
+  public ChangeFeed changeFeed() {
+    return this.model.changeFeed();
+  }
+
+  @Override
+  public String toString() {
+    return this.model.toString();
+  }
+
+  /**
+   * Replays a single journal record against the given model.
+   */
+  private static void apply(CentralSystem model, byte[] record) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+    byte op = in.readByte();
+    switch (op) {
+      case CREATE: {
+        String id = in.readUTF();
+        String name = readString(in);
+        ArrayList<User> invitees = readUsers(in, model);
+        Location location = readLocation(in);
+        Time time = readTime(in);
+        String host = readString(in);
+        model.createEvent(id, name, invitees, location, time,
+                host == null ? null : resolve(model, host));
+        break;
+      }
+      case CREATE_BATCH: {
+        BatchMode mode = BatchMode.valueOf(in.readUTF());
+        int count = in.readInt();
+        ArrayList<EventSpec> specs = new ArrayList<>(count);
+        for (int idx = 0; idx < count; idx++) {
+          String id = in.readUTF();
+          String name = readString(in);
+          ArrayList<User> invitees = readUsers(in, model);
+          Location location = readLocation(in);
+          Time time = readTime(in);
+          specs.add(new EventSpec(id, name, invitees, location, time,
+                  resolve(model, readString(in))));
+        }
+        model.createEvents(specs, mode);
+        break;
+      }
+      case MODIFY: {
+        String name = readString(in);
+        String editedName = readString(in);
+        ArrayList<User> invitees = readUsers(in, model);
+        Location location = readLocation(in);
+        Time time = readTime(in);
+        model.modifyEvent(name, editedName, invitees, location, time);
+        break;
+      }
+      case REMOVE: {
+        String id = in.readUTF();
+        model.removeEvent(id, in.readUTF());
+        break;
+      }
+      default:
+        throw new IllegalStateException("Unknown journal record " + op);
+    }
+  }
+
+  /**
+   * Returns the user in the model with the given id, or a placeholder if there is none, which
+   * is what the original change would have been given.
+   */
+  private static User resolve(CentralSystem model, String uId) {
+    User user = model.findUser(uId);
+    if (user == null) {
+      user = new User(uId, new Schedule(uId, new ArrayList<>()));
+    }
+    return user;
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    out.writeBoolean(s != null);
+    if (s != null) {
+      out.writeUTF(s);
+    }
+  }
+
+  private static void writeUsers(DataOutputStream out, ArrayList<User> users)
+          throws IOException {
+    out.writeInt(users == null ? -1 : users.size());
+    if (users != null) {
+      for (User u : users) {
+        out.writeUTF(u.printName());
+      }
+    }
+  }
+
+  private static void writeLocation(DataOutputStream out, Location location)
+          throws IOException {
+    out.writeBoolean(location != null);
+    if (location != null) {
+      out.writeBoolean(location.isOnlineHelp());
+      out.writeUTF(location.locationName());
+    }
+  }
+
+  private static void writeTime(DataOutputStream out, Time time) throws IOException {
+    out.writeBoolean(time != null);
+    if (time != null) {
+      out.writeShort(time.startMinute());
+      out.writeShort(time.endMinute());
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static ArrayList<User> readUsers(DataInputStream in, CentralSystem model)
+          throws IOException {
+    int count = in.readInt();
+    if (count < 0) {
+      return null;
+    }
+    ArrayList<User> users = new ArrayList<>(count);
+    for (int idx = 0; idx < count; idx++) {
+      users.add(resolve(model, in.readUTF()));
+    }
+    return users;
+  }
+
+  private static Location readLocation(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    boolean online = in.readBoolean();
+    return new Location(online, in.readUTF());
+  }
+
+  private static Time readTime(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    return new Time(in.readShort(), in.readShort());
+  }
+
+  /**
+   * Deletes every journal and snapshot older than the given generation.
+   */
+  private void deleteBefore(long gen) {
+    TreeSet<Long> snapshots = new TreeSet<>();
+    TreeSet<Long> journals = new TreeSet<>();
+    try {
+      scan(this.directory, snapshots, journals);
+      for (long old : snapshots.headSet(gen)) {
+        Files.deleteIfExists(snapshotFile(this.directory, old));
+      }
+      for (long old : journals.headSet(gen)) {
+        Files.deleteIfExists(journalFile(this.directory, old));
+      }
+    } catch (IOException e) {
+      //leftover files are skipped on recovery, so they are only wasted space.
+    }
+  }
+
+  /**
+   * Collects the generation of every snapshot and journal in the given directory.
+   */
+  private static void scan(Path directory, TreeSet<Long> snapshots, TreeSet<Long> journals)
+          throws IOException {
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+      for (Path p : entries) {
+        String name = p.getFileName().toString();
+        Long gen = generationOf(name, "snapshot-", ".bin");
+        if (gen != null) {
+          snapshots.add(gen);
+        }
+        gen = generationOf(name, "journal-", ".log");
+        if (gen != null) {
+          journals.add(gen);
+        }
+      }
+    }
+  }
+
+  private static Long generationOf(String name, String prefix, String suffix) {
+    if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+      return null;
+    }
+    try {
+      return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static Path snapshotFile(Path directory, long gen) {
+    return directory.resolve("snapshot-" + gen + ".bin");
+  }
+
+  private static Path journalFile(Path directory, long gen) {
+    return directory.resolve("journal-" + gen + ".log");
+  }
+}
@@ -0,0 +1,225 @@
+package cs3500.planner.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal file of records with group commit.
+ * Records are handed to a single writer thread, which takes every record waiting at that moment,
+ * writes them in one go and then forces the file to disk once for the whole batch. Callers that
+ * append at the same time therefore share a single fsync instead of paying for one each.
+ *
+ * <p>Each record is framed by its length and a CRC-32C of its bytes, so a record that was only
+ * partly written when the process died is recognized and dropped when the journal is read back.
+ */
+public final class Journal implements AutoCloseable {
+  private static final int HEADER_BYTES = 8;
+
+  private final Path file;
+  private final FileChannel channel;
+  private final BlockingQueue<Pending> queue;
+  private final Thread writer;
+  private volatile long size;
+  private boolean closed;
+  //INVARIANT: once closed, no record is accepted and the writer thread drains what is left.
+
+  /**
+   * Opens the given journal file for appending, creating it if it does not exist.
+   *
+   * @param file the journal file
+   * @throws IllegalStateException if the file cannot be opened
+   */
+  public Journal(Path file) {
+    this.file = file;
+    try {
+      this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+              StandardOpenOption.APPEND);
+      this.size = this.channel.size();
+    } catch (IOException e) {
+      throw new IllegalStateException("Error in opening the journal: " + e.getMessage());
+    }
+    this.queue = new LinkedBlockingQueue<>();
+    this.writer = new Thread(this::writeLoop, "journal-writer");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Queues a record to be appended to the journal.
+   * Records are written in the order they are appended.
+   *
+   * @param record the bytes of the record
+   * @return a future completed once the record is forced to disk, or completed exceptionally if
+   *         it could not be written
+   * @throws IllegalStateException if the journal has been closed
+   */
+  public synchronized CompletableFuture<Void> append(byte[] record) {
+    if (this.closed) {
+      throw new IllegalStateException("Journal is closed");
+    }
+    Pending pending = new Pending(record);
+    this.queue.add(pending);
+    return pending.done;
+  }
+
+  /**
+   * Returns the number of bytes written to the journal file so far.
+   *
+   * @return the size of the journal
+   */
+  public long size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the file this journal appends to.
+   *
+   * @return the journal file
+   */
+  public Path file() {
+    return this.file;
+  }
+
+  /**
+   * Stops accepting records, waits for every queued record to be written and closes the file.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      this.queue.add(Pending.CLOSE);
+    }
+    try {
+      this.writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Reads every complete record in the given journal file, in the order they were written.
+   * Reading stops at the first record that is cut short or whose checksum does not match.
+   *
+   * @param file the journal file
+   * @return the records in the journal
+   * @throws IllegalStateException if the file cannot be read
+   */
+  public static List<byte[]> read(Path file) {
+    List<byte[]> records = new ArrayList<>();
+    ByteBuffer in;
+    try {
+      in = ByteBuffer.wrap(Files.readAllBytes(file));
+    } catch (IOException e) {
+      throw new IllegalStateException("Error in reading the journal: " + e.getMessage());
+    }
+    CRC32C crc = new CRC32C();
+    while (in.remaining() >= HEADER_BYTES) {
+      int length = in.getInt();
+      int checksum = in.getInt();
+      if (length < 0 || length > in.remaining()) {
+        break;
+      }
+      byte[] record = new byte[length];
+      in.get(record);
+      crc.reset();
+      crc.update(record);
+      if ((int) crc.getValue() != checksum) {
+        break;
+      }
+      records.add(record);
+    }
+    return records;
+  }
+
+  /**
+   * Writes batches of queued records until the journal is closed.
+   */
+  private void writeLoop() {
+    List<Pending> batch = new ArrayList<>();
+    CRC32C crc = new CRC32C();
+    boolean running = true;
+    while (running) {
+      try {
+        batch.add(this.queue.take());
+      } catch (InterruptedException e) {
+        continue;
+      }
+      this.queue.drainTo(batch);
+      if (batch.remove(Pending.CLOSE)) {
+        running = false;
+      }
+      if (!batch.isEmpty()) {
+        this.writeBatch(batch, crc);
+      }
+      batch.clear();
+    }
+    try {
+      this.channel.close();
+    } catch (IOException e) {
+      //every record has already been forced or failed, so there is nothing left to lose.
+    }
+  }
+
+  /**
+   * Writes a batch of records, forces them to disk once and completes their futures.
+   */
+  private void writeBatch(List<Pending> batch, CRC32C crc) {
+    int total = 0;
+    for (Pending p : batch) {
+      total += HEADER_BYTES + p.record.length;
+    }
+    ByteBuffer out = ByteBuffer.allocate(total);
+    for (Pending p : batch) {
+      crc.reset();
+      crc.update(p.record);
+      out.putInt(p.record.length);
+      out.putInt((int) crc.getValue());
+      out.put(p.record);
+    }
+    out.flip();
+    try {
+      while (out.hasRemaining()) {
+        this.channel.write(out);
+      }
+      this.channel.force(false);
+      this.size += total;
+      for (Pending p : batch) {
+        p.done.complete(null);
+      }
+    } catch (IOException e) {
+      IllegalStateException failure =
+              new IllegalStateException("Error in writing the journal: " + e.getMessage());
+      for (Pending p : batch) {
+        p.done.completeExceptionally(failure);
+      }
+    }
+  }
+
+  /**
+   * A record waiting to be written, and the future completed once it is on disk.
+   */
+  private static final class Pending {
+    private static final Pending CLOSE = new Pending(new byte[0]);
+
+    private final byte[] record;
+    private final CompletableFuture<Void> done;
+
+    private Pending(byte[] record) {
+      this.record = record;
+      this.done = new CompletableFuture<>();
+    }
+  }
+}
@@ -0,0 +1,271 @@
+package cs3500.planner.remote;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+
+import cs3500.planner.model.Location;
+import cs3500.planner.model.NUEvent;
+import cs3500.planner.model.Schedule;
+import cs3500.planner.model.Time;
+import cs3500.planner.model.User;
+
+/**
+ * The binary protocol spoken between a PlannerServer and a RemotePlannerModel.
+ *
+ * <p>A connection starts with each side sending {@link #MAGIC} and {@link #VERSION}. After that
+ * the client sends requests and the server answers each in turn. Every request and response is a
+ * frame: an int giving the length of the rest, a byte holding the operation or status, and the
+ * operation's arguments or result. Framing lets the server skip a request it cannot decode
+ * without losing its place in the stream.
+ *
+ * <p>Users are sent as their ids, times as their start and end minute of the week, and strings
+ * in modified UTF-8. A value that may be missing is preceded by a boolean saying whether it is
+ * there, and a list that may be missing has a length of -1.
+ */
+final class PlannerProtocol {
+  static final int MAGIC = 0x4E555052;
+  static final int VERSION = 1;
+
+  /**
+   * The largest frame either side will accept.
+   */
+  static final int MAX_FRAME = 64 << 20;
+
+  static final byte CREATE_EVENT = 1;
+  static final byte MODIFY_EVENT = 2;
+  static final byte REMOVE_EVENT = 3;
+  static final byte UPLOAD_USER = 4;
+  static final byte ADD_FILE = 5;
+  static final byte RESET_USERS = 6;
+  static final byte FIND_SLOTS = 7;
+  static final byte CHECK_CONFLICT = 8;
+  static final byte USERS_EVENTS = 9;
+  static final byte USERS_IN_SYSTEM = 10;
+  static final byte FIND_USER = 11;
+  static final byte IS_FREE = 12;
+  static final byte FREE_USERS = 13;
+  static final byte ALL_FREE = 14;
+
+  /**
+   * The fewest bytes a time, a user id, an event and a user with their events take up once
+   * written, used to reject list lengths the rest of a frame could not hold.
+   */
+  static final int MIN_TIME_BYTES = 1;
+  static final int MIN_ID_BYTES = 2;
+  static final int MIN_EVENT_BYTES = 17;
+  static final int MIN_USER_BYTES = 6;
+
+  static final byte OK = 0;
+  static final byte ILLEGAL_ARGUMENT = 1;
+  static final byte ILLEGAL_STATE = 2;
+
+  private PlannerProtocol() {
+    //only static helpers.
+  }
+
+  /**
+   * Writes a frame holding the given code and body, and flushes it.
+   *
+   * @param out  the stream to write to
+   * @param code the operation or status
+   * @param body the arguments or result
+   */
+  static void writeFrame(DataOutputStream out, byte code, ByteArrayOutputStream body)
+          throws IOException {
+    out.writeInt(body.size() + 1);
+    out.writeByte(code);
+    body.writeTo(out);
+    out.flush();
+  }
+
+  /**
+   * Reads a frame.
+   *
+   * @param in the stream to read from
+   * @return the frame, starting with its code, or null if the stream ended between frames
+   * @throws IOException if the stream ends inside a frame or the frame is too long
+   */
+  static byte[] readFrame(DataInputStream in) throws IOException {
+    int first = in.read();
+    if (first < 0) {
+      return null;
+    }
+    int length = (first << 24) | (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 8)
+            | in.readUnsignedByte();
+    if (length < 1 || length > MAX_FRAME) {
+      throw new IOException("Bad frame length " + length);
+    }
+    byte[] frame = new byte[length];
+    in.readFully(frame);
+    return frame;
+  }
+
+  /**
+   * Returns a stream reading the body of a frame, after its code.
+   */
+  static DataInputStream body(byte[] frame) {
+    return new DataInputStream(new ByteArrayInputStream(frame, 1, frame.length - 1));
+  }
+
+  /**
+   * Checks the length of a list just read, which the rest of the frame must be able to hold.
+   *
+   * @param count    the length read
+   * @param in       the frame's body, positioned after the length
+   * @param minBytes the fewest bytes each item of the list takes up
+   * @return the length read
+   * @throws IOException if the length is negative, or more items than the bytes left in the
+   *                     frame could hold
+   */
+  static int checkCount(int count, DataInputStream in, int minBytes) throws IOException {
+    if (count < 0 || count > in.available() / minBytes) {
+      throw new IOException("Bad list length " + count);
+    }
+    return count;
+  }
+
+  static void writeString(DataOutputStream out, String s) throws IOException {
+    out.writeBoolean(s != null);
+    if (s != null) {
+      out.writeUTF(s);
+    }
+  }
+
+  static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  static void writeUsers(DataOutputStream out, List<User> users) throws IOException {
+    out.writeInt(users == null ? -1 : users.size());
+    if (users != null) {
+      for (User u : users) {
+        out.writeUTF(u.printName());
+      }
+    }
+  }
+
+  static ArrayList<User> readUsers(DataInputStream in, Function<String, User> resolve)
+          throws IOException {
+    int count = in.readInt();
+    if (count == -1) {
+      return null;
+    }
+    checkCount(count, in, MIN_ID_BYTES);
+    ArrayList<User> users = new ArrayList<>(count);
+    for (int idx = 0; idx < count; idx++) {
+      users.add(resolve.apply(in.readUTF()));
+    }
+    return users;
+  }
+
+  static void writeLocation(DataOutputStream out, Location location) throws IOException {
+    out.writeBoolean(location != null);
+    if (location != null) {
+      out.writeBoolean(location.isOnlineHelp());
+      out.writeUTF(location.locationName());
+    }
+  }
+
+  static Location readLocation(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    boolean online = in.readBoolean();
+    return new Location(online, in.readUTF());
+  }
+
+  static void writeTime(DataOutputStream out, Time time) throws IOException {
+    out.writeBoolean(time != null);
+    if (time != null) {
+      out.writeShort(time.startMinute());
+      out.writeShort(time.endMinute());
+    }
+  }
+
+  static Time readTime(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    return new Time(in.readShort(), in.readShort());
+  }
+
+  static void writeEvent(DataOutputStream out, NUEvent e) throws IOException {
+    out.writeUTF(e.eventId());
+    out.writeUTF(e.eventName());
+    out.writeUTF(e.hostName());
+    out.writeBoolean(e.isOnline());
+    out.writeUTF(e.locationName());
+    out.writeShort(e.startMinute());
+    out.writeShort(e.endMinute());
+    List<String> invitees = e.inviteeIds();
+    out.writeInt(invitees.size());
+    for (String uId : invitees) {
+      out.writeUTF(uId);
+    }
+  }
+
+  static NUEvent readEvent(DataInputStream in, Function<String, User> resolve)
+          throws IOException {
+    String id = in.readUTF();
+    String name = in.readUTF();
+    User host = resolve.apply(in.readUTF());
+    boolean online = in.readBoolean();
+    Location location = new Location(online, in.readUTF());
+    Time time = new Time(in.readShort(), in.readShort());
+    int count = checkCount(in.readInt(), in, MIN_ID_BYTES);
+    ArrayList<User> invitees = new ArrayList<>(count);
+    for (int idx = 0; idx < count; idx++) {
+      invitees.add(resolve.apply(in.readUTF()));
+    }
+    return new NUEvent(id, name, invitees, location, time, host);
+  }
+
+  static void writeEvents(DataOutputStream out, List<NUEvent> events) throws IOException {
+    out.writeInt(events.size());
+    for (NUEvent e : events) {
+      writeEvent(out, e);
+    }
+  }
+
+  static ArrayList<NUEvent> readEvents(DataInputStream in, Function<String, User> resolve)
+          throws IOException {
+    int count = checkCount(in.readInt(), in, MIN_EVENT_BYTES);
+    ArrayList<NUEvent> events = new ArrayList<>(count);
+    for (int idx = 0; idx < count; idx++) {
+      events.add(readEvent(in, resolve));
+    }
+    return events;
+  }
+
+  /**
+   * Writes a user along with every event in their schedule.
+   */
+  static void writeUser(DataOutputStream out, User u) throws IOException {
+    out.writeUTF(u.printName());
+    writeEvents(out, u.userSchedule().eventsInSchedule());
+  }
+
+  /**
+   * Reads a user written by writeUser, whose events refer to other users by placeholders.
+   */
+  static User readUser(DataInputStream in, Function<String, User> resolve) throws IOException {
+    String uId = in.readUTF();
+    return new User(uId, new Schedule(uId, readEvents(in, resolve)));
+  }
+
+  /**
+   * Returns a function making placeholder users that only carry an id, making each one once.
+   */
+  static Function<String, User> placeholders() {
+    HashMap<String, User> made = new HashMap<>();
+    return uId -> made.computeIfAbsent(uId, key -> new User(key, new Schedule(key,
+            new ArrayList<>())));
+  }
+}
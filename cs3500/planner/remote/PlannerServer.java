@@ -0,0 +1,308 @@
+package cs3500.planner.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import cs3500.planner.model.Location;
+import cs3500.planner.model.NUEvent;
+import cs3500.planner.model.NUPlannerModel;
+import cs3500.planner.model.Time;
+import cs3500.planner.model.User;
+
+/**
+ * Serves a planner model over TCP using the PlannerProtocol, so Swing views and other clients in
+ * other processes can share one planner through a RemotePlannerModel.
+ * Each connection is served by its own thread, which answers that client's requests in order.
+ * The model must be safe to use from many threads at once, as CentralSystem and the planners
+ * wrapping it are. Users in requests are passed to the model as placeholders carrying only their
+ * ids, which the model looks up itself.
+ *
+ * <p>Only the IllegalArgumentException and IllegalStateException a model throws to reject a call
+ * are sent back to the client, along with an IllegalArgumentException for a request that cannot
+ * be decoded. Any other exception drops the connection and is left to the connection thread's
+ * uncaught exception handler, rather than being passed off to the client as a rejection.
+ */
+public final class PlannerServer implements AutoCloseable {
+  private final NUPlannerModel model;
+  private final ServerSocket socket;
+  private final ExecutorService connections;
+  private final Set<Socket> open;
+  //INVARIANT: open holds every client socket not yet closed.
+  private final Thread acceptor;
+
+  /**
+   * Starts serving the given model on the given port of the loopback interface.
+   *
+   * @param model the model to serve
+   * @param port  the port to listen on, or 0 for any free port
+   * @throws IllegalStateException if the port cannot be bound
+   */
+  public PlannerServer(NUPlannerModel model, int port) {
+    this(model, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+  }
+
+  /**
+   * Starts serving the given model on the given address.
+   *
+   * @param model   the model to serve
+   * @param address the address to listen on
+   * @throws IllegalArgumentException if model or address is null
+   * @throws IllegalStateException if the address cannot be bound
+   */
+  public PlannerServer(NUPlannerModel model, InetSocketAddress address) {
+    if (model == null || address == null) {
+      throw new IllegalArgumentException("Model and address cannot be null");
+    }
+    this.model = model;
+    try {
+      this.socket = new ServerSocket();
+      this.socket.bind(address);
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot listen on " + address, e);
+    }
+    this.open = ConcurrentHashMap.newKeySet();
+    this.connections = Executors.newCachedThreadPool(r -> {
+      Thread t = new Thread(r, "planner-connection");
+      t.setDaemon(true);
+      return t;
+    });
+    this.acceptor = new Thread(this::accept, "planner-acceptor");
+    this.acceptor.start();
+  }
+
+  /**
+   * Returns the port this server is listening on.
+   *
+   * @return the local port
+   */
+  public int port() {
+    return this.socket.getLocalPort();
+  }
+
+  /**
+   * Waits until the server is closed.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void join() throws InterruptedException {
+    this.acceptor.join();
+  }
+
+  /**
+   * Stops accepting connections and closes every open connection.
+   */
+  @Override
+  public void close() {
+    try {
+      this.socket.close();
+    } catch (IOException e) {
+      //nothing more can be done with a socket that will not close.
+    }
+    for (Socket s : this.open) {
+      try {
+        s.close();
+      } catch (IOException e) {
+        //the connection is being dropped anyway.
+      }
+    }
+    this.connections.shutdown();
+  }
+
+  /**
+   * Accepts connections until the server socket is closed, serving each on its own thread.
+   */
+  private void accept() {
+    while (!this.socket.isClosed()) {
+      Socket client;
+      try {
+        client = this.socket.accept();
+      } catch (IOException e) {
+        return;
+      }
+      this.open.add(client);
+      try {
+        this.connections.execute(() -> this.serve(client));
+      } catch (RuntimeException e) {
+        this.open.remove(client);
+        try {
+          client.close();
+        } catch (IOException ignored) {
+          //the server is shutting down.
+        }
+      }
+    }
+  }
+
+  /**
+   * Answers one client's requests until it disconnects, breaks the protocol, or a request fails
+   * with something other than an IllegalArgumentException or IllegalStateException.
+   */
+  private void serve(Socket client) {
+    try (client) {
+      client.setTcpNoDelay(true);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+      DataOutputStream out = new DataOutputStream(
+              new BufferedOutputStream(client.getOutputStream()));
+      out.writeInt(PlannerProtocol.MAGIC);
+      out.writeInt(PlannerProtocol.VERSION);
+      out.flush();
+      if (in.readInt() != PlannerProtocol.MAGIC || in.readInt() != PlannerProtocol.VERSION) {
+        return;
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      while (true) {
+        byte[] frame = PlannerProtocol.readFrame(in);
+        if (frame == null) {
+          return;
+        }
+        bytes.reset();
+        byte status;
+        try {
+          this.handle(frame[0], PlannerProtocol.body(frame), new DataOutputStream(bytes));
+          status = PlannerProtocol.OK;
+        } catch (IllegalArgumentException e) {
+          status = PlannerProtocol.ILLEGAL_ARGUMENT;
+          failure(bytes, e);
+        } catch (IOException e) {
+          status = PlannerProtocol.ILLEGAL_ARGUMENT;
+          failure(bytes, new IllegalArgumentException("Malformed request: " + e));
+        } catch (IllegalStateException e) {
+          status = PlannerProtocol.ILLEGAL_STATE;
+          failure(bytes, e);
+        }
+        PlannerProtocol.writeFrame(out, status, bytes);
+      }
+    } catch (SocketException e) {
+      //the client went away, or the server was closed.
+    } catch (IOException e) {
+      //a client that breaks the protocol is dropped.
+    } finally {
+      this.open.remove(client);
+    }
+  }
+
+  /**
+   * Replaces a partly written result with the message of what went wrong.
+   */
+  private static void failure(ByteArrayOutputStream bytes, Exception e) throws IOException {
+    bytes.reset();
+    PlannerProtocol.writeString(new DataOutputStream(bytes), e.getMessage());
+  }
+
+  /**
+   * Decodes one request, applies it to the model, and writes its result.
+   *
+   * @param op  the operation requested
+   * @param in  the request's arguments
+   * @param out where to write the result
+   * @throws IllegalArgumentException if the operation is unknown, or the model rejects it
+   * @throws IllegalStateException if the model cannot carry it out
+   * @throws IOException if the arguments are cut short
+   */
+  private void handle(byte op, DataInputStream in, DataOutputStream out) throws IOException {
+    Function<String, User> resolve = PlannerProtocol.placeholders();
+    switch (op) {
+      case PlannerProtocol.CREATE_EVENT: {
+        String name = in.readUTF();
+        ArrayList<User> invitees = PlannerProtocol.readUsers(in, resolve);
+        Location location = PlannerProtocol.readLocation(in);
+        Time time = PlannerProtocol.readTime(in);
+        User host = resolve.apply(in.readUTF());
+        this.model.createEvent(name, invitees, location, time, host);
+        break;
+      }
+      case PlannerProtocol.MODIFY_EVENT: {
+        String name = in.readUTF();
+        String editedName = PlannerProtocol.readString(in);
+        ArrayList<User> invitees = PlannerProtocol.readUsers(in, resolve);
+        Location location = PlannerProtocol.readLocation(in);
+        Time time = PlannerProtocol.readTime(in);
+        this.model.modifyEvent(name, editedName, invitees, location, time);
+        break;
+      }
+      case PlannerProtocol.REMOVE_EVENT: {
+        NUEvent e = PlannerProtocol.readEvent(in, resolve);
+        this.model.removeEvent(e, resolve.apply(in.readUTF()));
+        break;
+      }
+      case PlannerProtocol.UPLOAD_USER:
+        this.model.uploadUser();
+        break;
+      case PlannerProtocol.ADD_FILE:
+        this.model.addFile(new File(in.readUTF()));
+        break;
+      case PlannerProtocol.RESET_USERS:
+        this.model.resetUsers();
+        break;
+      case PlannerProtocol.FIND_SLOTS: {
+        int duration = in.readInt();
+        ArrayList<User> invitees = PlannerProtocol.readUsers(in, resolve);
+        Time window = PlannerProtocol.readTime(in);
+        int maxResults = in.readInt();
+        ArrayList<Time> slots = this.model.findSlots(duration, invitees, window, maxResults);
+        out.writeInt(slots.size());
+        for (Time t : slots) {
+          PlannerProtocol.writeTime(out, t);
+        }
+        break;
+      }
+      case PlannerProtocol.CHECK_CONFLICT: {
+        NUEvent e = PlannerProtocol.readEvent(in, resolve);
+        out.writeBoolean(this.model.checkForTimeConflict(e, resolve.apply(in.readUTF())));
+        break;
+      }
+      case PlannerProtocol.USERS_EVENTS:
+        PlannerProtocol.writeEvents(out, this.model.usersEvents(resolve.apply(in.readUTF())));
+        break;
+      case PlannerProtocol.USERS_IN_SYSTEM: {
+        ArrayList<User> users = this.model.usersInSystem();
+        out.writeInt(users.size());
+        for (User u : users) {
+          PlannerProtocol.writeUser(out, u);
+        }
+        break;
+      }
+      case PlannerProtocol.FIND_USER: {
+        User u = this.model.findUser(in.readUTF());
+        out.writeBoolean(u != null);
+        if (u != null) {
+          PlannerProtocol.writeUser(out, u);
+        }
+        break;
+      }
+      case PlannerProtocol.IS_FREE: {
+        User u = resolve.apply(in.readUTF());
+        out.writeBoolean(this.model.isFree(u, in.readInt(), in.readInt()));
+        break;
+      }
+      case PlannerProtocol.FREE_USERS: {
+        ArrayList<User> group = PlannerProtocol.readUsers(in, resolve);
+        PlannerProtocol.writeUsers(out, this.model.freeUsers(group, in.readInt(), in.readInt()));
+        break;
+      }
+      case PlannerProtocol.ALL_FREE: {
+        ArrayList<User> group = PlannerProtocol.readUsers(in, resolve);
+        out.writeBoolean(this.model.allFree(group, in.readInt(), in.readInt()));
+        break;
+      }
+      default:
+        throw new IllegalArgumentException("Unknown operation " + op);
+    }
+  }
+}
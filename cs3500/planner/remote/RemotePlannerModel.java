@@ -0,0 +1,342 @@
+package cs3500.planner.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import cs3500.planner.model.Location;
+import cs3500.planner.model.NUEvent;
+import cs3500.planner.model.NUPlannerModel;
+import cs3500.planner.model.PlannerChange;
+import cs3500.planner.model.PlannerListener;
+import cs3500.planner.model.Time;
+import cs3500.planner.model.User;
+
+/**
+ * A planner model whose every operation is answered by a PlannerServer, so a view can run
+ * against a planner in another process.
+ * Calls are sent over one connection and wait for their answer, so a model is best used by one
+ * thread at a time, and a client wanting more calls in flight opens more models. An
+ * IllegalArgumentException or IllegalStateException thrown by the server's model is thrown again
+ * here with the same type and message. Any other failure on the server drops the connection,
+ * which is reported here, like every lost connection, as an IllegalStateException.
+ * Users and events handed back are copies, where users named by an event are placeholders
+ * carrying only their id.
+ * Listeners only hear of changes made through this model, and each change is reported as a
+ * reset of the whole planner, since the server does not say what a change did.
+ */
+public final class RemotePlannerModel implements NUPlannerModel, AutoCloseable {
+  private final Socket socket;
+  private final DataInputStream in;
+  private final DataOutputStream out;
+  private final ByteArrayOutputStream request;
+  //INVARIANT: in, out and request are only used while holding this model's monitor.
+  private final CopyOnWriteArrayList<PlannerListener> listeners;
+
+  /**
+   * Connects to the planner server at the given host and port.
+   *
+   * @param host the host the server is on
+   * @param port the port the server is listening on
+   * @throws IllegalStateException if the server cannot be reached or does not speak the protocol
+   */
+  public RemotePlannerModel(String host, int port) {
+    this.socket = new Socket();
+    try {
+      this.socket.connect(new InetSocketAddress(host, port));
+      this.socket.setTcpNoDelay(true);
+      this.in = new DataInputStream(new BufferedInputStream(this.socket.getInputStream()));
+      this.out = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
+      this.out.writeInt(PlannerProtocol.MAGIC);
+      this.out.writeInt(PlannerProtocol.VERSION);
+      this.out.flush();
+      if (this.in.readInt() != PlannerProtocol.MAGIC
+              || this.in.readInt() != PlannerProtocol.VERSION) {
+        throw new IOException("Not a planner server");
+      }
+    } catch (IOException e) {
+      this.close();
+      throw new IllegalStateException("Cannot connect to planner at " + host + ":" + port, e);
+    }
+    this.request = new ByteArrayOutputStream();
+    this.listeners = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Writes the arguments of a request.
+   */
+  private interface Arguments {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  /**
+   * Sends a request and waits for its answer.
+   *
+   * @param op   the operation
+   * @param args writes the operation's arguments
+   * @return the result of the operation
+   * @throws IllegalArgumentException if the server's model rejected the arguments
+   * @throws IllegalStateException if the server's model could not carry out the call, or the
+   *                               connection was lost
+   */
+  private synchronized DataInputStream call(byte op, Arguments args) {
+    byte[] frame;
+    try {
+      this.request.reset();
+      args.write(new DataOutputStream(this.request));
+      PlannerProtocol.writeFrame(this.out, op, this.request);
+      frame = PlannerProtocol.readFrame(this.in);
+      if (frame == null) {
+        throw new IOException("Server closed the connection");
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Lost connection to planner server", e);
+    }
+    DataInputStream result = PlannerProtocol.body(frame);
+    if (frame[0] == PlannerProtocol.OK) {
+      return result;
+    }
+    String message;
+    try {
+      message = PlannerProtocol.readString(result);
+    } catch (IOException e) {
+      message = null;
+    }
+    if (frame[0] == PlannerProtocol.ILLEGAL_ARGUMENT) {
+      throw new IllegalArgumentException(message);
+    }
+    throw new IllegalStateException(message);
+  }
+
+  /**
+   * Reads a result, treating a result cut short as a broken connection.
+   */
+  private interface Result<T> {
+    T read(DataInputStream in) throws IOException;
+  }
+
+  /**
+   * Reads the result of a call that succeeded.
+   *
+   * @throws IllegalStateException if the result is cut short
+   */
+  private static <T> T read(DataInputStream in, Result<T> result) {
+    try {
+      return result.read(in);
+    } catch (IOException e) {
+      throw new IllegalStateException("Malformed answer from planner server", e);
+    }
+  }
+
+  @Override
+  public void createEvent(String name, ArrayList<User> invitees, Location location, Time time,
+                          User host) {
+    this.call(PlannerProtocol.CREATE_EVENT, out -> {
+      out.writeUTF(name);
+      PlannerProtocol.writeUsers(out, invitees);
+      PlannerProtocol.writeLocation(out, location);
+      PlannerProtocol.writeTime(out, time);
+      out.writeUTF(host.printName());
+    });
+    this.changed();
+  }
+
+  @Override
+  public void modifyEvent(String name, String editedName, ArrayList<User> invitees,
+                          Location location, Time time) {
+    this.call(PlannerProtocol.MODIFY_EVENT, out -> {
+      out.writeUTF(name);
+      PlannerProtocol.writeString(out, editedName);
+      PlannerProtocol.writeUsers(out, invitees);
+      PlannerProtocol.writeLocation(out, location);
+      PlannerProtocol.writeTime(out, time);
+    });
+    this.changed();
+  }
+
+  @Override
+  public void removeEvent(NUEvent e, User u) {
+    this.call(PlannerProtocol.REMOVE_EVENT, out -> {
+      PlannerProtocol.writeEvent(out, e);
+      out.writeUTF(u.printName());
+    });
+    this.changed();
+  }
+
+  @Override
+  public void uploadUser() {
+    this.call(PlannerProtocol.UPLOAD_USER, out -> {
+    });
+    this.changed();
+  }
+
+  /**
+   * Adds a file to the server's planner. The path is read on the server's machine.
+   */
+  @Override
+  public void addFile(File selectedFile) {
+    this.call(PlannerProtocol.ADD_FILE, out -> out.writeUTF(selectedFile.getAbsolutePath()));
+    this.changed();
+  }
+
+  @Override
+  public void resetUsers() {
+    this.call(PlannerProtocol.RESET_USERS, out -> {
+    });
+    this.changed();
+  }
+
+  @Override
+  public ArrayList<Time> findSlots(int duration, ArrayList<User> invitees, Time window,
+                                  int maxResults) {
+    DataInputStream result = this.call(PlannerProtocol.FIND_SLOTS, out -> {
+      out.writeInt(duration);
+      PlannerProtocol.writeUsers(out, invitees);
+      PlannerProtocol.writeTime(out, window);
+      out.writeInt(maxResults);
+    });
+    return read(result, in -> {
+      int count = PlannerProtocol.checkCount(in.readInt(), in,
+              PlannerProtocol.MIN_TIME_BYTES);
+      ArrayList<Time> slots = new ArrayList<>(count);
+      for (int idx = 0; idx < count; idx++) {
+        slots.add(PlannerProtocol.readTime(in));
+      }
+      return slots;
+    });
+  }
+
+  @Override
+  public boolean checkForTimeConflict(NUEvent event, User user) {
+    DataInputStream result = this.call(PlannerProtocol.CHECK_CONFLICT, out -> {
+      PlannerProtocol.writeEvent(out, event);
+      out.writeUTF(user.printName());
+    });
+    return read(result, DataInputStream::readBoolean);
+  }
+
+  @Override
+  public ArrayList<NUEvent> usersEvents(User user) {
+    DataInputStream result = this.call(PlannerProtocol.USERS_EVENTS,
+        out -> out.writeUTF(user.printName()));
+    return read(result, in -> PlannerProtocol.readEvents(in, PlannerProtocol.placeholders()));
+  }
+
+  @Override
+  public ArrayList<User> usersInSystem() {
+    DataInputStream result = this.call(PlannerProtocol.USERS_IN_SYSTEM, out -> {
+    });
+    return read(result, in -> {
+      Function<String, User> resolve = PlannerProtocol.placeholders();
+      int count = PlannerProtocol.checkCount(in.readInt(), in,
+              PlannerProtocol.MIN_USER_BYTES);
+      ArrayList<User> users = new ArrayList<>(count);
+      for (int idx = 0; idx < count; idx++) {
+        users.add(PlannerProtocol.readUser(in, resolve));
+      }
+      return users;
+    });
+  }
+
+  @Override
+  public User findUser(String uId) {
+    DataInputStream result = this.call(PlannerProtocol.FIND_USER, out -> out.writeUTF(uId));
+    return read(result, in -> in.readBoolean()
+            ? PlannerProtocol.readUser(in, PlannerProtocol.placeholders()) : null);
+  }
+
+  @Override
+  public boolean isFree(User user, int start, int end) {
+    DataInputStream result = this.call(PlannerProtocol.IS_FREE, out -> {
+      out.writeUTF(user.printName());
+      out.writeInt(start);
+      out.writeInt(end);
+    });
+    return read(result, DataInputStream::readBoolean);
+  }
+
+  /**
+   * Returns the free users among the given group, as the given user objects.
+   */
+  @Override
+  public ArrayList<User> freeUsers(ArrayList<User> group, int start, int end) {
+    DataInputStream result = this.call(PlannerProtocol.FREE_USERS, out -> {
+      PlannerProtocol.writeUsers(out, group);
+      out.writeInt(start);
+      out.writeInt(end);
+    });
+    HashSet<String> freeIds = new HashSet<>();
+    read(result, in -> PlannerProtocol.readUsers(in, uId -> {
+      freeIds.add(uId);
+      return null;
+    }));
+    ArrayList<User> free = new ArrayList<>();
+    for (User u : group) {
+      if (freeIds.contains(u.printName())) {
+        free.add(u);
+      }
+    }
+    return free;
+  }
+
+  @Override
+  public boolean allFree(ArrayList<User> group, int start, int end) {
+    DataInputStream result = this.call(PlannerProtocol.ALL_FREE, out -> {
+      PlannerProtocol.writeUsers(out, group);
+      out.writeInt(start);
+      out.writeInt(end);
+    });
+    return read(result, DataInputStream::readBoolean);
+  }
+
+  @Override
+  public void addListener(PlannerListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    this.listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(PlannerListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  /**
+   * Tells every listener the planner may have changed after a change made through this model.
+   */
+  private void changed() {
+    List<PlannerChange> reset = List.of(new PlannerChange(PlannerChange.Kind.USERS_RESET, null,
+            List.of(), List.of()));
+    for (PlannerListener l : this.listeners) {
+      try {
+        l.plannerChanged(reset);
+      } catch (RuntimeException e) {
+        //the change is already made, and other listeners still need to hear of it.
+      }
+    }
+  }
+
+  /**
+   * Closes the connection to the server.
+   */
+  @Override
+  public void close() {
+    try {
+      this.socket.close();
+    } catch (IOException e) {
+      //the connection is being dropped anyway.
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package cs3500.planner.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.Timer;
+
+import cs3500.planner.model.PlannerChange;
+import cs3500.planner.model.PlannerListener;
+
+/**
+ * Gathers the changes a planner reports on any thread and hands them to a view on the event
+ * dispatch thread, at most once a frame. However many changes are made within a frame, the view
+ * updates once, with all of them in the order they were made.
+ */
+final class FrameCoalescer implements PlannerListener {
+  static final int FRAME_MILLIS = 16;
+  private final PlannerListener target;
+  private final Timer timer;
+  private final Object lock;
+  private ArrayList<PlannerChange> pending;
+  private boolean stopped;
+  //INVARIANT: pending and stopped are only used while holding lock, and unless stopped, the
+  //timer is running whenever pending is not empty.
+
+  /**
+   * Creates a coalescer handing changes to the given view.
+   *
+   * @param target the view to tell of changes, on the event dispatch thread
+   */
+  FrameCoalescer(PlannerListener target) {
+    this.target = target;
+    this.lock = new Object();
+    this.pending = new ArrayList<>();
+    this.timer = new Timer(FRAME_MILLIS, e -> this.flush());
+    this.timer.setRepeats(false);
+  }
+
+  @Override
+  public void plannerChanged(List<PlannerChange> changes) {
+    boolean first;
+    synchronized (this.lock) {
+      if (this.stopped) {
+        return;
+      }
+      first = this.pending.isEmpty();
+      this.pending.addAll(changes);
+    }
+    if (first) {
+      this.timer.start();
+    }
+  }
+
+  /**
+   * Hands every change gathered so far to the view.
+   */
+  private void flush() {
+    List<PlannerChange> batch;
+    synchronized (this.lock) {
+      batch = this.pending;
+      this.pending = new ArrayList<>();
+    }
+    if (!batch.isEmpty()) {
+      this.target.plannerChanged(batch);
+    }
+  }
+
+  /**
+   * Drops any changes not yet handed over and stops handing them over.
+   */
+  void stop() {
+    synchronized (this.lock) {
+      this.stopped = true;
+      this.pending.clear();
+    }
+    this.timer.stop();
+  }
+}
@@ -6,20 +6,24 @@ import java.awt.Component;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
 import javax.swing.JList;
+import javax.swing.ListModel;
 import javax.swing.JTextField;
 import javax.swing.JPanel;
 import javax.swing.BoxLayout;
 import javax.swing.Box;
+import javax.swing.event.ListSelectionListener;
 
 import cs3500.planner.model.NUEvent;
 import cs3500.planner.model.ReadOnlyPlannerModel;
 import cs3500.planner.model.Schedule;
+import cs3500.planner.model.Time;
 import cs3500.planner.model.User;
 
 /**
@@ -39,7 +43,7 @@ public class NUEventFrame extends JFrame implements NUEventFrameView {
   private JComboBox<String> online;
   private JComboBox<String> startDayDropDown;
   private JComboBox<String> endDayDropDown;
-  private JList users;
+  private JList<String> users;
   private JTextField eventText;
   private JTextField locationText;
   private JTextField startTimeText;
@@ -54,6 +58,7 @@ public class NUEventFrame extends JFrame implements NUEventFrameView {
   private JPanel buttonPanel;
   private final ReadOnlyPlannerModel model;
   private final User user;
+  private final ListModel<String> userIds;
 
   /**
    * Creates an NUEventFrame initializing the frame with all the relevant labels, buttons,
@@ -63,6 +68,7 @@ public class NUEventFrame extends JFrame implements NUEventFrameView {
     super();
     this.model = model;
     this.user = new User("", new Schedule("", new ArrayList<>()));
+    this.userIds = null;
     setSize(400, 500);
     setDefaultCloseOperation(DISPOSE_ON_CLOSE);
     setResizable(false);
@@ -96,9 +102,22 @@ public class NUEventFrame extends JFrame implements NUEventFrameView {
    * @param user the currently selected user.
    */
   public NUEventFrame(ReadOnlyPlannerModel model, User user) {
+    this(model, user, null);
+  }
+
+  /**
+   * Constructor to create an event frame with a model, a user and the ids of the users in the
+   * system as a view already keeps them, so the frame does not have to read every user from
+   * the model and its list follows users added while it is open.
+   * @param model the model to base the planner off of.
+   * @param user the currently selected user.
+   * @param userIds the ids of the users in the system, or null to read them from the model.
+   */
+  public NUEventFrame(ReadOnlyPlannerModel model, User user, ListModel<String> userIds) {
     super();
     this.model = model;
     this.user = user;
+    this.userIds = userIds;
     setSize(400, 500);
     setDefaultCloseOperation(DISPOSE_ON_CLOSE);
     setResizable(false);
@@ -169,9 +188,14 @@ public class NUEventFrame extends JFrame implements NUEventFrameView {
    * Initializes the list of JList users to include only users uploaded to the model.
    */
   private void initializeUsers() {
-    String[] usersList = new String[model.usersInSystem().size()];
+    if (this.userIds != null) {
+      this.users = new JList<>(this.userIds);
+      return;
+    }
+    ArrayList<User> usersInSystem = model.usersInSystem();
+    String[] usersList = new String[usersInSystem.size()];
     for (int index = 0; index < usersList.length; index++) {
-      usersList[index] = model.usersInSystem().get(index).printName();
+      usersList[index] = usersInSystem.get(index).printName();
     }
     this.users = new JList<>(usersList);
   }
@@ -339,4 +363,32 @@ public class NUEventFrame extends JFrame implements NUEventFrameView {
     this.endTimeText.setText(e.endTimeText());
     this.initializeUsers();
   }
+
+  /**
+   * Tells the given listener whenever the users chosen to invite in this frame change.
+   * @param listener the listener to tell.
+   */
+  public void addInviteeListener(ListSelectionListener listener) {
+    this.users.addListSelectionListener(listener);
+  }
+
+  /**
+   * Returns the ids of the users chosen to invite in this frame.
+   * @return the chosen users' ids, in the order they are listed.
+   */
+  public List<String> chosenInvitees() {
+    return this.users.getSelectedValuesList();
+  }
+
+  /**
+   * Fills the day and time fields of the event frame with the given time.
+   * Used to suggest a time when the client asks the planner to schedule an event.
+   * @param time the time to show in the frame.
+   */
+  public void fillTime(Time time) {
+    this.startDayDropDown.setSelectedIndex(time.startDayIndexHelp());
+    this.endDayDropDown.setSelectedIndex(time.endDayIndexHelp());
+    this.startTimeText.setText(time.startClockText());
+    this.endTimeText.setText(time.endClockText());
+  }
 }
\ No newline at end of file
@@ -4,7 +4,11 @@ import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.JFrame;
 import javax.swing.JButton;
@@ -12,19 +16,31 @@ import javax.swing.JPanel;
 import javax.swing.JComboBox;
 import javax.swing.BoxLayout;
 import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
 
-import cs3500.planner.xmlbehavior.XMLHelper;
-import cs3500.planner.model.CentralSystem;
+import cs3500.planner.xmlbehavior.ScheduleWriter;
 import cs3500.planner.model.NUPlannerModel;
+import cs3500.planner.model.PlannerChange;
+import cs3500.planner.model.PlannerListener;
+import cs3500.planner.model.Time;
 import cs3500.planner.model.User;
 
 /**
  * Class to represent what the NUPlanner's frame is capable of,
  * visualizes a planner system.
+ * The frame follows the model's changes once a frame, adding users to its drop down as they
+ * arrive and repainting only the parts of the planner that changed.
  */
-public class NUPlannerFrame extends JFrame implements NUPlannerFrameView {
+public class NUPlannerFrame extends JFrame implements NUPlannerFrameView, PlannerListener {
+  private static final int SCHEDULED_EVENT_MINUTES = 60;
   private JButton addCalendar;
   private JButton saveCalendar;
+  private JButton cancelLoad;
+  private JProgressBar loadProgress;
   private JButton createEvent;
   private JButton scheduleEvent;
   private JPanel calendarPanel;
@@ -32,7 +48,10 @@ public class NUPlannerFrame extends JFrame implements NUPlannerFrameView {
   private JComboBox<String> users;
   private final NUPlannerPanel plannerPanel;
   private final NUPlannerModel model;
-  private final XMLHelper xmlHelper;
+  private final HashSet<String> listedUsers;
+  private final FrameCoalescer changes;
+  private CalendarLoad loading;
+  //INVARIANT: loading is null, or the most recent load, which is the only one not yet done.
 
   /**
    * Creates an NUPlannerFrame and initializes the buttons and grid.
@@ -40,13 +59,13 @@ public class NUPlannerFrame extends JFrame implements NUPlannerFrameView {
   public NUPlannerFrame(NUPlannerModel model) {
     super();
     this.model = model;
-    this.xmlHelper = new XMLHelper();
+    this.listedUsers = new HashSet<>();
     setSize(800, 800);
     setDefaultCloseOperation(DISPOSE_ON_CLOSE);
     createCalendarPanel();
     //createPlannerPanel();
     createEventPanel();
-    plannerPanel = new NUPlannerPanel(this.model);
+    plannerPanel = new NUPlannerPanel(this.model, this.users.getModel());
     plannerPanel.setPreferredSize(new Dimension(700, 700));
     this.setResizable(false);
 
@@ -58,6 +77,8 @@ public class NUPlannerFrame extends JFrame implements NUPlannerFrameView {
 
     this.add(mainPanel);
     this.setListeners(this);
+    this.changes = new FrameCoalescer(this);
+    this.model.addListener(this.changes);
     makeVisible();
   }
 
@@ -79,6 +100,18 @@ public class NUPlannerFrame extends JFrame implements NUPlannerFrameView {
     saveCalendar.setPreferredSize(new Dimension(200, 30));
     saveCalendar.setActionCommand("Save Calendar");
     eventPanel.add(saveCalendar);
+
+    loadProgress = new JProgressBar(0, 100);
+    loadProgress.setPreferredSize(new Dimension(200, 30));
+    loadProgress.setStringPainted(true);
+    loadProgress.setVisible(false);
+    eventPanel.add(loadProgress);
+
+    cancelLoad = new JButton("Cancel");
+    cancelLoad.setPreferredSize(new Dimension(100, 30));
+    cancelLoad.setActionCommand("Cancel Load");
+    cancelLoad.setVisible(false);
+    eventPanel.add(cancelLoad);
   }
 
   /**
@@ -114,6 +147,7 @@ public class NUPlannerFrame extends JFrame implements NUPlannerFrameView {
     this.scheduleEvent.addActionListener(clicks);
     this.addCalendar.addActionListener(clicks);
     this.saveCalendar.addActionListener(clicks);
+    this.cancelLoad.addActionListener(clicks);
     this.users.addActionListener(clicks);
   }
 
@@ -138,34 +172,51 @@ public class NUPlannerFrame extends JFrame implements NUPlannerFrameView {
     switch (e.getActionCommand()) {
       case "Create Event":
         //Opens the Event Frame.
-        NUEventFrame eventFrame = new NUEventFrame(model, this.plannerPanel.scheduleOwner());
+        NUEventFrame eventFrame = new NUEventFrame(model, this.plannerPanel.scheduleOwner(),
+                this.users.getModel());
         eventFrame.setVisible(true);
         eventFrame.setLocationRelativeTo(this);
         break;
 
       case "Add Calendar":
+        if (this.loading != null && !this.loading.isDone()) {
+          break;
+        }
         JFileChooser fileChooser = new JFileChooser();
-        fileChooser.showOpenDialog(this);
-        fileChooser.setVisible(true);
-        System.out.println("Path: " + fileChooser.getSelectedFile().getAbsoluteFile());
-
-        User u = this.xmlHelper.readXML(fileChooser.getSelectedFile());
-        this.model.addFile(fileChooser.getSelectedFile());
-        this.model.resetUsers();
-        this.model.uploadUser();
-        this.users.addItem(u.printName());
-        this.plannerPanel.changeUser(this.convertToUser(users.getSelectedItem().toString()));
+        fileChooser.setMultiSelectionEnabled(true);
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION
+                || fileChooser.getSelectedFiles().length == 0) {
+          break;
+        }
+        //Only the chosen files are parsed and merged into the model, off the event thread.
+        this.startLoad(fileChooser.getSelectedFiles());
+        break;
+
+      case "Cancel Load":
+        if (this.loading != null) {
+          this.loading.cancel(true);
+        }
         break;
 
       case "Switch User":
+        if (users.getSelectedItem() == null) {
+          break;
+        }
         String userName = users.getSelectedItem().toString();
         this.plannerPanel.changeUser(this.convertToUser(userName));
         this.displayEvents(this.convertToUser(userName));
         break;
 
       case "Schedule Event":
-        //Opens the Event Frame.
-        NUEventFrame eventFrame2 = new NUEventFrame(new CentralSystem());
+        //Opens the Event Frame, then fills in the earliest time the current user and everyone
+        //they invite are free, searching off the event thread each time the invitees change.
+        User owner = this.plannerPanel.scheduleOwner();
+        NUEventFrame eventFrame2 = new NUEventFrame(model, owner, this.users.getModel());
+        if (owner != null && !owner.printName().isEmpty()) {
+          SlotSuggester suggester = new SlotSuggester(eventFrame2, owner.printName());
+          eventFrame2.addInviteeListener(suggester);
+          suggester.suggest();
+        }
         eventFrame2.setVisible(true);
         eventFrame2.setLocationRelativeTo(this);
         break;
@@ -173,9 +224,13 @@ public class NUPlannerFrame extends JFrame implements NUPlannerFrameView {
       case "Save Calendar":
         JFileChooser fileChooser2 = new JFileChooser();
         fileChooser2.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
-        fileChooser2.showOpenDialog(this);
-        fileChooser2.setVisible(true);
-        System.out.println(fileChooser2.getSelectedFile().toString());
+        if (fileChooser2.showOpenDialog(this) != JFileChooser.APPROVE_OPTION
+                || fileChooser2.getSelectedFile() == null) {
+          break;
+        }
+        //Saves every user's schedule into the chosen directory, off the event thread.
+        this.saveCalendar.setEnabled(false);
+        new CalendarSave(fileChooser2.getSelectedFile()).execute();
         break;
 
       default:
@@ -183,19 +238,99 @@ public class NUPlannerFrame extends JFrame implements NUPlannerFrameView {
     }
   }
 
+  /**
+   * Starts loading the given files in the background, showing its progress and a button to
+   * cancel it until it is done.
+   *
+   * @param chosen the files to load
+   */
+  private void startLoad(File[] chosen) {
+    this.loading = new CalendarLoad(chosen);
+    this.loading.addPropertyChangeListener(change -> {
+      if ("progress".equals(change.getPropertyName())) {
+        this.loadProgress.setValue((Integer) change.getNewValue());
+      }
+    });
+    this.addCalendar.setEnabled(false);
+    this.loadProgress.setValue(0);
+    this.loadProgress.setVisible(true);
+    this.cancelLoad.setVisible(true);
+    this.eventPanel.revalidate();
+    this.loading.execute();
+  }
+
+  /**
+   * Adds users to the drop down as they are added to the model, lists the users again when
+   * they were reset, and passes the changes on to the planner panel.
+   * Called on the event dispatch thread with the changes made within a frame.
+   *
+   * @param changes the changes made to the model
+   */
+  @Override
+  public void plannerChanged(List<PlannerChange> changes) {
+    boolean reset = false;
+    for (PlannerChange c : changes) {
+      if (c.kind() == PlannerChange.Kind.USER_ADDED) {
+        this.listNewUsers(c.users());
+      }
+      else if (c.kind() == PlannerChange.Kind.USERS_RESET) {
+        reset = true;
+      }
+    }
+    if (reset) {
+      this.relistUsers();
+    }
+    this.plannerPanel.plannerChanged(changes);
+  }
+
+  /**
+   * Lists every user in the system in the drop down again, keeping the selected user if they
+   * are still in the system.
+   */
+  private void relistUsers() {
+    Object selected = this.users.getSelectedItem();
+    ArrayList<String> uIds = new ArrayList<>();
+    for (User u : this.model.usersInSystem()) {
+      uIds.add(u.printName());
+    }
+    this.users.removeAllItems();
+    this.listedUsers.clear();
+    this.listNewUsers(uIds);
+    if (selected != null && this.listedUsers.contains(selected.toString())) {
+      this.users.setSelectedItem(selected);
+    }
+  }
+
+  /**
+   * Stops following the model's changes before closing the frame.
+   */
+  @Override
+  public void dispose() {
+    this.model.removeListener(this.changes);
+    this.changes.stop();
+    super.dispose();
+  }
+
+  /**
+   * Adds every given user id that is not yet in the users drop down to it.
+   *
+   * @param uIds the ids of the users in the system
+   */
+  private void listNewUsers(List<String> uIds) {
+    for (String uId : uIds) {
+      if (this.listedUsers.add(uId)) {
+        this.users.addItem(uId);
+      }
+    }
+  }
+
   /**
    * Associates the given string with a user in the system.
    * @param userName the name of the user
    * @return the User selected
    */
   private User convertToUser(String userName) {
-    User user = null;
-    for (User u : model.usersInSystem()) {
-      if (u.printName().equals(userName)) {
-        user = u;
-      }
-    }
-    return user;
+    return this.model.findUser(userName);
   }
 
   /**
@@ -205,4 +340,186 @@ public class NUPlannerFrame extends JFrame implements NUPlannerFrameView {
   private void displayEvents(User user) {
     this.plannerPanel.repaint();
   }
-}
\ No newline at end of file
+
+  /**
+   * Saves every user's schedule into a directory on a background thread, so the frame stays
+   * responsive while the files are written and synced, and reports any schedule that could not
+   * be saved once it is done.
+   */
+  private final class CalendarSave extends SwingWorker<Void, Void> {
+    private final File directory;
+
+    private CalendarSave(File directory) {
+      this.directory = directory;
+    }
+
+    @Override
+    protected Void doInBackground() {
+      new ScheduleWriter().writeAll(model.usersInSystem(), this.directory.toPath());
+      return null;
+    }
+
+    @Override
+    protected void done() {
+      saveCalendar.setEnabled(true);
+      try {
+        this.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        JOptionPane.showMessageDialog(NUPlannerFrame.this, e.getCause().getMessage(),
+                "Some calendars could not be saved", JOptionPane.ERROR_MESSAGE);
+      }
+    }
+  }
+
+  /**
+   * Suggests a time in an event frame being scheduled, when its owner and the users chosen to
+   * invite are all free, starting a new search each time the chosen users change.
+   */
+  private final class SlotSuggester implements ListSelectionListener {
+    private final NUEventFrame eventFrame;
+    private final String ownerId;
+    private SlotSearch latest;
+    //INVARIANT: latest is null, or the last search started, the only one whose slot is shown.
+
+    private SlotSuggester(NUEventFrame eventFrame, String ownerId) {
+      this.eventFrame = eventFrame;
+      this.ownerId = ownerId;
+    }
+
+    /**
+     * Starts searching for a time for the owner and the users now chosen, dropping any search
+     * still running for the users chosen before.
+     */
+    private void suggest() {
+      if (this.latest != null) {
+        this.latest.cancel(false);
+      }
+      ArrayList<String> uIds = new ArrayList<>();
+      uIds.add(this.ownerId);
+      for (String uId : this.eventFrame.chosenInvitees()) {
+        if (!uIds.contains(uId)) {
+          uIds.add(uId);
+        }
+      }
+      this.latest = new SlotSearch(this, uIds);
+      this.latest.execute();
+    }
+
+    @Override
+    public void valueChanged(ListSelectionEvent e) {
+      if (!e.getValueIsAdjusting()) {
+        this.suggest();
+      }
+    }
+  }
+
+  /**
+   * Looks up the given users and finds the earliest time they are all free on a background
+   * thread, filling it into the event frame unless a newer search has started since.
+   */
+  private final class SlotSearch extends SwingWorker<ArrayList<Time>, Void> {
+    private final SlotSuggester suggester;
+    private final ArrayList<String> uIds;
+
+    private SlotSearch(SlotSuggester suggester, ArrayList<String> uIds) {
+      this.suggester = suggester;
+      this.uIds = uIds;
+    }
+
+    @Override
+    protected ArrayList<Time> doInBackground() {
+      ArrayList<User> invitees = new ArrayList<>();
+      for (String uId : this.uIds) {
+        User u = model.findUser(uId);
+        if (u != null) {
+          invitees.add(u);
+        }
+      }
+      if (invitees.isEmpty()) {
+        return new ArrayList<>();
+      }
+      return model.findSlots(SCHEDULED_EVENT_MINUTES, invitees, new Time(0, 0), 1);
+    }
+
+    @Override
+    protected void done() {
+      if (this.isCancelled() || this.suggester.latest != this) {
+        return;
+      }
+      try {
+        ArrayList<Time> slots = this.get();
+        if (!slots.isEmpty()) {
+          this.suggester.eventFrame.fillTime(slots.get(0));
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        //the search was rejected, such as by a user leaving meanwhile, so no time is shown.
+      }
+    }
+  }
+
+  /**
+   * Loads calendar files into the model on a background thread, one file at a time, so the
+   * frame stays responsive while large files are parsed and merged. The users each file adds
+   * reach the drop down through the model's changes, and the user shown when the load started
+   * is looked up again in the background to be shown as they are once it is done. Cancelling
+   * interrupts the file being loaded, which is then left out, and no further files are loaded.
+   */
+  private final class CalendarLoad extends SwingWorker<User, Void> {
+    private final File[] chosen;
+    private final String shownId;
+    private final ArrayList<String> failures;
+    //INVARIANT: failures is only read once the load is done.
+
+    private CalendarLoad(File[] chosen) {
+      this.chosen = chosen;
+      this.shownId = users.getSelectedItem() == null ? null : users.getSelectedItem().toString();
+      this.failures = new ArrayList<>();
+    }
+
+    @Override
+    protected User doInBackground() {
+      for (int idx = 0; idx < this.chosen.length && !this.isCancelled(); idx++) {
+        try {
+          model.addFile(this.chosen[idx]);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+          if (this.isCancelled()) {
+            break;
+          }
+          this.failures.add(this.chosen[idx].getName() + ": " + e.getMessage());
+        }
+        this.setProgress((idx + 1) * 100 / this.chosen.length);
+      }
+      if (this.isCancelled() || this.shownId == null) {
+        return null;
+      }
+      return model.findUser(this.shownId);
+    }
+
+    @Override
+    protected void done() {
+      addCalendar.setEnabled(true);
+      loadProgress.setVisible(false);
+      cancelLoad.setVisible(false);
+      if (this.isCancelled()) {
+        return;
+      }
+      try {
+        User shown = this.get();
+        if (shown != null && users.getSelectedItem() != null
+                && this.shownId.equals(users.getSelectedItem().toString())) {
+          plannerPanel.changeUser(shown);
+        }
+      } catch (InterruptedException | ExecutionException e) {
+        this.failures.add(e.getMessage());
+      }
+      if (!this.failures.isEmpty()) {
+        JOptionPane.showMessageDialog(NUPlannerFrame.this, String.join("\n", this.failures),
+                "Some calendars could not be added", JOptionPane.ERROR_MESSAGE);
+      }
+    }
+  }
+}
@@ -3,31 +3,65 @@ package cs3500.planner.view;
 
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Color;
 import java.awt.BasicStroke;
+import java.awt.Rectangle;
 
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 import javax.swing.JPanel;
+import javax.swing.ListModel;
 
-import cs3500.planner.model.Day;
-import cs3500.planner.model.Location;
 import cs3500.planner.model.NUEvent;
 import cs3500.planner.model.NUPlannerModel;
+import cs3500.planner.model.PlannerChange;
+import cs3500.planner.model.PlannerListener;
 import cs3500.planner.model.Schedule;
 import cs3500.planner.model.Time;
 import cs3500.planner.model.User;
 
-import static java.lang.Math.floor;
-
 /**
  * Class representing a panel in the NUPlanner.
+ * The lines of the planner and the current user's events are kept as images, so a repaint only
+ * copies one image to the screen. The lines are drawn again only when the panel is resized, and
+ * the events only where the current user's events have changed since the panel was last painted,
+ * with the lines laid back over just those parts. The events themselves are read from the model
+ * only when another user is shown or the model reports a change to the shown user, never just
+ * because the panel is repainted.
  */
-public class NUPlannerPanel extends JPanel {
+public class NUPlannerPanel extends JPanel implements PlannerListener {
   private User currentUser;
   private NUPlannerModel model;
+  private final ListModel<String> userIds;
+  private BufferedImage grid;
+  //INVARIANT: grid is null, or the lines of the planner drawn at the size it was last painted.
+  private BufferedImage eventLayer;
+  //INVARIANT: eventLayer is null, or the background, the events in drawn and then grid, drawn
+  //at the size of grid.
+  private NUEvent[] shown;
+  //INVARIANT: shown is null, or the current user's events as last read from the model, which
+  //the model has not reported changing since.
+  private NUEvent[] drawn;
+  private String drawnOwner;
+  //INVARIANT: drawn holds the events of the user named drawnOwner as they were last drawn.
+  private int[] hitStarts;
+  private int[] hitEnds;
+  private int[] hitReach;
+  private NUEvent[] hitEvents;
+  private String[] hitTips;
+  private int hits;
+  //INVARIANT: the first hits entries give the minute-of-week range [start, end) of each event in
+  //drawn, sorted by start, with an event wrapping past the end of the week split in two, and
+  //hitReach[i] is the largest end among the first i + 1 of them.
 
   /**
    * Constructor.
@@ -35,52 +69,255 @@ public class NUPlannerPanel extends JPanel {
    * @param model the model to read from.
    */
   public NUPlannerPanel(NUPlannerModel model) {
+    this(model, null);
+  }
+
+  /**
+   * Constructor for a panel whose event frames list the users from the given list, which the
+   * view keeps up to date.
+   *
+   * @param model   the model to read from.
+   * @param userIds the ids of the users in the system, or null to read them from the model.
+   */
+  public NUPlannerPanel(NUPlannerModel model, ListModel<String> userIds) {
     this.setSize(800, 800);
     this.currentUser = new User("", new Schedule("", new ArrayList<>()));
     this.model = model;
+    this.userIds = userIds;
+    this.hitStarts = new int[0];
+    this.hitEnds = new int[0];
+    this.hitReach = new int[0];
+    this.hitEvents = new NUEvent[0];
+    this.hitTips = new String[0];
     this.addClickListener();
+    //registers the panel for tooltips, whose text comes from getToolTipText(MouseEvent).
+    this.setToolTipText("");
   }
 
   @Override
   protected void paintComponent(Graphics g) {
-    int panelHeight = this.getHeight();
     int panelWidth = this.getWidth();
-    int dayWidth = this.getWidth() / 7;
-    int fourHourHeight = this.getHeight() / 6;
-    int hourHeight = fourHourHeight / 4;
+    int panelHeight = this.getHeight();
+    if (panelWidth <= 0 || panelHeight <= 0) {
+      return;
+    }
+    if (this.grid == null || this.grid.getWidth() != panelWidth
+            || this.grid.getHeight() != panelHeight) {
+      this.grid = drawGrid(panelWidth, panelHeight);
+      this.eventLayer = null;
+    }
+    this.updateEventLayer(this.ownerEvents());
+    g.drawImage(this.eventLayer, 0, 0, null);
+  }
+
+  /**
+   * Returns the events of the user whose schedule is shown, reading them from the model only if
+   * they may have changed since they were last read.
+   *
+   * @return the current user's events, or none if no user in the system is selected
+   */
+  private NUEvent[] ownerEvents() {
+    if (this.shown == null) {
+      if (currentUser.printName().equals("")
+              || model.findUser(currentUser.printName()) == null) {
+        this.shown = new NUEvent[0];
+      }
+      else {
+        this.shown = this.model.usersEvents(currentUser).toArray(new NUEvent[0]);
+      }
+    }
+    return this.shown;
+  }
+
+  /**
+   * Brings the cached event layer up to date with the given events.
+   * The layer is an opaque image matching the screen, so copying it is as cheap as it can be.
+   * It is drawn in full when the panel is resized or another user is shown. Otherwise
+   * the events are compared with those last drawn, which the model hands back as the same
+   * objects while they are unchanged, and only the parts of the week covered by an event that
+   * was added, removed or changed are cleared and drawn again.
+   *
+   * @param events the events to show
+   */
+  private void updateEventLayer(NUEvent[] events) {
+    String owner = this.currentUser.printName();
+    boolean changed = true;
+    if (this.eventLayer == null || !owner.equals(this.drawnOwner)) {
+      GraphicsConfiguration screen = this.getGraphicsConfiguration();
+      this.eventLayer = screen == null
+              ? new BufferedImage(this.grid.getWidth(), this.grid.getHeight(),
+                      BufferedImage.TYPE_INT_RGB)
+              : screen.createCompatibleImage(this.grid.getWidth(), this.grid.getHeight());
+      this.drawAll(events);
+    }
+    else if (!sameEvents(this.drawn, events)) {
+      Set<NUEvent> before = Collections.newSetFromMap(new IdentityHashMap<>());
+      Set<NUEvent> after = Collections.newSetFromMap(new IdentityHashMap<>());
+      Collections.addAll(before, this.drawn);
+      Collections.addAll(after, events);
+      ArrayList<Time> dirty = new ArrayList<>();
+      for (NUEvent e : this.drawn) {
+        if (!after.contains(e)) {
+          dirty.add(e.eventTime());
+        }
+      }
+      for (NUEvent e : events) {
+        if (!before.contains(e)) {
+          dirty.add(e.eventTime());
+        }
+      }
+      if (dirty.size() > events.length / 2 + 1) {
+        this.drawAll(events);
+      }
+      else {
+        for (Time range : dirty) {
+          this.redrawRange(range, events);
+        }
+      }
+    }
+    else {
+      changed = false;
+    }
+    this.drawn = events;
+    this.drawnOwner = owner;
+    if (changed) {
+      this.indexHits(events);
+    }
+  }
 
-    Graphics2D g2d = (Graphics2D) g;
-
-    //Draws the events as colored rectangles on the planner.
-    if (!currentUser.printName().equals("")) {
-      if (model.usersInSystem().contains(currentUser)) {
-        for (NUEvent e : this.model.usersEvents(currentUser)) {
-          Integer[] time = e.eventDuration();
-          Integer[] startDayRow = this.dayRow(time[0]);
-          Integer[] endDayRow = this.dayRow(time[2]);
-          int startTimeCol = (int) this.timeCol(time[1]);
-          int endTimeCol = (int) this.timeCol(time[3]);
-
-          int rectWidth = Math.abs(endDayRow[1] - startDayRow[0]);
-          g2d.setColor(Color.BLUE);
-          if (e.startDayIndex() != e.endDayIndex()) {
-            g2d.fillRect(startDayRow[0], startTimeCol, dayWidth, panelHeight);
-            int daysInBetween = Math.abs(e.endDayIndex() - e.startDayIndex()) - 1;
-            g2d.fillRect(startDayRow[1], 0, dayWidth * daysInBetween, panelHeight);
-            if (e.endDayIndex() > e.startDayIndex()) {
-              g2d.fillRect(endDayRow[0], 0, dayWidth, endTimeCol);
-            }
-          } else {
-            g2d.fillRect(startDayRow[0], startTimeCol, rectWidth,
-                    Math.abs(endTimeCol - startTimeCol));
-          }
+  /**
+   * Clears the whole event layer and draws every given event on it, then the lines. Used when
+   * so much has changed that redrawing each changed part would cost more, as with a model that
+   * hands back new copies of the events every time they are read.
+   *
+   * @param events the events to show
+   */
+  private void drawAll(NUEvent[] events) {
+    Graphics2D g2d = this.eventLayer.createGraphics();
+    g2d.setColor(this.getBackground());
+    g2d.fillRect(0, 0, this.eventLayer.getWidth(), this.eventLayer.getHeight());
+    for (NUEvent e : events) {
+      this.drawEvent(g2d, e);
+    }
+    g2d.drawImage(this.grid, 0, 0, null);
+    g2d.dispose();
+  }
+
+  /**
+   * Determines if the given arrays hold the very same events in the same order.
+   */
+  private static boolean sameEvents(NUEvent[] drawn, NUEvent[] events) {
+    if (drawn.length != events.length) {
+      return false;
+    }
+    for (int idx = 0; idx < drawn.length; idx++) {
+      if (drawn[idx] != events[idx]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Clears the part of the event layer covering the given time, and draws the given events
+   * that overlap it and the lines again, clipped to it.
+   *
+   * @param range  the time whose part of the layer is out of date
+   * @param events the events to show
+   */
+  private void redrawRange(Time range, NUEvent[] events) {
+    Graphics2D g2d = this.eventLayer.createGraphics();
+    ArrayList<Rectangle> area = new ArrayList<>();
+    rectangles(range.startMinute(), range.endMinute(), this.eventLayer.getWidth(),
+            this.eventLayer.getHeight(), area);
+    for (Rectangle clip : area) {
+      g2d.setClip(clip);
+      g2d.setColor(this.getBackground());
+      g2d.fill(clip);
+      for (NUEvent e : events) {
+        if (!e.eventTime().noTimeConflict(range)) {
+          this.drawEvent(g2d, e);
         }
       }
+      g2d.drawImage(this.grid, 0, 0, null);
     }
+    g2d.dispose();
+  }
 
+  /**
+   * Draws the given event as colored rectangles, one for each day it covers.
+   *
+   * @param g2d the Graphics2D to draw on
+   * @param e   the event to draw
+   */
+  private void drawEvent(Graphics2D g2d, NUEvent e) {
+    ArrayList<Rectangle> covered = new ArrayList<>();
+    rectangles(e.startMinute(), e.endMinute(), this.eventLayer.getWidth(),
+            this.eventLayer.getHeight(), covered);
+    g2d.setColor(Color.BLUE);
+    for (Rectangle r : covered) {
+      g2d.fill(r);
+    }
+  }
+
+  /**
+   * Adds the rectangles covering the given minute-of-week range on a planner of the given size
+   * to the given list, one for each day the range touches. A range that ends before it starts
+   * wraps around the end of the week.
+   *
+   * @param start  the first minute of the range, counting from Sunday at 0000
+   * @param end    the minute after the last minute of the range
+   * @param width  the width of the planner
+   * @param height the height of the planner
+   * @param into   the list to add the rectangles to
+   */
+  private static void rectangles(int start, int end, int width, int height,
+                                 List<Rectangle> into) {
+    int dayWidth = width / 7;
+    int last = end >= start ? end : end + Time.MINUTES_PER_WEEK;
+    int minute = start;
+    while (minute < last) {
+      int dayEnd = (minute / Time.MINUTES_PER_DAY + 1) * Time.MINUTES_PER_DAY;
+      int stop = Math.min(last, dayEnd);
+      int day = (minute / Time.MINUTES_PER_DAY) % 7;
+      int top = minuteY(minute % Time.MINUTES_PER_DAY, height);
+      int bottom = stop == dayEnd ? height : minuteY(stop % Time.MINUTES_PER_DAY, height);
+      into.add(new Rectangle(day * dayWidth, top, dayWidth, bottom - top));
+      minute = stop;
+    }
+  }
+
+  /**
+   * Returns the height on a planner of the given height at which the given minute of a day is.
+   *
+   * @param minuteOfDay the minutes since midnight
+   * @param height      the height of the planner
+   * @return the y coordinate of the minute
+   */
+  private static int minuteY(int minuteOfDay, int height) {
+    return (int) (minuteOfDay * ((double) height / Time.MINUTES_PER_DAY));
+  }
+
+  /**
+   * Draws the lines of the planner onto a transparent image of the given size, to be laid over
+   * the events.
+   *
+   * @param panelWidth  the width of the planner
+   * @param panelHeight the height of the planner
+   * @return the image of the lines
+   */
+  private static BufferedImage drawGrid(int panelWidth, int panelHeight) {
+    BufferedImage lines = new BufferedImage(panelWidth, panelHeight,
+            BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g2d = lines.createGraphics();
+    int dayWidth = panelWidth / 7;
+    int fourHourHeight = panelHeight / 6;
+    int hourHeight = fourHourHeight / 4;
     //These methods draw the lines onto the planner representing the hours and days.
     drawVerticalLines(g2d, dayWidth, panelHeight);
     drawHorizontalLines(g2d, hourHeight, panelWidth, fourHourHeight, panelHeight);
+    g2d.dispose();
+    return lines;
   }
 
   /**
@@ -121,48 +358,49 @@ public class NUPlannerPanel extends JPanel {
   }
 
   /**
-   * Used when drawing the events onto the planner.
-   * Determines the height of the rectangle representing an event on the planner.
-   *
-   * @param time The integer representing the start or end time of an event.
-   * @return the coordinate at which to base the height of the event on.
-   */
-  private double timeCol(int time) {
-    double minuteHeight = (double) this.getHeight() / 1440;
-    double hours = floor((double) time / 100);
-    double minutes = time % 100;
-
-    return hours * 60 * minuteHeight + minutes * minuteHeight;
-  }
-
-  /**
-   * Used when drawing the events onto the planner.
-   * Determines the width of the rectangle representing an event on the planner.
+   * Reads the current user's events again and repaints the parts of the planner the given
+   * changes touched in their schedule, or all of it when a change may have touched the whole
+   * week. Does nothing if no change touched the current user. Must be called on the event
+   * dispatch thread, as NUPlannerFrame does once a frame.
    *
-   * @param day The integer representing the start or end day of an event.
-   * @return the coordinate at which to base the width of the event on.
+   * @param changes the changes made to the model
    */
-  private Integer[] dayRow(int day) {
-    int dayWidth = this.getWidth() / 7;
-    Integer[] dayCoord = new Integer[2];
-
-    for (int index = 0; index < 7; index++) {
-      if (day == index) {
-        dayCoord[0] = index * dayWidth;
-        dayCoord[1] = (index + 1) * dayWidth;
+  @Override
+  public void plannerChanged(List<PlannerChange> changes) {
+    String owner = this.currentUser.printName();
+    ArrayList<Rectangle> dirty = new ArrayList<>();
+    for (PlannerChange c : changes) {
+      if (!c.affects(owner)) {
+        continue;
+      }
+      this.shown = null;
+      if (c.times().isEmpty()) {
+        this.repaint();
+        return;
       }
+      for (Time t : c.times()) {
+        if (t.startMinute() == t.endMinute()) {
+          this.repaint();
+          return;
+        }
+        rectangles(t.startMinute(), t.endMinute(), this.getWidth(), this.getHeight(), dirty);
+      }
+    }
+    for (Rectangle r : dirty) {
+      this.repaint(r);
     }
-    return dayCoord;
   }
 
   /**
-   * Changes this current user to the given user.
+   * Changes this current user to the given user, whose events are read the next time the panel
+   * is painted.
    * Helps to know which schedule to paint, based on who is selected in the JComboBox.
    *
    * @param u the user to switch the current user to.
    */
   public void changeUser(User u) {
     currentUser = u;
+    this.shown = null;
   }
 
   /**
@@ -208,61 +446,129 @@ public class NUPlannerPanel extends JPanel {
    * @param y the y coordinate of the click
    */
   public void handleCellClick(int x, int y) {
-    System.out.println(y);
-
-    int totalMinutes = (int) Math.floor((double) (y * 24 * 60) / this.getHeight());
-    int hours = totalMinutes / 60;
-    System.out.println(hours);
-    int minutes = totalMinutes % 60;
-    System.out.println(minutes);
-
-    String stringTime = this.addLeadingZero(Integer.toString(hours)
-            + this.addLeadingZero(Integer.toString(minutes)));
-    System.out.println(stringTime);
-
-    //Draws the events as colored rectangles on the planner.
-    if (!currentUser.printName().equals("")) {
-      if (model.usersInSystem().contains(currentUser)) {
-        for (NUEvent e : this.model.usersEvents(currentUser)) {
-          if (e.checkForConflict(new NUEvent("Test", new ArrayList<>(),
-                  new Location(true, "Test"),
-                  new Time(this.indexToDay(e.startDayIndex()), this.indexToDay(e.endDayIndex()),
-                          stringTime, stringTime),
-                  new User("Test", new Schedule("Test", new ArrayList<>()))))) {
-            NUEventFrame eventFrame = new NUEventFrame(model, this.currentUser);
-            eventFrame.fillEvent(e);
-            eventFrame.setVisible(true);
-            eventFrame.setLocationRelativeTo(this);
-          }
-        }
-      }
+    NUEvent clicked = this.eventAt(x, y);
+    if (clicked != null) {
+      NUEventFrame eventFrame = new NUEventFrame(model, this.currentUser, this.userIds);
+      eventFrame.fillEvent(clicked);
+      eventFrame.setVisible(true);
+      eventFrame.setLocationRelativeTo(this);
+    }
+  }
+
+  @Override
+  public String getToolTipText(MouseEvent event) {
+    int found = this.hitAt(event.getX(), event.getY());
+    if (found < 0) {
+      return null;
+    }
+    if (this.hitTips[found] == null) {
+      Time time = this.hitEvents[found].eventTime();
+      this.hitTips[found] = this.hitEvents[found].eventName() + ": " + time.startDay() + " "
+              + time.startClockText() + " - " + time.endDay() + " " + time.endClockText();
     }
-    this.repaint();
+    return this.hitTips[found];
+  }
+
+  /**
+   * Returns the event drawn at the given point of the panel, as it was last painted.
+   *
+   * @param x the x coordinate of the point
+   * @param y the y coordinate of the point
+   * @return the event at the point, or null if there is none
+   */
+  private NUEvent eventAt(int x, int y) {
+    int found = this.hitAt(x, y);
+    return found < 0 ? null : this.hitEvents[found];
   }
 
-  private String addLeadingZero(String time) {
-    if (time.length() == 1) {
-      return ("0" + time);
-    } else {
-      return time;
+  /**
+   * Finds the entry of the hit index for the event drawn at the given point, by a binary search
+   * for the last range starting at or before the minute of the week the point shows. Nothing is
+   * allocated, so this is cheap enough to run as the mouse moves.
+   *
+   * @param x the x coordinate of the point
+   * @param y the y coordinate of the point
+   * @return the index of the entry, or -1 if no event is drawn there
+   */
+  private int hitAt(int x, int y) {
+    int dayWidth = this.getWidth() / 7;
+    int height = this.getHeight();
+    if (dayWidth <= 0 || x < 0 || y < 0 || x >= dayWidth * 7 || y >= height) {
+      return -1;
+    }
+    int minute = (x / dayWidth) * Time.MINUTES_PER_DAY
+            + (int) ((long) y * Time.MINUTES_PER_DAY / height);
+    int low = 0;
+    int high = this.hits - 1;
+    int last = -1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (this.hitStarts[mid] <= minute) {
+        last = mid;
+        low = mid + 1;
+      }
+      else {
+        high = mid - 1;
+      }
     }
+    for (int idx = last; idx >= 0 && this.hitReach[idx] > minute; idx--) {
+      if (this.hitEnds[idx] > minute) {
+        return idx;
+      }
+    }
+    return -1;
   }
 
   /**
-   * Returns the day represented by the given integer.
+   * Rebuilds the hit index from the given events, which are the ones just drawn.
+   * An event that starts and ends on the same minute covers just that minute.
    *
-   * @param index the integer representing a day.
-   * @return a day that corresponds to the given integer.
+   * @param events the events drawn
    */
-  private Day indexToDay(int index) {
-    Day[] dayList = Day.values();
-    Day day = Day.MONDAY;
-    for (int dayIdx = 0; dayIdx < 7; dayIdx++) {
-      if (index == dayIdx) {
-        day = dayList[index];
+  private void indexHits(NUEvent[] events) {
+    long[] order = new long[events.length * 2];
+    int count = 0;
+    for (int idx = 0; idx < events.length; idx++) {
+      int start = events[idx].startMinute();
+      int end = events[idx].endMinute();
+      order[count++] = ((long) start << 32) | (idx << 1);
+      if (end < start && end > 0) {
+        order[count++] = (idx << 1) | 1;
+      }
+    }
+    Arrays.sort(order, 0, count);
+    if (this.hitStarts.length < count) {
+      int size = Math.max(count, this.hitStarts.length * 2);
+      this.hitStarts = new int[size];
+      this.hitEnds = new int[size];
+      this.hitReach = new int[size];
+      this.hitEvents = new NUEvent[size];
+      this.hitTips = new String[size];
+    }
+    int reach = 0;
+    for (int idx = 0; idx < count; idx++) {
+      int which = (int) order[idx];
+      NUEvent e = events[which >>> 1];
+      int start = e.startMinute();
+      int end = e.endMinute();
+      if ((which & 1) == 1) {
+        start = 0;
+      }
+      else if (end < start) {
+        end = Time.MINUTES_PER_WEEK;
+      }
+      else if (end == start) {
+        end = start + 1;
       }
+      reach = Math.max(reach, end);
+      this.hitStarts[idx] = start;
+      this.hitEnds[idx] = end;
+      this.hitReach[idx] = reach;
+      this.hitEvents[idx] = e;
+      this.hitTips[idx] = null;
     }
-    return day;
+    Arrays.fill(this.hitEvents, count, this.hits > count ? this.hits : count, null);
+    this.hits = count;
   }
 
   /**
@@ -0,0 +1,268 @@
+package cs3500.planner.xmlbehavior;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+
+import cs3500.planner.model.User;
+
+/**
+ * Loads many schedule files at once, parsing them on a pool of worker threads.
+ * Each worker keeps its own ScheduleReader for every file it parses. Results are always returned
+ * in the order the files were given, no matter which worker finished first, and a file that fails
+ * to load is recorded instead of stopping the others.
+ * A checksum of each file's contents is taken while it is parsed, so callers can tell whether a
+ * file really changed since they last loaded it without reading it twice. The size and modified
+ * time of each file are taken before it is opened, so a file rewritten while it is being read
+ * never looks as if its new version was the one loaded.
+ */
+public class ScheduleLoader {
+  private final int parallelism;
+
+  /**
+   * Creates a ScheduleLoader that uses one worker per available processor.
+   */
+  public ScheduleLoader() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a ScheduleLoader with the given number of workers.
+   *
+   * @param parallelism the most files to parse at the same time
+   * @throws IllegalArgumentException if parallelism is not positive
+   */
+  public ScheduleLoader(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Must use at least one worker");
+    }
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Parses every given file, in parallel when there is more than one.
+   *
+   * @param files the schedule files to load
+   * @return the users that loaded and the files that did not
+   */
+  public Result load(List<File> files) {
+    int workers = Math.min(this.parallelism, files.size());
+    if (workers <= 1) {
+      return this.loadInline(files);
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(workers, task -> {
+      Thread t = new Thread(task, "schedule-loader");
+      t.setDaemon(true);
+      return t;
+    });
+    try {
+      ThreadLocal<ScheduleReader> readers = ThreadLocal.withInitial(ScheduleReader::new);
+      List<Future<Loaded>> pending = new ArrayList<>();
+      for (File f : files) {
+        pending.add(pool.submit(() -> readChecked(readers.get(), f)));
+      }
+      Result result = new Result();
+      for (int idx = 0; idx < files.size(); idx++) {
+        try {
+          result.add(files.get(idx), pending.get(idx).get());
+        } catch (ExecutionException e) {
+          result.addFailure(files.get(idx), e.getCause());
+        }
+      }
+      return result;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while loading schedules");
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Parses the given files one after another on the calling thread.
+   */
+  private Result loadInline(List<File> files) {
+    ScheduleReader reader = new ScheduleReader();
+    Result result = new Result();
+    for (File f : files) {
+      try {
+        result.add(f, readChecked(reader, f));
+      } catch (RuntimeException e) {
+        result.addFailure(f, e);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Parses the given file while taking a checksum of every byte in it, noting its size and
+   * modified time before reading it.
+   */
+  private static Loaded readChecked(ScheduleReader reader, File file) {
+    long size = file.length();
+    long modified = file.lastModified();
+    CRC32C crc = new CRC32C();
+    try (InputStream in = new CheckedInputStream(
+            new BufferedInputStream(new FileInputStream(file)), crc)) {
+      User user = reader.read(in);
+      byte[] rest = new byte[512];
+      while (in.read(rest) >= 0) {
+        //reads anything after the schedule so it is part of the checksum.
+      }
+      return new Loaded(user, crc.getValue(), size, modified);
+    } catch (IOException e) {
+      throw new IllegalStateException("Error in opening the file " + file.getName());
+    }
+  }
+
+  /**
+   * A user parsed from a file, along with the checksum of that file and the size and modified
+   * time it had before it was read.
+   */
+  private static final class Loaded {
+    private final User user;
+    private final long checksum;
+    private final long size;
+    private final long modified;
+
+    private Loaded(User user, long checksum, long size, long modified) {
+      this.user = user;
+      this.checksum = checksum;
+      this.size = size;
+      this.modified = modified;
+    }
+  }
+
+  /**
+   * The outcome of loading a group of files.
+   */
+  public static final class Result {
+    private final Map<File, User> users;
+    private final Map<File, Loaded> loaded;
+    private final Map<File, RuntimeException> failures;
+
+    private Result() {
+      this.users = new LinkedHashMap<>();
+      this.loaded = new LinkedHashMap<>();
+      this.failures = new LinkedHashMap<>();
+    }
+
+    private void add(File file, Loaded loaded) {
+      this.users.put(file, loaded.user);
+      this.loaded.put(file, loaded);
+    }
+
+    private void addFailure(File file, Throwable cause) {
+      if (cause instanceof RuntimeException) {
+        this.failures.put(file, (RuntimeException) cause);
+      }
+      else {
+        this.failures.put(file, new IllegalStateException(cause));
+      }
+    }
+
+    /**
+     * Returns the users that loaded, in the same order as their files.
+     *
+     * @return the loaded users
+     */
+    public List<User> users() {
+      return new ArrayList<>(this.users.values());
+    }
+
+    /**
+     * Returns each file that loaded together with the user it holds, in file order.
+     *
+     * @return the loaded files and their users
+     */
+    public Map<File, User> usersByFile() {
+      return Collections.unmodifiableMap(this.users);
+    }
+
+    /**
+     * Returns the CRC-32C checksum of the contents of a file that loaded.
+     *
+     * @param file a file that loaded
+     * @return the checksum of the whole file
+     * @throws IllegalArgumentException if the file did not load
+     */
+    public long checksum(File file) {
+      return this.loadedFrom(file).checksum;
+    }
+
+    /**
+     * Returns the size a file that loaded had before it was read.
+     *
+     * @param file a file that loaded
+     * @return the length of the file in bytes
+     * @throws IllegalArgumentException if the file did not load
+     */
+    public long size(File file) {
+      return this.loadedFrom(file).size;
+    }
+
+    /**
+     * Returns the modified time a file that loaded had before it was read.
+     *
+     * @param file a file that loaded
+     * @return the modified time in milliseconds since the epoch
+     * @throws IllegalArgumentException if the file did not load
+     */
+    public long lastModified(File file) {
+      return this.loadedFrom(file).modified;
+    }
+
+    private Loaded loadedFrom(File file) {
+      Loaded found = this.loaded.get(file);
+      if (found == null) {
+        throw new IllegalArgumentException("File was not loaded");
+      }
+      return found;
+    }
+
+    /**
+     * Returns every file that failed to load with the reason it failed, in file order.
+     *
+     * @return the failed files and their errors
+     */
+    public Map<File, RuntimeException> failures() {
+      return Collections.unmodifiableMap(this.failures);
+    }
+
+    /**
+     * Throws a single exception describing every failed file, if there were any.
+     * Each individual failure is attached as a suppressed exception.
+     *
+     * @throws IllegalStateException if any file failed to load
+     */
+    public void throwIfFailed() {
+      if (this.failures.isEmpty()) {
+        return;
+      }
+      StringBuilder sb = new StringBuilder();
+      sb.append(this.failures.size()).append(" schedule file(s) failed to load:");
+      for (Map.Entry<File, RuntimeException> entry : this.failures.entrySet()) {
+        sb.append("\n").append(entry.getKey().getName()).append(": ")
+                .append(entry.getValue().getMessage());
+      }
+      IllegalStateException ex = new IllegalStateException(sb.toString());
+      for (RuntimeException failure : this.failures.values()) {
+        ex.addSuppressed(failure);
+      }
+      throw ex;
+    }
+  }
+}
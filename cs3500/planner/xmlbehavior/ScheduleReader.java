@@ -0,0 +1,286 @@
+package cs3500.planner.xmlbehavior;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import cs3500.planner.model.Day;
+import cs3500.planner.model.Location;
+import cs3500.planner.model.NUEvent;
+import cs3500.planner.model.Schedule;
+import cs3500.planner.model.Time;
+import cs3500.planner.model.User;
+
+/**
+ * Streaming reader for schedule XML files.
+ * Builds a User and their Schedule in a single forward pass over the file, holding only the
+ * event currently being read in memory. Accepts the same
+ * {@code <schedule>/<event>/<time>/<location>/<users>} format that XMLHelper writes, and reports
+ * malformed input with the line it was found on.
+ * A reader may be reused for many files, but not by more than one thread at a time.
+ */
+public class ScheduleReader {
+  private final XMLInputFactory factory;
+  private final HashMap<String, User> invitees;
+
+  /**
+   * Creates a ScheduleReader with its own XML input factory.
+   */
+  public ScheduleReader() {
+    this.factory = XMLInputFactory.newInstance();
+    this.factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    this.factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    this.factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    this.invitees = new HashMap<>();
+  }
+
+  /**
+   * Reads the schedule in the given file.
+   *
+   * @param file the XML file to read
+   * @return the User that owns the schedule, with all of its events
+   * @throws IllegalStateException if the file cannot be opened or is not a valid schedule
+   */
+  public User read(File file) {
+    try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+      return this.read(in);
+    } catch (IOException e) {
+      throw new IllegalStateException("Error in opening the file " + file.getName());
+    }
+  }
+
+  /**
+   * Reads a schedule from the given stream. The stream is not closed.
+   *
+   * @param in the stream holding the XML
+   * @return the User that owns the schedule, with all of its events
+   * @throws IllegalStateException if the input is not a valid schedule
+   */
+  public User read(InputStream in) {
+    XMLStreamReader xml = null;
+    try {
+      xml = this.factory.createXMLStreamReader(in);
+      return this.readSchedule(xml);
+    } catch (XMLStreamException e) {
+      int line = e.getLocation() == null ? -1 : e.getLocation().getLineNumber();
+      throw new IllegalStateException("Error in parsing the file at line " + line + ": "
+              + e.getMessage());
+    } finally {
+      this.invitees.clear();
+      if (xml != null) {
+        try {
+          xml.close();
+        } catch (XMLStreamException e) {
+          //the input has already been read, so there is nothing left to report.
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads the schedule element and every event inside it.
+   */
+  private User readSchedule(XMLStreamReader xml) throws XMLStreamException {
+    xml.nextTag();
+    this.expect(xml, "schedule");
+    String uId = xml.getAttributeValue(null, "id");
+    if (uId == null) {
+      throw this.malformed(xml, "schedule is missing its id");
+    }
+    ArrayList<NUEvent> events = new ArrayList<>();
+    while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      if (xml.getLocalName().equals("event")) {
+        events.add(this.readEvent(xml));
+      }
+      else {
+        this.skipElement(xml);
+      }
+    }
+    return new User(uId, new Schedule(uId, events));
+  }
+
+  /**
+   * Reads a single event element, leaving the reader on its end tag.
+   * An event saved before events had ids is given one made from its host, name and time.
+   */
+  private NUEvent readEvent(XMLStreamReader xml) throws XMLStreamException {
+    int line = xml.getLocation().getLineNumber();
+    String id = xml.getAttributeValue(null, "id");
+    String name = null;
+    Time time = null;
+    Location location = null;
+    ArrayList<User> users = null;
+    while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      switch (xml.getLocalName()) {
+        case "name":
+          name = xml.getElementText();
+          break;
+        case "time":
+          time = this.readTime(xml);
+          break;
+        case "location":
+          location = this.readLocation(xml);
+          break;
+        case "users":
+          users = this.readUsers(xml);
+          break;
+        default:
+          this.skipElement(xml);
+      }
+    }
+    if (name == null || time == null || location == null || users == null) {
+      throw new IllegalStateException("Error in parsing the file at line " + line
+              + ": event needs a name, time, location and users");
+    }
+    if (users.isEmpty()) {
+      throw new IllegalStateException("Error in parsing the file at line " + line
+              + ": event has no host");
+    }
+    if (id == null) {
+      id = NUEvent.legacyId(users.get(0).printName(), name, time);
+    }
+    return new NUEvent(id, name, users, location, time, users.get(0));
+  }
+
+  /**
+   * Reads the start and end days and times of an event.
+   */
+  private Time readTime(XMLStreamReader xml) throws XMLStreamException {
+    int line = xml.getLocation().getLineNumber();
+    Day startDay = null;
+    Day endDay = null;
+    String start = null;
+    String end = null;
+    while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      switch (xml.getLocalName()) {
+        case "start-day":
+          startDay = this.readDay(xml);
+          break;
+        case "end-day":
+          endDay = this.readDay(xml);
+          break;
+        case "start":
+          start = xml.getElementText().trim();
+          break;
+        case "end":
+          end = xml.getElementText().trim();
+          break;
+        default:
+          this.skipElement(xml);
+      }
+    }
+    if (start == null || end == null) {
+      throw new IllegalStateException("Error in parsing the file at line " + line
+              + ": time needs a start and end");
+    }
+    try {
+      return new Time(startDay, endDay, start, end);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Error in parsing the file at line " + line + ": "
+              + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads the text of a day element as a Day.
+   */
+  private Day readDay(XMLStreamReader xml) throws XMLStreamException {
+    int line = xml.getLocation().getLineNumber();
+    String text = xml.getElementText().trim();
+    for (Day day : Day.values()) {
+      if (day.toString().equalsIgnoreCase(text)) {
+        return day;
+      }
+    }
+    throw new IllegalStateException("Error in parsing the file at line " + line
+            + ": unknown day " + text);
+  }
+
+  /**
+   * Reads whether an event is online and where it takes place.
+   */
+  private Location readLocation(XMLStreamReader xml) throws XMLStreamException {
+    int line = xml.getLocation().getLineNumber();
+    String online = null;
+    String place = null;
+    while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      switch (xml.getLocalName()) {
+        case "online":
+          online = xml.getElementText().trim();
+          break;
+        case "place":
+          place = xml.getElementText();
+          break;
+        default:
+          this.skipElement(xml);
+      }
+    }
+    if (online == null || place == null) {
+      throw new IllegalStateException("Error in parsing the file at line " + line
+              + ": location needs online and place");
+    }
+    return new Location(Boolean.parseBoolean(online), place);
+  }
+
+  /**
+   * Reads the ids of an event's users, the first of which is the host.
+   * Every id is turned into a single placeholder User per file, so events with the same
+   * invitees share them.
+   */
+  private ArrayList<User> readUsers(XMLStreamReader xml) throws XMLStreamException {
+    ArrayList<User> users = new ArrayList<>();
+    while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      if (xml.getLocalName().equals("uid")) {
+        String id = xml.getElementText().trim();
+        users.add(this.invitees.computeIfAbsent(id,
+            key -> new User(key, new Schedule(key, new ArrayList<>()))));
+      }
+      else {
+        this.skipElement(xml);
+      }
+    }
+    return users;
+  }
+
+  /**
+   * Skips past the element the reader is on, including everything nested inside it.
+   */
+  private void skipElement(XMLStreamReader xml) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0) {
+      int next = xml.next();
+      if (next == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      }
+      else if (next == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+  /**
+   * Checks that the reader is on a start tag with the given name.
+   */
+  private void expect(XMLStreamReader xml, String name) {
+    if (!xml.isStartElement() || !xml.getLocalName().equals(name)) {
+      throw this.malformed(xml, "expected <" + name + ">");
+    }
+  }
+
+  /**
+   * Creates the exception thrown for malformed input at the reader's current line.
+   */
+  private IllegalStateException malformed(XMLStreamReader xml, String reason) {
+    return new IllegalStateException("Error in parsing the file at line "
+            + xml.getLocation().getLineNumber() + ": " + reason);
+  }
+}
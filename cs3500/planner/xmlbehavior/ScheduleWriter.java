@@ -0,0 +1,220 @@
+package cs3500.planner.xmlbehavior;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import cs3500.planner.model.NUEvent;
+import cs3500.planner.model.Schedule;
+import cs3500.planner.model.Time;
+import cs3500.planner.model.User;
+
+/**
+ * Streaming writer for schedule XML files.
+ * Events are written straight to a buffered file as they are visited, with text escaped by the
+ * XML writer, so no String of the whole document is ever built. Each file is written to a
+ * temporary file in the same directory, flushed to disk, and then renamed over the old file, so a
+ * crash part way through never leaves a half written schedule behind.
+ */
+public class ScheduleWriter {
+  private final XMLOutputFactory factory;
+
+  /**
+   * Creates a ScheduleWriter with its own XML output factory.
+   */
+  public ScheduleWriter() {
+    this.factory = XMLOutputFactory.newInstance();
+  }
+
+  /**
+   * Returns the name of the file a schedule is saved to.
+   *
+   * @param schedule the schedule to name
+   * @return the schedule's file name
+   */
+  public static String fileName(Schedule schedule) {
+    return schedule.fileName() + "-schedule.xml";
+  }
+
+  /**
+   * Saves the given schedule to the given file, replacing it if it already exists.
+   *
+   * @param schedule the schedule to save
+   * @param target   the file to save it to
+   * @throws IllegalStateException if the file cannot be written
+   */
+  public void write(Schedule schedule, Path target) {
+    Path dir = target.toAbsolutePath().getParent();
+    Path temp = null;
+    try {
+      temp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+      try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+        OutputStream out = new BufferedOutputStream(file);
+        this.write(schedule, out);
+        out.flush();
+        file.getFD().sync();
+      }
+      try {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+      temp = null;
+    } catch (IOException e) {
+      throw new IllegalStateException("Error in saving " + target.getFileName() + ": "
+              + e.getMessage());
+    } finally {
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException e) {
+          //the save has already failed, and that is what gets reported.
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the given schedule as XML to the given stream. The stream is not closed.
+   *
+   * @param schedule the schedule to write
+   * @param out      the stream to write to
+   * @throws IllegalStateException if the XML cannot be written
+   */
+  public void write(Schedule schedule, OutputStream out) {
+    try {
+      XMLStreamWriter xml = this.factory.createXMLStreamWriter(out, "UTF-8");
+      xml.writeStartDocument("UTF-8", "1.0");
+      xml.writeCharacters("\n");
+      xml.writeStartElement("schedule");
+      xml.writeAttribute("id", schedule.fileName());
+      xml.writeCharacters("\n");
+      for (NUEvent e : schedule.eventsInSchedule()) {
+        this.writeEvent(xml, e);
+      }
+      xml.writeEndElement();
+      xml.writeEndDocument();
+      xml.flush();
+      xml.close();
+    } catch (XMLStreamException e) {
+      throw new IllegalStateException("Error in writing the schedule: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Saves every given user's schedule into the given directory, writing files in parallel.
+   * A schedule that fails to save does not stop the others.
+   *
+   * @param users     the users whose schedules to save
+   * @param directory the directory to save them in
+   * @throws IllegalStateException describing every schedule that could not be saved
+   */
+  public void writeAll(Collection<User> users, Path directory) {
+    List<User> toSave = new ArrayList<>(users);
+    int workers = Math.min(Runtime.getRuntime().availableProcessors(), toSave.size());
+    if (workers < 1) {
+      return;
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(workers, task -> {
+      Thread t = new Thread(task, "schedule-writer");
+      t.setDaemon(true);
+      return t;
+    });
+    try {
+      ThreadLocal<ScheduleWriter> writers = ThreadLocal.withInitial(ScheduleWriter::new);
+      List<Future<?>> pending = new ArrayList<>();
+      for (User u : toSave) {
+        Schedule s = u.userSchedule();
+        pending.add(pool.submit(() -> writers.get().write(s, directory.resolve(fileName(s)))));
+      }
+      Map<String, Throwable> failures = new LinkedHashMap<>();
+      for (int idx = 0; idx < pending.size(); idx++) {
+        try {
+          pending.get(idx).get();
+        } catch (ExecutionException e) {
+          failures.put(toSave.get(idx).printName(), e.getCause());
+        }
+      }
+      if (!failures.isEmpty()) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(failures.size()).append(" schedule(s) failed to save:");
+        for (Map.Entry<String, Throwable> entry : failures.entrySet()) {
+          sb.append("\n").append(entry.getKey()).append(": ")
+                  .append(entry.getValue().getMessage());
+        }
+        IllegalStateException ex = new IllegalStateException(sb.toString());
+        failures.values().forEach(ex::addSuppressed);
+        throw ex;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while saving schedules");
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Writes a single event element.
+   */
+  private void writeEvent(XMLStreamWriter xml, NUEvent e) throws XMLStreamException {
+    Time time = e.eventTime();
+    xml.writeStartElement("event");
+    xml.writeAttribute("id", e.eventId());
+    xml.writeCharacters("\n");
+    this.writeLeaf(xml, "name", e.eventName());
+    xml.writeStartElement("time");
+    xml.writeCharacters("\n");
+    this.writeLeaf(xml, "start-day", time.startDay().toString());
+    this.writeLeaf(xml, "start", time.startClockText());
+    this.writeLeaf(xml, "end-day", time.endDay().toString());
+    this.writeLeaf(xml, "end", time.endClockText());
+    xml.writeEndElement();
+    xml.writeCharacters("\n");
+    xml.writeStartElement("location");
+    xml.writeCharacters("\n");
+    this.writeLeaf(xml, "online", Boolean.toString(e.isOnline()));
+    this.writeLeaf(xml, "place", e.locationName());
+    xml.writeEndElement();
+    xml.writeCharacters("\n");
+    xml.writeStartElement("users");
+    xml.writeCharacters("\n");
+    for (String uId : e.inviteeIds()) {
+      this.writeLeaf(xml, "uid", uId);
+    }
+    xml.writeEndElement();
+    xml.writeCharacters("\n");
+    xml.writeEndElement();
+    xml.writeCharacters("\n");
+  }
+
+  /**
+   * Writes an element holding only text, followed by a new line.
+   */
+  private void writeLeaf(XMLStreamWriter xml, String name, String text)
+          throws XMLStreamException {
+    xml.writeStartElement(name);
+    xml.writeCharacters(text);
+    xml.writeEndElement();
+    xml.writeCharacters("\n");
+  }
+}
@@ -0,0 +1,54 @@
+package cs3500.planner.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that a call rejected by a CentralSystem leaves none of its locks held.
+ */
+public class CentralSystemLockingTest {
+
+  /**
+   * Runs the given call, which must fail, and then checks that a change needing the registry's
+   * write lock can still be made from another thread.
+   */
+  private static void assertFailsWithoutHoldingLocks(CentralSystem system, Runnable call)
+          throws InterruptedException {
+    try {
+      call.run();
+      fail("Call should have been rejected");
+    } catch (RuntimeException e) {
+      //expected, the locks are what is being checked.
+    }
+    Thread reset = new Thread(system::resetUsers);
+    reset.setDaemon(true);
+    reset.start();
+    reset.join(5000);
+    assertFalse("A lock was left held", reset.isAlive());
+  }
+
+  @Test
+  public void testRejectedCallsReleaseTheRegistryLock() throws InterruptedException {
+    CentralSystem system = new CentralSystem();
+    User amy = new User("amy", new Schedule("amy", new ArrayList<>()));
+    NUEvent e = new NUEvent("meet", new ArrayList<>(Arrays.asList(amy)),
+            new Location(true, "zoom"), new Time(60, 120), amy);
+    ArrayList<User> withNull = new ArrayList<>(Arrays.asList(amy, null));
+    assertFailsWithoutHoldingLocks(system, () -> system.removeEvent(e, null));
+    assertFailsWithoutHoldingLocks(system, () -> system.removeEvent(null, amy));
+    assertFailsWithoutHoldingLocks(system,
+            () -> system.modifyEvent(null, "x", null, null, null));
+    assertFailsWithoutHoldingLocks(system, () -> system.checkForTimeConflict(e, null));
+    assertFailsWithoutHoldingLocks(system, () -> system.isFree(null, 0, 10));
+    assertFailsWithoutHoldingLocks(system, () -> system.freeUsers(withNull, 0, 10));
+    assertFailsWithoutHoldingLocks(system, () -> system.allFree(withNull, 0, 10));
+    assertFailsWithoutHoldingLocks(system,
+            () -> system.findSlots(30, withNull, new Time(0, 600), 1));
+    assertFailsWithoutHoldingLocks(system, () -> system.isFree(amy, 0, 10));
+  }
+}
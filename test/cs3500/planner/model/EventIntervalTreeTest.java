@@ -0,0 +1,126 @@
+package cs3500.planner.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the interval index behind a Schedule against a brute-force scan of its events.
+ */
+public class EventIntervalTreeTest {
+  private static final User HOST = new User("host", new Schedule("host", new ArrayList<>()));
+
+  private static NUEvent event(String name, int start, int end) {
+    return new NUEvent(name, new ArrayList<>(List.of(HOST)), new Location(true, "zoom"),
+            new Time(start, end), HOST);
+  }
+
+  /**
+   * Determines by brute force if the given event overlaps the range [start, end), splitting
+   * both at the end of the week the same way the index does.
+   */
+  private static boolean overlaps(NUEvent e, int start, int end) {
+    int[] held = EventIntervalTree.weekSegments(e.startMinute(), e.endMinute());
+    int[] asked = EventIntervalTree.weekSegments(start, end);
+    for (int h = 0; h < held.length; h += 2) {
+      for (int a = 0; a < asked.length; a += 2) {
+        if (held[h] < asked[a + 1] && asked[a] < held[h + 1]) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Test
+  public void testWeekSegmentsSplitsWrappingRanges() {
+    assertEquals(List.of(10, 20), asList(EventIntervalTree.weekSegments(10, 20)));
+    assertEquals(List.of(10, 11), asList(EventIntervalTree.weekSegments(10, 10)));
+    assertEquals(List.of(10000, Time.MINUTES_PER_WEEK),
+            asList(EventIntervalTree.weekSegments(10000, 0)));
+    assertEquals(List.of(10000, Time.MINUTES_PER_WEEK, 0, 30),
+            asList(EventIntervalTree.weekSegments(10000, 30)));
+  }
+
+  private static List<Integer> asList(int[] values) {
+    List<Integer> list = new ArrayList<>();
+    for (int v : values) {
+      list.add(v);
+    }
+    return list;
+  }
+
+  @Test
+  public void testIntervalsAreHalfOpen() {
+    EventIntervalTree tree = new EventIntervalTree();
+    tree.insert(event("a", 100, 200));
+    assertFalse(tree.anyOverlap(200, 300));
+    assertFalse(tree.anyOverlap(0, 100));
+    assertTrue(tree.anyOverlap(199, 300));
+    assertTrue(tree.anyOverlap(50, 101));
+  }
+
+  @Test
+  public void testWrappingEventIsFoundAtBothEndsOfTheWeekOnce() {
+    EventIntervalTree tree = new EventIntervalTree();
+    NUEvent wrap = event("wrap", Time.MINUTES_PER_WEEK - 60, 60);
+    tree.insert(wrap);
+    assertTrue(tree.anyOverlap(0, 10));
+    assertTrue(tree.anyOverlap(Time.MINUTES_PER_WEEK - 10, Time.MINUTES_PER_WEEK - 5));
+    assertFalse(tree.anyOverlap(60, Time.MINUTES_PER_WEEK - 60));
+    assertEquals(List.of(wrap), tree.overlapping(Time.MINUTES_PER_WEEK - 5, 5));
+  }
+
+  @Test
+  public void testRemoveUsesIndexedTimeAfterEventIsModified() {
+    EventIntervalTree tree = new EventIntervalTree();
+    NUEvent e = event("moved", 100, 200);
+    tree.insert(e);
+    e.modifyTime(new Time(500, 600));
+    tree.remove(e);
+    assertFalse(tree.anyOverlap(0, Time.MINUTES_PER_WEEK - 1));
+  }
+
+  @Test
+  public void testMatchesBruteForceUnderRandomInsertsAndRemoves() {
+    Random random = new Random(42);
+    EventIntervalTree tree = new EventIntervalTree();
+    List<NUEvent> live = new ArrayList<>();
+    for (int step = 0; step < 4000; step++) {
+      if (live.isEmpty() || random.nextInt(3) > 0) {
+        int start = random.nextInt(Time.MINUTES_PER_WEEK);
+        int end = (start + 1 + random.nextInt(600)) % Time.MINUTES_PER_WEEK;
+        NUEvent e = event("e" + step, start, end);
+        tree.insert(e);
+        live.add(e);
+      }
+      else {
+        tree.remove(live.remove(random.nextInt(live.size())));
+      }
+      int start = random.nextInt(Time.MINUTES_PER_WEEK);
+      int end = (start + 1 + random.nextInt(900)) % Time.MINUTES_PER_WEEK;
+      Set<NUEvent> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (NUEvent e : live) {
+        if (overlaps(e, start, end)) {
+          expected.add(e);
+        }
+      }
+      List<NUEvent> found = tree.overlapping(start, end);
+      Set<NUEvent> foundSet = Collections.newSetFromMap(new IdentityHashMap<>());
+      foundSet.addAll(found);
+      assertEquals("duplicates at step " + step, found.size(), foundSet.size());
+      assertEquals("overlapping at step " + step, expected, foundSet);
+      assertEquals("anyOverlap at step " + step, !expected.isEmpty(),
+              tree.anyOverlap(start, end));
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package cs3500.planner.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that striped locks are taken once each, in order, and exclude each other.
+ */
+public class LockStripesTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoStripesIsRejected() {
+    new LockStripes(0);
+  }
+
+  @Test
+  public void testStripeCountIsRoundedUpToAPowerOfTwo() {
+    LockStripes stripes = new LockStripes(5);
+    for (int idx = 0; idx < 1000; idx++) {
+      int s = stripes.stripeOf("user" + idx);
+      assertTrue(s >= 0 && s < 8);
+    }
+    assertEquals(0, new LockStripes(1).stripeOf("anyone"));
+  }
+
+  @Test
+  public void testLockTakesEachStripeOnceInIncreasingOrder() {
+    LockStripes stripes = new LockStripes(8);
+    List<String> uIds = new ArrayList<>();
+    for (int idx = 0; idx < 40; idx++) {
+      uIds.add("user" + idx);
+    }
+    int[] held = stripes.lock(uIds);
+    try {
+      for (int idx = 1; idx < held.length; idx++) {
+        assertTrue(held[idx - 1] < held[idx]);
+      }
+      assertTrue(stripes.covers(held, uIds));
+      Set<Integer> distinct = new HashSet<>();
+      for (String uId : uIds) {
+        distinct.add(stripes.stripeOf(uId));
+      }
+      assertEquals(distinct.size(), held.length);
+    } finally {
+      stripes.unlock(held);
+    }
+  }
+
+  @Test
+  public void testCoversOnlyUsersWhoseStripesAreHeld() {
+    LockStripes stripes = new LockStripes(64);
+    String other = "b";
+    while (stripes.stripeOf(other) == stripes.stripeOf("a")) {
+      other += "b";
+    }
+    int[] held = stripes.lock("a");
+    try {
+      assertTrue(stripes.covers(held, List.of("a")));
+      assertFalse(stripes.covers(held, List.of("a", other)));
+    } finally {
+      stripes.unlock(held);
+    }
+  }
+
+  @Test
+  public void testUnlockLetsAnotherThreadTakeTheStripes() throws InterruptedException {
+    LockStripes stripes = new LockStripes(4);
+    stripes.unlock(stripes.lock(List.of("a", "b", "c")));
+    Thread other = new Thread(() -> stripes.unlock(stripes.lock(List.of("c", "a"))));
+    other.start();
+    other.join(5000);
+    assertFalse("stripes were left locked", other.isAlive());
+  }
+
+  @Test
+  public void testOverlappingLocksInAnyOrderExcludeAndNeverDeadlock()
+          throws InterruptedException {
+    LockStripes stripes = new LockStripes(4);
+    String[] uIds = {"amy", "bob", "cat", "dan", "eve", "fay"};
+    AtomicBoolean[] inUse = new AtomicBoolean[uIds.length];
+    for (int idx = 0; idx < uIds.length; idx++) {
+      inUse[idx] = new AtomicBoolean();
+    }
+    AtomicBoolean overlapped = new AtomicBoolean();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      Random random = new Random(t);
+      threads.add(new Thread(() -> {
+        try {
+          for (int round = 0; round < 20000; round++) {
+            List<String> chosen = new ArrayList<>();
+            for (int pick = 0; pick < 3; pick++) {
+              chosen.add(uIds[random.nextInt(uIds.length)]);
+            }
+            int[] held = stripes.lock(chosen);
+            try {
+              List<Integer> taken = new ArrayList<>();
+              for (String uId : chosen) {
+                int idx = List.of(uIds).indexOf(uId);
+                if (taken.contains(idx)) {
+                  continue;
+                }
+                if (!inUse[idx].compareAndSet(false, true)) {
+                  overlapped.set(true);
+                }
+                taken.add(idx);
+              }
+              for (int idx : taken) {
+                inUse[idx].set(false);
+              }
+            } finally {
+              stripes.unlock(held);
+            }
+          }
+        } catch (Throwable e) {
+          failure.set(e);
+        }
+      }));
+    }
+    for (Thread t : threads) {
+      t.start();
+    }
+    for (Thread t : threads) {
+      t.join(60000);
+      assertFalse("threads deadlocked", t.isAlive());
+    }
+    assertNull(failure.get());
+    assertFalse("two threads held the same user at once", overlapped.get());
+  }
+}
@@ -0,0 +1,71 @@
+package cs3500.planner.model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that nothing handed out by a version of the planner can be changed.
+ */
+public class PlannerSnapshotTest {
+  private User amy;
+  private NUEvent meeting;
+  private PlannerSnapshot snapshot;
+
+  @Before
+  public void setUp() {
+    this.amy = new User("amy", new Schedule("amy", new ArrayList<>()));
+    this.meeting = new NUEvent("meet", new ArrayList<>(Arrays.asList(this.amy)),
+            new Location(true, "zoom"), new Time(60, 120), this.amy);
+    this.amy.userSchedule().addEvent(this.meeting);
+    this.snapshot = PlannerSnapshot.of(List.of(this.amy), 0);
+  }
+
+  /**
+   * Checks that the given change is refused with an IllegalStateException.
+   */
+  private static void assertRefused(Runnable change) {
+    try {
+      change.run();
+      fail("Change should have been refused");
+    } catch (IllegalStateException e) {
+      //expected.
+    }
+  }
+
+  @Test
+  public void testUsersAndEventsOfAVersionRefuseChanges() {
+    User held = this.snapshot.findUser("amy");
+    NUEvent copy = held.userSchedule().eventsInSchedule().get(0);
+    assertRefused(() -> held.removeEvent(copy, held));
+    assertRefused(() -> held.createEvent("other", new ArrayList<>(), new Location(true, "zoom"),
+            new Time(300, 360), held));
+    assertRefused(() -> held.modifyEvent("meet", "renamed", null, null, null));
+    assertRefused(() -> copy.modifyName("renamed"));
+    assertRefused(() -> copy.modifyTime(new Time(0, 30)));
+    held.userSchedule().eventsInSchedule().clear();
+    assertEquals(1, this.snapshot.usersEvents(this.amy).size());
+    assertEquals("meet", this.snapshot.eventsOf("amy").get(0).eventName());
+  }
+
+  @Test
+  public void testChangesToTheLiveUserDoNotReachTheVersion() {
+    this.meeting.modifyName("renamed");
+    assertEquals("meet", this.snapshot.usersEvents(this.amy).get(0).eventName());
+    assertEquals("renamed", this.meeting.frozenCopy().eventName());
+  }
+
+  @Test
+  public void testCopiesAreTheirOwnCopies() {
+    NUEvent copy = this.meeting.frozenCopy();
+    assertSame(copy, copy.frozenCopy());
+    assertSame(copy, this.snapshot.eventsOf("amy").get(0));
+  }
+}
@@ -0,0 +1,133 @@
+package cs3500.planner.model;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import cs3500.planner.xmlbehavior.ScheduleWriter;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that a SingleWriterPlanner fails only the command that threw, whatever it threw, and
+ * that a thread waiting for a file to load can be interrupted.
+ */
+public class SingleWriterPlannerTest {
+
+  /**
+   * A user whose name cannot be read, so any change made by them throws an Error.
+   */
+  private static final class BrokenUser extends User {
+    private final Error error;
+
+    private BrokenUser(Error error) {
+      super("broken", new Schedule("broken", new ArrayList<>()));
+      this.error = error;
+    }
+
+    @Override
+    public String printName() {
+      throw this.error;
+    }
+  }
+
+  @Test
+  public void testErrorFailsOnlyItsOwnCommand() throws Exception {
+    SingleWriterPlanner planner = new SingleWriterPlanner(new CentralSystem());
+    try {
+      AssertionError error = new AssertionError("broken");
+      User amy = new User("amy", new Schedule("amy", new ArrayList<>()));
+      NUEvent e = new NUEvent("meet", new ArrayList<>(Arrays.asList(amy)),
+              new Location(true, "zoom"), new Time(60, 120), amy);
+      CompletableFuture<Void> failed = planner.submitRemoveEvent(e, new BrokenUser(error));
+      CompletableFuture<Void> after = planner.submitResetUsers();
+      try {
+        failed.get(5, TimeUnit.SECONDS);
+        fail("Command should have failed");
+      } catch (ExecutionException ex) {
+        assertSame(error, ex.getCause());
+      }
+      after.get(5, TimeUnit.SECONDS);
+      try {
+        planner.removeEvent(e, new BrokenUser(error));
+        fail("Error should have been rethrown");
+      } catch (AssertionError ex) {
+        assertSame(error, ex);
+      }
+      planner.submitResetUsers().get(5, TimeUnit.SECONDS);
+    } finally {
+      planner.close();
+    }
+  }
+
+  /**
+   * A user whose name is only read once the given latch is released, holding up the writer.
+   */
+  private static final class SlowUser extends User {
+    private final CountDownLatch release;
+
+    private SlowUser(CountDownLatch release) {
+      super("slow", new Schedule("slow", new ArrayList<>()));
+      this.release = release;
+    }
+
+    @Override
+    public String printName() {
+      try {
+        this.release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return super.printName();
+    }
+  }
+
+  @Test
+  public void testInterruptedLoadReturnsAndIsAbandoned() throws Exception {
+    Path dir = Files.createTempDirectory("single-writer-test");
+    Path file = dir.resolve("amy.xml");
+    new ScheduleWriter().write(new Schedule("amy", new ArrayList<>()), file);
+    SingleWriterPlanner planner = new SingleWriterPlanner(new CentralSystem());
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      User amy = new User("amy", new Schedule("amy", new ArrayList<>()));
+      NUEvent e = new NUEvent("meet", new ArrayList<>(Arrays.asList(amy)),
+              new Location(true, "zoom"), new Time(60, 120), amy);
+      CompletableFuture<Void> held = planner.submitRemoveEvent(e, new SlowUser(release));
+      AtomicReference<Throwable> thrown = new AtomicReference<>();
+      Thread loader = new Thread(() -> {
+        try {
+          planner.addFile(file.toFile());
+        } catch (Throwable t) {
+          thrown.set(t);
+        }
+      });
+      loader.start();
+      Thread.sleep(100);
+      loader.interrupt();
+      loader.join(5000);
+      assertTrue(thrown.get() instanceof IllegalStateException);
+      release.countDown();
+      held.handle((v, t) -> null).get(5, TimeUnit.SECONDS);
+      planner.submitResetUsers().get(5, TimeUnit.SECONDS);
+      planner.uploadUser();
+      assertNull(planner.findUser("amy"));
+    } finally {
+      release.countDown();
+      planner.close();
+      Files.deleteIfExists(file);
+      Files.deleteIfExists(dir);
+    }
+  }
+}
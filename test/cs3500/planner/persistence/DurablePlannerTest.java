@@ -0,0 +1,194 @@
+package cs3500.planner.persistence;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import cs3500.planner.model.BatchMode;
+import cs3500.planner.model.EventSpec;
+import cs3500.planner.model.Location;
+import cs3500.planner.model.NUEvent;
+import cs3500.planner.model.Schedule;
+import cs3500.planner.model.Time;
+import cs3500.planner.model.User;
+import cs3500.planner.xmlbehavior.ScheduleWriter;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that a DurablePlanner reopened from its data directory holds exactly what it held
+ * before it was closed.
+ */
+public class DurablePlannerTest {
+  private Path root;
+  private Path data;
+  private ArrayList<File> files;
+
+  @Before
+  public void setUp() throws IOException {
+    this.root = Files.createTempDirectory("durable-planner-test");
+    this.data = this.root.resolve("data");
+    this.files = new ArrayList<>();
+    ScheduleWriter writer = new ScheduleWriter();
+    for (String uId : List.of("host", "amy", "bob")) {
+      Path file = this.root.resolve(uId + ".xml");
+      writer.write(new Schedule(uId, new ArrayList<>()), file);
+      this.files.add(file.toFile());
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(this.root)) {
+      paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  private DurablePlanner open(long threshold) {
+    return DurablePlanner.open(this.data, this.files, threshold);
+  }
+
+  private static User stub(String uId) {
+    return new User(uId, new Schedule(uId, new ArrayList<>()));
+  }
+
+  private static ArrayList<User> users(String... uIds) {
+    ArrayList<User> users = new ArrayList<>();
+    for (String uId : uIds) {
+      users.add(stub(uId));
+    }
+    return users;
+  }
+
+  /**
+   * Describes every user and every detail of their events, in an order that does not depend on
+   * the order they were stored in.
+   */
+  private static String describe(List<User> users) {
+    TreeMap<String, List<String>> described = new TreeMap<>();
+    for (User u : users) {
+      List<String> events = new ArrayList<>();
+      for (NUEvent e : u.userSchedule().eventsInSchedule()) {
+        events.add(e.eventId() + " " + e.eventName() + " " + e.hostName() + " "
+                + e.startMinute() + "-" + e.endMinute() + " " + e.isOnline() + " "
+                + e.locationName() + " " + e.inviteeIds());
+      }
+      events.sort(null);
+      described.put(u.printName(), events);
+    }
+    return described.toString();
+  }
+
+  @Test
+  public void testReplayedHostRemovalReachesInviteesTheHostClashedWith() {
+    String live;
+    try (DurablePlanner planner = this.open(DurablePlanner.DEFAULT_COMPACT_THRESHOLD)) {
+      planner.uploadUser();
+      User host = planner.findUser("host");
+      planner.createEvent("busy", new ArrayList<>(), new Location(true, "home"),
+              new Time(600, 700), host);
+      planner.createEvent("meet", users("amy"), new Location(true, "zoom"),
+              new Time(650, 660), host);
+      assertEquals(1, planner.usersEvents(planner.findUser("amy")).size());
+      NUEvent meet = planner.usersEvents(planner.findUser("amy")).get(0);
+      planner.removeEvent(meet, host);
+      assertEquals(0, planner.usersEvents(planner.findUser("amy")).size());
+      live = describe(planner.usersInSystem());
+    }
+    try (DurablePlanner reopened = this.open(DurablePlanner.DEFAULT_COMPACT_THRESHOLD)) {
+      assertEquals(live, describe(reopened.usersInSystem()));
+    }
+  }
+
+  @Test
+  public void testReopenRestoresEveryKindOfChange() {
+    String live;
+    try (DurablePlanner planner = this.open(DurablePlanner.DEFAULT_COMPACT_THRESHOLD)) {
+      planner.uploadUser();
+      User host = planner.findUser("host");
+      planner.createEvent("standup", users("amy", "bob"), new Location(false, "room 1"),
+              new Time(540, 555), host);
+      planner.createEvent("lunch", users("bob"), new Location(false, "cafe"),
+              new Time(720, 780), host);
+      planner.modifyEvent("lunch", "late lunch", null, null, new Time(780, 840));
+      planner.createEvents(List.of(
+              new EventSpec("review", users("amy"), new Location(true, "zoom"),
+                      new Time(2000, 2060), host),
+              new EventSpec("clash", users("amy"), new Location(true, "zoom"),
+                      new Time(2030, 2040), host)), BatchMode.BEST_EFFORT);
+      NUEvent standup = planner.usersEvents(planner.findUser("bob")).stream()
+              .filter(e -> e.eventName().equals("standup")).findFirst().get();
+      planner.removeEvent(standup, planner.findUser("bob"));
+      live = describe(planner.usersInSystem());
+    }
+    try (DurablePlanner reopened = this.open(DurablePlanner.DEFAULT_COMPACT_THRESHOLD)) {
+      assertEquals(live, describe(reopened.usersInSystem()));
+    }
+  }
+
+  /**
+   * Copies the data directory as it is on disk now, as if the process had died, without closing
+   * the planner writing to it.
+   */
+  private Path crashCopy() throws IOException {
+    Path copy = this.root.resolve("crashed");
+    Files.createDirectories(copy);
+    try (Stream<Path> paths = Files.list(this.data)) {
+      for (Path p : paths.toArray(Path[]::new)) {
+        Files.copy(p, copy.resolve(p.getFileName()));
+      }
+    }
+    return copy;
+  }
+
+  @Test
+  public void testLoadedUsersAreOnDiskOnceUploadReturns() throws IOException {
+    String live;
+    Path crashed;
+    try (DurablePlanner planner = this.open(DurablePlanner.DEFAULT_COMPACT_THRESHOLD)) {
+      planner.uploadUser();
+      planner.createEvent("standup", users("amy"), new Location(false, "room 1"),
+              new Time(540, 555), planner.findUser("host"));
+      live = describe(planner.usersInSystem());
+      crashed = this.crashCopy();
+    }
+    try (DurablePlanner reopened = DurablePlanner.open(crashed, new ArrayList<>(),
+            DurablePlanner.DEFAULT_COMPACT_THRESHOLD)) {
+      assertEquals(live, describe(reopened.usersInSystem()));
+    }
+  }
+
+  @Test
+  public void testReopenAfterCompactionRestoresState() {
+    String live;
+    try (DurablePlanner planner = this.open(256)) {
+      planner.uploadUser();
+      User host = planner.findUser("host");
+      for (int idx = 0; idx < 50; idx++) {
+        planner.createEvent("event " + idx, users("amy"), new Location(true, "zoom"),
+                new Time(idx * 60, idx * 60 + 30), host);
+      }
+      for (int idx = 0; idx < 50; idx += 3) {
+        NUEvent e = planner.usersEvents(host).stream()
+                .filter(found -> found.startMinute() % 180 == 0).findFirst().orElse(null);
+        if (e != null) {
+          planner.removeEvent(e, host);
+        }
+      }
+      live = describe(planner.usersInSystem());
+    }
+    try (DurablePlanner reopened = this.open(256)) {
+      assertEquals(live, describe(reopened.usersInSystem()));
+    }
+  }
+}
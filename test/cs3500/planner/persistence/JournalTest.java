@@ -0,0 +1,166 @@
+package cs3500.planner.persistence;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that a Journal gives back exactly the records that reached the disk whole.
+ */
+public class JournalTest {
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    this.file = Files.createTempFile("journal-test", ".log");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(this.file);
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private List<String> readBack() {
+    List<String> texts = new ArrayList<>();
+    for (byte[] record : Journal.read(this.file)) {
+      texts.add(new String(record, StandardCharsets.UTF_8));
+    }
+    return texts;
+  }
+
+  @Test
+  public void testRecordsAreReadBackInOrder() {
+    try (Journal journal = new Journal(this.file)) {
+      journal.append(bytes("one"));
+      journal.append(new byte[0]);
+      journal.append(bytes("three")).join();
+      assertEquals(journal.size(), this.file.toFile().length());
+    }
+    assertEquals(List.of("one", "", "three"), this.readBack());
+  }
+
+  @Test
+  public void testReopeningAppendsAfterExistingRecords() {
+    try (Journal journal = new Journal(this.file)) {
+      journal.append(bytes("first"));
+    }
+    try (Journal journal = new Journal(this.file)) {
+      assertEquals(this.file.toFile().length(), journal.size());
+      journal.append(bytes("second"));
+    }
+    assertEquals(List.of("first", "second"), this.readBack());
+  }
+
+  @Test
+  public void testConcurrentAppendsAreAllWrittenWhole() throws InterruptedException {
+    List<Thread> threads = new ArrayList<>();
+    try (Journal journal = new Journal(this.file)) {
+      for (int t = 0; t < 4; t++) {
+        String prefix = "thread" + t + ":";
+        threads.add(new Thread(() -> {
+          List<CompletableFuture<Void>> written = new ArrayList<>();
+          for (int idx = 0; idx < 250; idx++) {
+            written.add(journal.append(bytes(prefix + idx)));
+          }
+          written.forEach(CompletableFuture::join);
+        }));
+      }
+      for (Thread t : threads) {
+        t.start();
+      }
+      for (Thread t : threads) {
+        t.join();
+      }
+    }
+    List<String> texts = this.readBack();
+    assertEquals(1000, texts.size());
+    for (int t = 0; t < 4; t++) {
+      int last = -1;
+      for (String text : texts) {
+        if (text.startsWith("thread" + t + ":")) {
+          int idx = Integer.parseInt(text.substring(text.indexOf(':') + 1));
+          assertEquals(last + 1, idx);
+          last = idx;
+        }
+      }
+      assertEquals(249, last);
+    }
+  }
+
+  @Test
+  public void testRecordCutShortIsDroppedWithEverythingAfterIt() throws IOException {
+    try (Journal journal = new Journal(this.file)) {
+      journal.append(bytes("kept"));
+      journal.append(bytes("torn record"));
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(this.file.toFile(), "rw")) {
+      raf.setLength(raf.length() - 3);
+    }
+    assertEquals(List.of("kept"), this.readBack());
+  }
+
+  @Test
+  public void testRecordWithBadChecksumIsDroppedWithEverythingAfterIt() throws IOException {
+    try (Journal journal = new Journal(this.file)) {
+      journal.append(bytes("kept"));
+      journal.append(bytes("flipped"));
+      journal.append(bytes("after"));
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(this.file.toFile(), "rw")) {
+      long flipped = 8 + 4 + 8;
+      raf.seek(flipped);
+      int b = raf.read();
+      raf.seek(flipped);
+      raf.write(b ^ 1);
+    }
+    assertEquals(List.of("kept"), this.readBack());
+  }
+
+  @Test
+  public void testHeaderWithImpossibleLengthEndsTheJournal() throws IOException {
+    try (Journal journal = new Journal(this.file)) {
+      journal.append(bytes("kept"));
+    }
+    Files.write(this.file, new byte[] {(byte) 0xFF, 0, 0, 0, 0, 0, 0, 0},
+            StandardOpenOption.APPEND);
+    assertEquals(List.of("kept"), this.readBack());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAppendAfterCloseIsRejected() {
+    Journal journal = new Journal(this.file);
+    journal.close();
+    journal.append(bytes("late"));
+  }
+
+  @Test
+  public void testCloseWaitsForQueuedRecords() {
+    List<CompletableFuture<Void>> written = new ArrayList<>();
+    Journal journal = new Journal(this.file);
+    for (int idx = 0; idx < 100; idx++) {
+      written.add(journal.append(bytes("r" + idx)));
+    }
+    journal.close();
+    for (CompletableFuture<Void> w : written) {
+      assertTrue(w.isDone() && !w.isCompletedExceptionally());
+    }
+    assertEquals(100, this.readBack().size());
+  }
+}
@@ -0,0 +1,86 @@
+package cs3500.planner.remote;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import cs3500.planner.model.CentralSystem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that a PlannerServer answers requests with impossible list lengths as malformed, and
+ * keeps serving the connection afterwards.
+ */
+public class PlannerServerTest {
+
+  /**
+   * Sends a request and reads back the status of the response.
+   */
+  private static byte call(DataOutputStream out, DataInputStream in, byte op,
+                           ByteArrayOutputStream body) throws IOException {
+    PlannerProtocol.writeFrame(out, op, body);
+    byte[] frame = PlannerProtocol.readFrame(in);
+    return frame[0];
+  }
+
+  /**
+   * Returns the body of a FREE_USERS request for the given number of users, without any ids.
+   */
+  private static ByteArrayOutputStream freeUsers(int count) throws IOException {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(body);
+    out.writeInt(count);
+    out.writeInt(0);
+    out.writeInt(10);
+    return body;
+  }
+
+  @Test
+  public void testBadListLengthsAreRejectedWithoutDroppingTheConnection() throws IOException {
+    try (PlannerServer server = new PlannerServer(new CentralSystem(), 0);
+         Socket client = new Socket(InetAddress.getLoopbackAddress(), server.port())) {
+      DataOutputStream out = new DataOutputStream(client.getOutputStream());
+      DataInputStream in = new DataInputStream(client.getInputStream());
+      out.writeInt(PlannerProtocol.MAGIC);
+      out.writeInt(PlannerProtocol.VERSION);
+      out.flush();
+      assertEquals(PlannerProtocol.MAGIC, in.readInt());
+      assertEquals(PlannerProtocol.VERSION, in.readInt());
+      assertEquals(PlannerProtocol.ILLEGAL_ARGUMENT,
+              call(out, in, PlannerProtocol.FREE_USERS, freeUsers(Integer.MAX_VALUE)));
+      assertEquals(PlannerProtocol.ILLEGAL_ARGUMENT,
+              call(out, in, PlannerProtocol.FREE_USERS, freeUsers(-2)));
+      assertEquals(PlannerProtocol.OK,
+              call(out, in, PlannerProtocol.FREE_USERS, freeUsers(0)));
+    }
+  }
+
+  @Test
+  public void testCheckCount() throws IOException {
+    DataInputStream in = PlannerProtocol.body(new byte[] {0, 1, 2, 3, 4});
+    assertEquals(2, PlannerProtocol.checkCount(2, in, PlannerProtocol.MIN_ID_BYTES));
+    assertTrue(failsCheck(3, in));
+    assertTrue(failsCheck(-1, in));
+    assertFalse(failsCheck(0, in));
+  }
+
+  /**
+   * Returns whether the given list length is rejected for the rest of the given body.
+   */
+  private static boolean failsCheck(int count, DataInputStream in) {
+    try {
+      PlannerProtocol.checkCount(count, in, PlannerProtocol.MIN_ID_BYTES);
+      return false;
+    } catch (IOException e) {
+      return true;
+    }
+  }
+}